@@ -0,0 +1,20 @@
+package dataaccess;
+
+import model.AuthData;
+
+public interface AuthDAO {
+
+    void createAuth(AuthData auth) throws DataAccessException;
+
+    /**
+     * @return the token and its user, or null if the token was never issued or has been deleted
+     */
+    AuthData getAuth(String authToken) throws DataAccessException;
+
+    /**
+     * @return true if the token existed
+     */
+    boolean deleteAuth(String authToken) throws DataAccessException;
+
+    void clear() throws DataAccessException;
+}
@@ -0,0 +1,189 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers token lookups in front of another auth store, so the auth check every
+ * request and WebSocket command makes is usually a map read instead of a query.
+ * <p>
+ * Tokens that resolved are cached for the positive TTL. Tokens that did not are cached
+ * as absent for the shorter negative TTL, so a client retrying with a bad token does not
+ * reach the database either. Deleting a token (logout) replaces its entry with an
+ * absent one before returning, and lookups that raced the delete never overwrite that
+ * tombstone, so a logged-out token is refused from the very next request.
+ * <p>
+ * The cache holds at most maxEntries; inserts beyond that evict with the CLOCK policy,
+ * giving tokens used since the hand last passed another lap.
+ */
+public class CachingAuthDAO implements AuthDAO {
+    private final AuthDAO delegate;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ArrayDeque<Entry> clock = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private static class Entry {
+        final String token;
+        final AuthData auth;
+        final long expiresAt;
+        volatile boolean referenced;
+
+        Entry(String token, AuthData auth, long expiresAt) {
+            this.token = token;
+            this.auth = auth;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * @param delegate          the store the tokens really live in
+     * @param maxEntries        tokens, valid or not, to remember at most
+     * @param ttlMillis         how long a valid token is trusted without asking the store
+     * @param negativeTtlMillis how long an unknown token is refused without asking the store
+     */
+    public CachingAuthDAO(AuthDAO delegate, int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this(delegate, maxEntries, ttlMillis, negativeTtlMillis, System::nanoTime);
+    }
+
+    CachingAuthDAO(AuthDAO delegate, int maxEntries, long ttlMillis, long negativeTtlMillis, LongSupplier nanoTime) {
+        if(maxEntries < 1 || ttlMillis <= 0 || negativeTtlMillis <= 0)
+            throw new IllegalArgumentException("Cache size and TTLs must be positive");
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000L;
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+        store(new Entry(auth.authToken(), auth, nanoTime.getAsLong() + ttlNanos), true);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        Entry entry = entries.get(authToken);
+        if(entry != null && nanoTime.getAsLong() - entry.expiresAt < 0) {
+            if(!entry.referenced)
+                entry.referenced = true;
+            if(entry.auth == null)
+                negativeHits.increment();
+            else hits.increment();
+            return entry.auth;
+        }
+        misses.increment();
+        AuthData auth = delegate.getAuth(authToken);
+        long ttl = (auth == null) ? negativeTtlNanos : ttlNanos;
+        store(new Entry(authToken, auth, nanoTime.getAsLong() + ttl), false);
+        return auth;
+    }
+
+    @Override
+    public boolean deleteAuth(String authToken) throws DataAccessException {
+        boolean deleted = delegate.deleteAuth(authToken);
+        // A tombstone rather than a removal, so a lookup that read the token before the delete cannot re-cache it
+        store(new Entry(authToken, null, nanoTime.getAsLong() + ttlNanos), true);
+        return deleted;
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        lock.lock();
+        try {
+            delegate.clear();
+            entries.clear();
+            clock.clear();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param authoritative true when the entry reflects a write this cache just made, which
+     *                      replaces whatever is cached; false for a lookup's result, which
+     *                      only fills an empty or expired slot
+     */
+    private void store(Entry entry, boolean authoritative) {
+        lock.lock();
+        try {
+            long now = nanoTime.getAsLong();
+            Entry current = entries.get(entry.token);
+            if(!authoritative && current != null && now - current.expiresAt < 0)
+                return;
+            entries.put(entry.token, entry);
+            clock.addLast(entry);
+            while(clock.size() > maxEntries) {
+                Entry hand = clock.pollFirst();
+                if(entries.get(hand.token) != hand)
+                    continue; // replaced since it was queued
+                if(hand.referenced && hand != entry && now - hand.expiresAt < 0) {
+                    hand.referenced = false;
+                    clock.addLast(hand);
+                    continue;
+                }
+                entries.remove(hand.token);
+                evictions.increment();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return lookups answered with a valid token from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return lookups refused from the cache because the token was known to be invalid
+     */
+    public long getNegativeHits() {
+        return negativeHits.sum();
+    }
+
+    /**
+     * @return lookups that went to the underlying store
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the fraction of lookups answered without the underlying store, or 0 before any lookup
+     */
+    public double getHitRate() {
+        long answered = hits.sum() + negativeHits.sum();
+        long total = answered + misses.sum();
+        return (total == 0) ? 0 : (double) answered / total;
+    }
+
+    /**
+     * @return tokens currently remembered, valid or not
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,453 @@
+package dataaccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A fixed-capacity pool of JDBC connections. Borrowers get a wrapper whose close()
+ * hands the physical connection back instead of closing it, so code written for
+ * short-lived connections (try-with-resources around every use) keeps working and
+ * simply stops paying for a TCP and authentication handshake each time.
+ * <p>
+ * Idle connections are reused most-recently-returned first, and one that sat idle
+ * longer than the validation window is checked with {@link Connection#isValid(int)}
+ * before it is handed out. A housekeeping thread closes connections idle past the idle
+ * timeout down to the minimum, tops the pool back up to the minimum, and reports any
+ * connection held longer than the leak threshold with a stack trace. By default that is
+ * the borrowing thread's stack when the threshold passes, which costs nothing until a
+ * leak is suspected; recording where every borrow happened costs a stack trace per
+ * borrow, so it is a setting to switch on while hunting a leak.
+ * <p>
+ * Each connection keeps its prepared statements in a {@link StatementCache}, so SQL
+ * prepared by one borrower is ready for the next.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+    /** A connection used more recently than this is handed out without a validation round trip */
+    private static final long VALIDATION_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    /** Prepared statements kept per connection; the DAOs use a few dozen distinct SQL strings */
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final LongSupplier nanoTime;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Pooled> idle = new ConcurrentLinkedDeque<>();
+    private final Map<Pooled, Boolean> borrowed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    /**
+     * Opens a physical connection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+
+    /**
+     * @param minIdle             connections kept open even when nothing is happening
+     * @param maxSize             connections open at most, borrowed or idle
+     * @param borrowTimeoutMillis how long a borrower waits for a connection before giving up
+     * @param idleTimeoutMillis   how long a connection above the minimum may sit unused before it is closed
+     * @param leakThresholdMillis how long a connection may be held before it is reported as leaked
+     * @param leakStackTraces     record each borrower's stack trace, so a leak report shows where the
+     *                            connection was borrowed rather than what the borrowing thread is doing now
+     */
+    public record Settings(int minIdle, int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis,
+                           long leakThresholdMillis, boolean leakStackTraces) {
+
+        public Settings {
+            if(minIdle < 0 || maxSize < 1 || minIdle > maxSize)
+                throw new IllegalArgumentException("Need 0 <= minIdle <= maxSize and maxSize >= 1");
+            if(borrowTimeoutMillis < 0 || idleTimeoutMillis <= 0 || leakThresholdMillis <= 0)
+                throw new IllegalArgumentException("Timeouts must be positive");
+        }
+
+        public static Settings defaults() {
+            return new Settings(2, 16, 5_000, 600_000, 30_000, false);
+        }
+    }
+
+    /**
+     * A physical connection and its bookkeeping
+     */
+    private static class Pooled {
+        final Connection physical;
+        final StatementCache statements;
+        volatile long lastUsed;
+        volatile long borrowedAt;
+        volatile Thread borrower;
+        volatile Throwable borrowSite;
+        volatile boolean reportedLeak;
+
+        Pooled(Connection physical, StatementCache statements, long now) {
+            this.physical = physical;
+            this.statements = statements;
+            this.lastUsed = now;
+        }
+    }
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this(factory, settings, System::nanoTime, true);
+    }
+
+    /**
+     * @param housekeeping whether to start the housekeeping thread; tests call {@link #housekeep()} themselves
+     */
+    ConnectionPool(ConnectionFactory factory, Settings settings, LongSupplier nanoTime, boolean housekeeping) {
+        this.factory = factory;
+        this.settings = settings;
+        this.nanoTime = nanoTime;
+        permits = new Semaphore(settings.maxSize(), true);
+        if(housekeeping) {
+            housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(100, Math.min(settings.idleTimeoutMillis(), settings.leakThresholdMillis()) / 4);
+            housekeeper.scheduleWithFixedDelay(this::housekeepQuietly, 0, period, TimeUnit.MILLISECONDS);
+        }
+        else housekeeper = null;
+    }
+
+    /**
+     * Borrows a connection; closing it returns it to the pool
+     *
+     * @throws DataAccessException if none came free within the borrow timeout, or a new one could not be opened
+     */
+    public Connection getConnection() throws DataAccessException {
+        if(closed)
+            throw new DataAccessException("Connection pool is closed");
+        long start = nanoTime.getAsLong();
+        boolean acquired = permits.tryAcquire();
+        if(!acquired) {
+            waits.increment();
+            try {
+                acquired = permits.tryAcquire(settings.borrowTimeoutMillis(), TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            long waited = nanoTime.getAsLong() - start;
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            if(!acquired) {
+                timeouts.increment();
+                throw new DataAccessException("Timed out after " + settings.borrowTimeoutMillis()
+                        + " ms waiting for a database connection");
+            }
+        }
+        try {
+            Pooled pooled = takeValid();
+            long now = nanoTime.getAsLong();
+            pooled.borrowedAt = now;
+            pooled.borrower = Thread.currentThread();
+            pooled.borrowSite = settings.leakStackTraces() ? new Throwable("Connection borrowed here") : null;
+            pooled.reportedLeak = false;
+            borrowed.put(pooled, Boolean.TRUE);
+            borrows.increment();
+            return wrap(pooled);
+        }
+        catch (DataAccessException | RuntimeException failed) {
+            permits.release();
+            throw failed;
+        }
+    }
+
+    /**
+     * @return an idle connection that is still alive, or a new one
+     */
+    private Pooled takeValid() throws DataAccessException {
+        Pooled pooled;
+        while((pooled = idle.pollFirst()) != null) {
+            if(nanoTime.getAsLong() - pooled.lastUsed < VALIDATION_WINDOW_NANOS || isValid(pooled))
+                return pooled;
+            destroy(pooled);
+        }
+        return open();
+    }
+
+    private Pooled open() throws DataAccessException {
+        try {
+            Connection physical = factory.connect();
+            StatementCache statements = new StatementCache(physical, STATEMENT_CACHE_SIZE, statementHits, statementMisses);
+            Pooled pooled = new Pooled(physical, statements, nanoTime.getAsLong());
+            created.increment();
+            return pooled;
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("failed to get connection", ex);
+        }
+    }
+
+    private static boolean isValid(Pooled pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        }
+        catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes a connection back from a borrower, undoing any transaction it left open
+     */
+    private void giveBack(Pooled pooled) {
+        borrowed.remove(pooled);
+        pooled.borrower = null;
+        pooled.borrowSite = null;
+        pooled.statements.releaseAll();
+        pooled.lastUsed = nanoTime.getAsLong();
+        boolean reusable = !closed;
+        try {
+            if(reusable && !pooled.physical.isClosed() && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            reusable = reusable && !pooled.physical.isClosed();
+        }
+        catch (SQLException ex) {
+            reusable = false;
+        }
+        if(reusable)
+            idle.addFirst(pooled);
+        else destroy(pooled);
+        permits.release();
+    }
+
+    private void destroy(Pooled pooled) {
+        destroyed.increment();
+        pooled.statements.clear();
+        try {
+            pooled.physical.close();
+        }
+        catch (SQLException ex) {
+            LOG.debug("Failed to close a pooled connection", ex);
+        }
+    }
+
+    private Connection wrap(Pooled pooled) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if(returned.compareAndSet(false, true))
+                                giveBack(pooled);
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return returned.get() || pooled.physical.isClosed();
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "Pooled " + pooled.physical;
+                        }
+                        default -> {
+                            if(returned.get())
+                                throw new SQLException("Connection has been returned to the pool");
+                        }
+                    }
+                    if(method.getName().equals("prepareStatement")) {
+                        Class<?>[] parameters = method.getParameterTypes();
+                        if(parameters.length == 1)
+                            return pooled.statements.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                        if(parameters.length == 2 && parameters[1] == int.class)
+                            return pooled.statements.prepare((String) args[0], (Integer) args[1]);
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    }
+                    catch (InvocationTargetException thrown) {
+                        throw thrown.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Closes idle connections past the idle timeout down to the minimum, opens new ones
+     * up to the minimum, and reports connections held past the leak threshold
+     */
+    void housekeep() throws DataAccessException {
+        long now = nanoTime.getAsLong();
+        long idleTimeout = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMillis());
+        for(Pooled pooled : idle) {
+            if(idle.size() <= settings.minIdle())
+                break;
+            if(now - pooled.lastUsed >= idleTimeout && idle.removeLastOccurrence(pooled))
+                destroy(pooled);
+        }
+
+        while(!closed && idle.size() < settings.minIdle() && idle.size() + borrowed.size() < settings.maxSize()
+                && permits.tryAcquire()) {
+            try {
+                idle.addLast(open());
+            }
+            finally {
+                permits.release();
+            }
+        }
+
+        long leakThreshold = TimeUnit.MILLISECONDS.toNanos(settings.leakThresholdMillis());
+        for(Pooled pooled : borrowed.keySet()) {
+            Thread borrower = pooled.borrower;
+            if(!pooled.reportedLeak && borrower != null && now - pooled.borrowedAt >= leakThreshold) {
+                pooled.reportedLeak = true;
+                leaks.increment();
+                LOG.warn("Database connection held for over {} ms; it may have leaked", settings.leakThresholdMillis(),
+                        leakTrace(pooled, borrower));
+            }
+        }
+    }
+
+    /**
+     * @return where the connection was borrowed if that was recorded, otherwise where
+     * the thread that borrowed it is now
+     */
+    private static Throwable leakTrace(Pooled pooled, Thread borrower) {
+        Throwable borrowSite = pooled.borrowSite;
+        if(borrowSite != null)
+            return borrowSite;
+        Throwable now = new Throwable("Connection borrowed by " + borrower + ", which is here now");
+        now.setStackTrace(borrower.getStackTrace());
+        return now;
+    }
+
+    private void housekeepQuietly() {
+        try {
+            housekeep();
+        }
+        catch (DataAccessException | RuntimeException failed) {
+            LOG.warn("Connection pool housekeeping failed", failed);
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops housekeeping; borrowed connections are
+     * closed as they come back
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if(housekeeper != null)
+            housekeeper.shutdownNow();
+        Pooled pooled;
+        while((pooled = idle.pollFirst()) != null)
+            destroy(pooled);
+    }
+
+    /**
+     * @return connections currently lent out
+     */
+    public int getActive() {
+        return borrowed.size();
+    }
+
+    /**
+     * @return open connections waiting in the pool
+     */
+    public int getIdle() {
+        return idle.size();
+    }
+
+    public long getBorrows() {
+        return borrows.sum();
+    }
+
+    /**
+     * @return borrows that found every connection lent out and had to wait
+     */
+    public long getWaits() {
+        return waits.sum();
+    }
+
+    /**
+     * @return average time a waiting borrow spent waiting, in milliseconds, or 0 if none waited
+     */
+    public double getAverageWaitMillis() {
+        long count = waits.sum();
+        return (count == 0) ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    /**
+     * @return borrows that gave up after the borrow timeout
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return physical connections opened since the pool started
+     */
+    public long getCreated() {
+        return created.sum();
+    }
+
+    /**
+     * @return physical connections closed for being idle, invalid or returned broken
+     */
+    public long getDestroyed() {
+        return destroyed.sum();
+    }
+
+    /**
+     * @return connections reported as possibly leaked
+     */
+    public long getLeaks() {
+        return leaks.sum();
+    }
+
+    /**
+     * @return prepares answered with a statement the connection had already prepared
+     */
+    public long getStatementHits() {
+        return statementHits.sum();
+    }
+
+    /**
+     * @return prepares that had to go to the driver
+     */
+    public long getStatementMisses() {
+        return statementMisses.sum();
+    }
+}
@@ -0,0 +1,33 @@
+package dataaccess;
+
+/**
+ * The three stores the services work against, so the server can be started on
+ * memory or on MySQL without the services knowing which
+ */
+public record DataAccess(UserDAO users, AuthDAO auths, GameDAO games) {
+
+    /**
+     * @return empty stores that live only as long as the process
+     */
+    public static DataAccess memory() {
+        return new DataAccess(new MemoryUserDAO(), new MemoryAuthDAO(), new MemoryGameDAO());
+    }
+
+    /**
+     * Creates the database and its tables if they do not exist yet
+     *
+     * @return stores backed by the MySQL database named in db.properties
+     */
+    public static DataAccess mysql() throws DataAccessException {
+        DatabaseManager.createDatabase();
+        return new DataAccess(new SqlUserDAO(), new SqlAuthDAO(), new SqlGameDAO());
+    }
+
+    /**
+     * @return the same stores with token lookups cached in front of the auth store
+     * @see CachingAuthDAO
+     */
+    public DataAccess withAuthCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        return new DataAccess(users, new CachingAuthDAO(auths, maxEntries, ttlMillis, negativeTtlMillis), games);
+    }
+}
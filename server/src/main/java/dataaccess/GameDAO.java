@@ -0,0 +1,103 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public interface GameDAO {
+
+    /**
+     * Stores a new game with both seats open and the board set up
+     *
+     * @return the new game's ID
+     */
+    int createGame(String gameName) throws DataAccessException;
+
+    /**
+     * @return the game, or null if there is none with the ID
+     */
+    GameData getGame(int gameID) throws DataAccessException;
+
+    /**
+     * @return every game, in the order they were created
+     */
+    Collection<GameData> listGames() throws DataAccessException;
+
+    /**
+     * Hands the action the {@link GameData#summary()} of each game with an ID above
+     * afterID, in ID order, one at a time as they are read, so a caller writing them out
+     * never holds more than one in memory
+     *
+     * @param afterID the last ID of the previous page, or 0 to start at the first game
+     * @param limit   the most games to visit
+     */
+    void forEachGame(int afterID, int limit, Consumer<GameData> action) throws DataAccessException;
+
+    /**
+     * Replaces the stored players and state of an existing game
+     *
+     * @throws DataAccessException if there is no game with the ID
+     */
+    void updateGame(GameData game) throws DataAccessException;
+
+    /**
+     * Seats the user as the color if the seat is open. The check and the write are one
+     * atomic step, so of two users joining the same seat at once exactly one gets it.
+     *
+     * @return false if the seat is already taken
+     * @throws DataAccessException if there is no game with the ID
+     */
+    boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException;
+
+    /**
+     * Opens the color's seat if the user still holds it
+     *
+     * @return false if someone else, or no one, holds the seat
+     * @throws DataAccessException if there is no game with the ID
+     */
+    boolean releaseSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException;
+
+    /**
+     * Stores a game's new state, keeping whoever is seated now rather than whoever was
+     * seated when the state was read
+     *
+     * @throws DataAccessException if there is no game with the ID
+     */
+    void updateGameState(int gameID, ChessGame game) throws DataAccessException;
+
+    /**
+     * Validates and changes a game's state in one step that no other write to the game can
+     * interleave with. The change is handed the game with a private copy of its state,
+     * which it may check and change in place; if it returns normally the changed copy is
+     * stored and returned, and if it throws nothing is stored. The stored state is never
+     * changed in place, so readers holding it never see a change half made. The change
+     * may be run more than once, each time on a fresh copy, if another write beats it.
+     *
+     * @return the game as stored after the change, or null if there is no game with the ID
+     * @throws E whatever the change throws
+     */
+    <E extends Exception> GameData changeGameState(int gameID, GameChange<E> change) throws DataAccessException, E;
+
+    /**
+     * A check and change of one game's state, for {@link #changeGameState}
+     */
+    @FunctionalInterface
+    interface GameChange<E extends Exception> {
+        /**
+         * @param game the stored game, holding a copy of its state that is the change's to modify
+         */
+        void apply(GameData game) throws E;
+    }
+
+    /**
+     * Stores many existing games at once, keeping their IDs, as when restoring games from
+     * another server. Games created afterwards get IDs above the imported ones.
+     *
+     * @throws DataAccessException if a game with one of the IDs already exists
+     */
+    void importGames(Collection<GameData> games) throws DataAccessException;
+
+    void clear() throws DataAccessException;
+}
@@ -0,0 +1,30 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MemoryAuthDAO implements AuthDAO {
+    private final Map<String, AuthData> auths = new ConcurrentHashMap<>();
+
+    @Override
+    public void createAuth(AuthData auth) {
+        auths.put(auth.authToken(), auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) {
+        return auths.get(authToken);
+    }
+
+    @Override
+    public boolean deleteAuth(String authToken) {
+        return auths.remove(authToken) != null;
+    }
+
+    @Override
+    public void clear() {
+        auths.clear();
+    }
+}
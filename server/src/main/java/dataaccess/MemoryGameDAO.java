@@ -0,0 +1,167 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Games in a ConcurrentSkipListMap, so reads and creates never wait on each other and
+ * pages of the list are read in ID order without sorting. Writes
+ * to one game (seating, leaving, saving its state) are serialized by a lock picked from
+ * a fixed set of stripes by game ID. That way joins to different games run in parallel,
+ * and a seat check and its write, or a move's validation and its write, can never
+ * interleave with another write to the same game. Moves are played on a copy of the
+ * stored state, which replaces it once complete, so readers never see a board mid-move.
+ */
+public class MemoryGameDAO implements GameDAO {
+    /** Lock stripes; a power of two, comfortably above the number of cores */
+    private static final int STRIPES = 64;
+
+    private final ConcurrentNavigableMap<Integer, GameData> games = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextID = new AtomicInteger(1);
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public MemoryGameDAO() {
+        for(int i = 0; i < STRIPES; i++)
+            stripes[i] = new ReentrantLock();
+    }
+
+    @Override
+    public int createGame(String gameName) {
+        int gameID = nextID.getAndIncrement();
+        games.put(gameID, new GameData(gameID, null, null, gameName, new ChessGame()));
+        return gameID;
+    }
+
+    @Override
+    public GameData getGame(int gameID) {
+        return games.get(gameID);
+    }
+
+    @Override
+    public List<GameData> listGames() {
+        return new ArrayList<>(games.values());
+    }
+
+    @Override
+    public void forEachGame(int afterID, int limit, Consumer<GameData> action) {
+        int visited = 0;
+        for(GameData game : games.tailMap(afterID, false).values()) {
+            if(visited++ == limit)
+                break;
+            action.accept(game.summary());
+        }
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        ReentrantLock lock = lockFor(game.gameID());
+        lock.lock();
+        try {
+            existing(game.gameID());
+            games.put(game.gameID(), game);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        ReentrantLock lock = lockFor(gameID);
+        lock.lock();
+        try {
+            GameData game = existing(gameID);
+            if(game.username(color) != null)
+                return false;
+            games.put(gameID, game.withPlayer(color, username));
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean releaseSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        ReentrantLock lock = lockFor(gameID);
+        lock.lock();
+        try {
+            GameData game = existing(gameID);
+            if(!username.equals(game.username(color)))
+                return false;
+            games.put(gameID, game.withPlayer(color, null));
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateGameState(int gameID, ChessGame game) throws DataAccessException {
+        ReentrantLock lock = lockFor(gameID);
+        lock.lock();
+        try {
+            GameData stored = existing(gameID);
+            games.put(gameID, new GameData(gameID, stored.whiteUsername(), stored.blackUsername(), stored.gameName(), game));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <E extends Exception> GameData changeGameState(int gameID, GameChange<E> change) throws E {
+        ReentrantLock lock = lockFor(gameID);
+        lock.lock();
+        try {
+            GameData stored = games.get(gameID);
+            if(stored == null)
+                return null;
+            ChessGame copy = new ChessGame(stored.game());
+            GameData changed = new GameData(gameID, stored.whiteUsername(), stored.blackUsername(), stored.gameName(), copy);
+            change.apply(changed);
+            games.put(gameID, changed);
+            return changed;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void importGames(Collection<GameData> imported) throws DataAccessException {
+        int highest = 0;
+        for(GameData game : imported) {
+            if(games.putIfAbsent(game.gameID(), game) != null)
+                throw new DataAccessException("A game with ID " + game.gameID() + " already exists");
+            highest = Math.max(highest, game.gameID());
+        }
+        nextID.accumulateAndGet(highest + 1, Math::max);
+    }
+
+    @Override
+    public void clear() {
+        games.clear();
+    }
+
+    private GameData existing(int gameID) throws DataAccessException {
+        GameData game = games.get(gameID);
+        if(game == null)
+            throw new DataAccessException("No game with ID " + gameID);
+        return game;
+    }
+
+    private ReentrantLock lockFor(int gameID) {
+        return stripes[gameID & (STRIPES - 1)]; // IDs are sequential, so recent games never share a stripe
+    }
+}
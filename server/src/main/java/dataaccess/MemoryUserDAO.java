@@ -0,0 +1,25 @@
+package dataaccess;
+
+import model.UserData;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MemoryUserDAO implements UserDAO {
+    private final Map<String, UserData> users = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean createUser(UserData user) {
+        return users.putIfAbsent(user.username(), user) == null;
+    }
+
+    @Override
+    public UserData getUser(String username) {
+        return users.get(username);
+    }
+
+    @Override
+    public void clear() {
+        users.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.sql.SQLException;
+
+public class SqlAuthDAO implements AuthDAO {
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS auth (
+              authToken VARCHAR(255) NOT NULL PRIMARY KEY,
+              username VARCHAR(255) NOT NULL
+            )""";
+
+    /**
+     * Creates the auth table if the database does not have it yet
+     */
+    public SqlAuthDAO() throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection(); var statement = conn.prepareStatement(SCHEMA)) {
+            statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to create the auth table", ex);
+        }
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement("INSERT INTO auth (authToken, username) VALUES (?, ?)")) {
+            statement.setString(1, auth.authToken());
+            statement.setString(2, auth.username());
+            statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to create auth token", ex);
+        }
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement("SELECT username FROM auth WHERE authToken = ?")) {
+            statement.setString(1, authToken);
+            try(var rs = statement.executeQuery()) {
+                return rs.next() ? new AuthData(authToken, rs.getString(1)) : null;
+            }
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to read auth token", ex);
+        }
+    }
+
+    @Override
+    public boolean deleteAuth(String authToken) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement("DELETE FROM auth WHERE authToken = ?")) {
+            statement.setString(1, authToken);
+            return statement.executeUpdate() > 0;
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to delete auth token", ex);
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection(); var statement = conn.prepareStatement("TRUNCATE TABLE auth")) {
+            statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to clear auth tokens", ex);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package dataaccess;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes many rows in few round trips. {@link #update} queues rows with addBatch and
+ * sends them with executeBatch every batchSize rows. {@link #insert} goes further and
+ * packs rowsPerStatement rows into each INSERT as one multi-row VALUES list, which is
+ * what the driver's rewriteBatchedStatements option does, but without depending on it.
+ * <p>
+ * Both run in one transaction when the connection is in autocommit mode, so a failed
+ * row leaves none of the others behind, and otherwise join the caller's transaction.
+ */
+public final class SqlBatch {
+
+    /**
+     * Sets one row's parameters, starting at the given parameter index
+     */
+    @FunctionalInterface
+    public interface Binder<T> {
+        void bind(PreparedStatement statement, int firstIndex, T row) throws SQLException;
+    }
+
+    private SqlBatch() {
+    }
+
+    /**
+     * Runs the statement once per row, batchSize rows per round trip
+     *
+     * @return rows affected
+     */
+    public static <T> long update(Connection conn, String sql, Collection<T> rows, Binder<T> binder, int batchSize)
+            throws SQLException {
+        if(batchSize < 1)
+            throw new IllegalArgumentException("Batch size must be positive");
+        return inTransaction(conn, () -> {
+            long affected = 0;
+            try(PreparedStatement statement = conn.prepareStatement(sql)) {
+                int queued = 0;
+                for(T row : rows) {
+                    binder.bind(statement, 1, row);
+                    statement.addBatch();
+                    if(++queued == batchSize) {
+                        affected += sum(statement.executeBatch());
+                        queued = 0;
+                    }
+                }
+                if(queued > 0)
+                    affected += sum(statement.executeBatch());
+            }
+            return affected;
+        });
+    }
+
+    /**
+     * Inserts the rows rowsPerStatement at a time. Every full chunk uses the same SQL, so
+     * it is prepared once; only the last, shorter chunk needs a second statement.
+     *
+     * @param columns the columns the binder sets, in order
+     * @return rows inserted
+     */
+    public static <T> long insert(Connection conn, String table, List<String> columns, Collection<T> rows,
+                                  Binder<T> binder, int rowsPerStatement) throws SQLException {
+        if(rowsPerStatement < 1)
+            throw new IllegalArgumentException("Rows per statement must be positive");
+        return inTransaction(conn, () -> {
+            long inserted = 0;
+            List<T> chunk = new ArrayList<>(Math.min(rowsPerStatement, rows.size()));
+            for(T row : rows) {
+                chunk.add(row);
+                if(chunk.size() == rowsPerStatement) {
+                    inserted += insertChunk(conn, table, columns, chunk, binder);
+                    chunk.clear();
+                }
+            }
+            if(!chunk.isEmpty())
+                inserted += insertChunk(conn, table, columns, chunk, binder);
+            return inserted;
+        });
+    }
+
+    /**
+     * @return INSERT INTO table (a, b) VALUES (?, ?), (?, ?), ... with the given number of rows
+     */
+    static String insertSql(String table, List<String> columns, int rowCount) {
+        String tuple = "(" + String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+        StringBuilder sql = new StringBuilder(32 + table.length() + rowCount * (tuple.length() + 2))
+                .append("INSERT INTO ").append(table).append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for(int i = 0; i < rowCount; i++) {
+            if(i > 0)
+                sql.append(", ");
+            sql.append(tuple);
+        }
+        return sql.toString();
+    }
+
+    private static <T> int insertChunk(Connection conn, String table, List<String> columns, List<T> chunk,
+                                       Binder<T> binder) throws SQLException {
+        try(PreparedStatement statement = conn.prepareStatement(insertSql(table, columns, chunk.size()))) {
+            int index = 1;
+            for(T row : chunk) {
+                binder.bind(statement, index, row);
+                index += columns.size();
+            }
+            return statement.executeUpdate();
+        }
+    }
+
+    private interface Work {
+        long run() throws SQLException;
+    }
+
+    private static long inTransaction(Connection conn, Work work) throws SQLException {
+        if(!conn.getAutoCommit())
+            return work.run();
+        conn.setAutoCommit(false);
+        try {
+            long result = work.run();
+            conn.commit();
+            return result;
+        }
+        catch (SQLException | RuntimeException failed) {
+            conn.rollback();
+            throw failed;
+        }
+        finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static long sum(int[] counts) {
+        long total = 0;
+        for(int count : counts) {
+            if(count > 0)
+                total += count; // SUCCESS_NO_INFO is negative when the driver rewrote the batch
+        }
+        return total;
+    }
+}
@@ -0,0 +1,280 @@
+package dataaccess;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import model.GameData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Games in MySQL, the state stored as the game's JSON. Seats are claimed with a
+ * conditional UPDATE, so the database decides which of two simultaneous joins wins.
+ * Every write bumps the row's version, and a move is stored only if the version is still
+ * the one it was validated against, so of two simultaneous moves the second is validated
+ * again against the first.
+ */
+public class SqlGameDAO implements GameDAO {
+    private static final Gson GSON = new Gson();
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS game (
+              gameID INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+              whiteUsername VARCHAR(255),
+              blackUsername VARCHAR(255),
+              gameName VARCHAR(255) NOT NULL,
+              game LONGTEXT NOT NULL,
+              version INT NOT NULL DEFAULT 0
+            )""";
+    private static final List<String> COLUMNS = List.of("gameID", "whiteUsername", "blackUsername", "gameName", "game");
+    /** Rows per INSERT when importing; a few hundred games stay far below max_allowed_packet */
+    private static final int IMPORT_ROWS_PER_STATEMENT = 500;
+
+    /**
+     * Creates the game table if the database does not have it yet, and adds the version
+     * column to a table created before there was one
+     */
+    public SqlGameDAO() throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection()) {
+            try(var statement = conn.prepareStatement(SCHEMA)) {
+                statement.executeUpdate();
+            }
+            try(var columns = conn.getMetaData().getColumns(conn.getCatalog(), null, "game", "version")) {
+                if(!columns.next())
+                    try(var statement = conn.prepareStatement("ALTER TABLE game ADD COLUMN version INT NOT NULL DEFAULT 0")) {
+                        statement.executeUpdate();
+                    }
+            }
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to create the game table", ex);
+        }
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement("INSERT INTO game (gameName, game) VALUES (?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, gameName);
+            statement.setString(2, GSON.toJson(new ChessGame()));
+            statement.executeUpdate();
+            try(var keys = statement.getGeneratedKeys()) {
+                if(!keys.next())
+                    throw new DataAccessException("No ID was generated for game " + gameName);
+                return keys.getInt(1);
+            }
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to create game", ex);
+        }
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement(
+                    "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM game WHERE gameID = ?")) {
+            statement.setInt(1, gameID);
+            try(var rs = statement.executeQuery()) {
+                return rs.next() ? readGame(rs) : null;
+            }
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to read game", ex);
+        }
+    }
+
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement(
+                    "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM game ORDER BY gameID");
+            var rs = statement.executeQuery()) {
+            List<GameData> games = new ArrayList<>();
+            while(rs.next())
+                games.add(readGame(rs));
+            return games;
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to list games", ex);
+        }
+    }
+
+    @Override
+    public void forEachGame(int afterID, int limit, Consumer<GameData> action) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement("SELECT gameID, whiteUsername, blackUsername, gameName FROM game "
+                    + "WHERE gameID > ? ORDER BY gameID LIMIT ?")) {
+            statement.setInt(1, afterID);
+            statement.setInt(2, limit);
+            // Connector/J buffers the whole result unless asked to stream it row by row
+            statement.setFetchSize(Integer.MIN_VALUE);
+            try(var rs = statement.executeQuery()) {
+                while(rs.next())
+                    action.accept(new GameData(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), null));
+            }
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to list games", ex);
+        }
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement(
+                    "UPDATE game SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ?, version = version + 1 "
+                    + "WHERE gameID = ?")) {
+            statement.setString(1, game.whiteUsername());
+            statement.setString(2, game.blackUsername());
+            statement.setString(3, game.gameName());
+            statement.setString(4, GSON.toJson(game.game()));
+            statement.setInt(5, game.gameID());
+            if(statement.executeUpdate() == 0)
+                throw new DataAccessException("No game with ID " + game.gameID());
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to update game", ex);
+        }
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        String column = column(color);
+        try(var conn = DatabaseManager.getConnection()) {
+            try(var statement = conn.prepareStatement(
+                    "UPDATE game SET " + column + " = ?, version = version + 1 WHERE gameID = ? AND " + column + " IS NULL")) {
+                statement.setString(1, username);
+                statement.setInt(2, gameID);
+                if(statement.executeUpdate() > 0)
+                    return true;
+            }
+            requireGame(conn, gameID);
+            return false;
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to claim seat", ex);
+        }
+    }
+
+    @Override
+    public boolean releaseSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        String column = column(color);
+        try(var conn = DatabaseManager.getConnection()) {
+            try(var statement = conn.prepareStatement(
+                    "UPDATE game SET " + column + " = NULL, version = version + 1 WHERE gameID = ? AND " + column + " = ?")) {
+                statement.setInt(1, gameID);
+                statement.setString(2, username);
+                if(statement.executeUpdate() > 0)
+                    return true;
+            }
+            requireGame(conn, gameID);
+            return false;
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to release seat", ex);
+        }
+    }
+
+    @Override
+    public void updateGameState(int gameID, ChessGame game) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement("UPDATE game SET game = ?, version = version + 1 WHERE gameID = ?")) {
+            statement.setString(1, GSON.toJson(game));
+            statement.setInt(2, gameID);
+            if(statement.executeUpdate() == 0)
+                throw new DataAccessException("No game with ID " + gameID);
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to save game", ex);
+        }
+    }
+
+    @Override
+    public <E extends Exception> GameData changeGameState(int gameID, GameChange<E> change) throws DataAccessException, E {
+        try(var conn = DatabaseManager.getConnection()) {
+            while(true) {
+                GameData game;
+                int version;
+                try(var statement = conn.prepareStatement(
+                        "SELECT gameID, whiteUsername, blackUsername, gameName, game, version FROM game WHERE gameID = ?")) {
+                    statement.setInt(1, gameID);
+                    try(var rs = statement.executeQuery()) {
+                        if(!rs.next())
+                            return null;
+                        game = readGame(rs); // freshly parsed, so already a private copy
+                        version = rs.getInt(6);
+                    }
+                }
+                change.apply(game);
+                try(var statement = conn.prepareStatement(
+                        "UPDATE game SET game = ?, version = version + 1 WHERE gameID = ? AND version = ?")) {
+                    statement.setString(1, GSON.toJson(game.game()));
+                    statement.setInt(2, gameID);
+                    statement.setInt(3, version);
+                    if(statement.executeUpdate() > 0)
+                        return game;
+                }
+                // Another write got in between; validate the change again against it
+            }
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to save game", ex);
+        }
+    }
+
+    @Override
+    public void importGames(Collection<GameData> games) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection()) {
+            SqlBatch.insert(conn, "game", COLUMNS, games, SqlGameDAO::bindGame, IMPORT_ROWS_PER_STATEMENT);
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to import games", ex);
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection(); var statement = conn.prepareStatement("TRUNCATE TABLE game")) {
+            statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to clear games", ex);
+        }
+    }
+
+    private static void bindGame(PreparedStatement statement, int index, GameData game) throws SQLException {
+        ChessGame state = (game.game() != null) ? game.game() : new ChessGame();
+        statement.setInt(index, game.gameID());
+        statement.setString(index + 1, game.whiteUsername());
+        statement.setString(index + 2, game.blackUsername());
+        statement.setString(index + 3, game.gameName());
+        statement.setString(index + 4, GSON.toJson(state));
+    }
+
+    private static GameData readGame(ResultSet rs) throws SQLException {
+        return new GameData(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                GSON.fromJson(rs.getString(5), ChessGame.class));
+    }
+
+    private static void requireGame(Connection conn, int gameID) throws SQLException, DataAccessException {
+        try(var statement = conn.prepareStatement("SELECT 1 FROM game WHERE gameID = ?")) {
+            statement.setInt(1, gameID);
+            try(var rs = statement.executeQuery()) {
+                if(!rs.next())
+                    throw new DataAccessException("No game with ID " + gameID);
+            }
+        }
+    }
+
+    private static String column(ChessGame.TeamColor color) {
+        return (color == ChessGame.TeamColor.WHITE) ? "whiteUsername" : "blackUsername";
+    }
+}
@@ -0,0 +1,69 @@
+package dataaccess;
+
+import model.UserData;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+public class SqlUserDAO implements UserDAO {
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS user (
+              username VARCHAR(255) NOT NULL PRIMARY KEY,
+              password VARCHAR(255) NOT NULL,
+              email VARCHAR(255) NOT NULL
+            )""";
+
+    /**
+     * Creates the user table if the database does not have it yet
+     */
+    public SqlUserDAO() throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection(); var statement = conn.prepareStatement(SCHEMA)) {
+            statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to create the user table", ex);
+        }
+    }
+
+    @Override
+    public boolean createUser(UserData user) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement("INSERT INTO user (username, password, email) VALUES (?, ?, ?)")) {
+            statement.setString(1, user.username());
+            statement.setString(2, user.password());
+            statement.setString(3, user.email());
+            statement.executeUpdate();
+            return true;
+        }
+        catch (SQLIntegrityConstraintViolationException taken) {
+            return false; // the primary key makes the check and the insert one step
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to create user", ex);
+        }
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection();
+            var statement = conn.prepareStatement("SELECT password, email FROM user WHERE username = ?")) {
+            statement.setString(1, username);
+            try(var rs = statement.executeQuery()) {
+                return rs.next() ? new UserData(username, rs.getString(1), rs.getString(2)) : null;
+            }
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to read user", ex);
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try(var conn = DatabaseManager.getConnection(); var statement = conn.prepareStatement("TRUNCATE TABLE user")) {
+            statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to clear users", ex);
+        }
+    }
+}
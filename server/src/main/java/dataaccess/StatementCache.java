@@ -0,0 +1,150 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The prepared statements of one pooled connection, kept across borrows. A DAO that
+ * prepares the same SQL on every call gets the statement it prepared last time, so the
+ * driver does not parse the SQL again, and with server-side prepares the database does
+ * not plan it again either. Closing the statement it was handed clears its parameters
+ * and batch and puts it back instead of closing it.
+ * <p>
+ * Only one borrower uses a connection at a time, so the cache needs no locking. A
+ * statement that is still open when its SQL is prepared again, as when one query is
+ * run while iterating another's results, is prepared fresh and not cached.
+ */
+class StatementCache {
+    private final Connection physical;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final Map<String, Entry> statements;
+
+    private static class Entry {
+        final PreparedStatement statement;
+        boolean inUse;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * @param capacity how many statements to keep, least recently used going first
+     */
+    StatementCache(Connection physical, int capacity, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.hits = hits;
+        this.misses = misses;
+        statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if(size() <= capacity || eldest.getValue().inUse)
+                    return false;
+                closeQuietly(eldest.getValue().statement);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+     * @return the cached statement for the SQL, or a newly prepared one
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = (autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) ? "K" + sql : "N" + sql;
+        Entry entry = statements.get(key);
+        if(entry != null && entry.inUse)
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        if(entry != null && !entry.statement.isClosed()) {
+            hits.increment();
+        }
+        else {
+            misses.increment();
+            entry = new Entry(physical.prepareStatement(sql, autoGeneratedKeys));
+            statements.put(key, entry);
+        }
+        entry.inUse = true;
+        return lend(entry);
+    }
+
+    private static PreparedStatement lend(Entry entry) {
+        PreparedStatement statement = entry.statement;
+        boolean[] returned = new boolean[1];
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if(!returned[0]) {
+                                returned[0] = true;
+                                entry.inUse = false;
+                                if(!statement.isClosed()) {
+                                    statement.clearParameters();
+                                    statement.clearBatch();
+                                }
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return returned[0] || statement.isClosed();
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            if(returned[0])
+                                throw new SQLException("Statement has been closed");
+                        }
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    }
+                    catch (InvocationTargetException thrown) {
+                        throw thrown.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Marks every statement free again when the connection goes back to the pool, in
+     * case a borrower returned it without closing all of its statements
+     */
+    void releaseAll() {
+        for(Entry entry : statements.values())
+            entry.inUse = false;
+    }
+
+    /**
+     * Closes every cached statement, for when the connection itself is closed
+     */
+    void clear() {
+        for(Iterator<Entry> iterator = statements.values().iterator(); iterator.hasNext(); ) {
+            closeQuietly(iterator.next().statement);
+            iterator.remove();
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        }
+        catch (SQLException ignored) {
+            // the connection is going away or the statement already failed
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package dataaccess;
+
+import model.UserData;
+
+public interface UserDAO {
+
+    /**
+     * Stores a new user unless the username is taken; the check and the insert are one
+     * atomic step, so of two concurrent registrations for a name exactly one succeeds
+     *
+     * @param user the user, with the password already hashed
+     * @return false if someone already has the username
+     */
+    boolean createUser(UserData user) throws DataAccessException;
+
+    /**
+     * @return the user, or null if no one has registered the name
+     */
+    UserData getUser(String username) throws DataAccessException;
+
+    void clear() throws DataAccessException;
+}
@@ -0,0 +1,130 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Counts changes in front of another game store, so a caller can tell whether a game,
+ * or the game list, changed since it last looked without reading either.
+ * <p>
+ * Every write bumps the game's version, and the list version too if it changed what a
+ * list shows, once the write is done. A reader that takes the version before reading
+ * the store therefore never pairs a version with data older than it. Versions come from
+ * one sequence and are never reused, not even after clear, so within this process a
+ * version names one state of the game.
+ */
+public class VersionedGameDAO implements GameDAO {
+    private final GameDAO delegate;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong listVersion = new AtomicLong();
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+
+    public VersionedGameDAO(GameDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the game's current version; a game written before this process started is
+     * given one on first use
+     */
+    public long getVersion(int gameID) {
+        return versions.computeIfAbsent(gameID, id -> sequence.incrementAndGet());
+    }
+
+    /**
+     * @return the version of every game's summary taken together: IDs, names and players
+     */
+    public long getListVersion() {
+        return listVersion.get();
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        int gameID = delegate.createGame(gameName);
+        changed(gameID, true);
+        return gameID;
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        GameData game = delegate.getGame(gameID);
+        if(game == null)
+            versions.remove(gameID); // so looking up IDs that do not exist leaves nothing behind
+        return game;
+    }
+
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        return delegate.listGames();
+    }
+
+    @Override
+    public void forEachGame(int afterID, int limit, Consumer<GameData> action) throws DataAccessException {
+        delegate.forEachGame(afterID, limit, action);
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        delegate.updateGame(game);
+        changed(game.gameID(), true);
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        boolean claimed = delegate.claimSeat(gameID, color, username);
+        if(claimed)
+            changed(gameID, true);
+        return claimed;
+    }
+
+    @Override
+    public boolean releaseSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        boolean released = delegate.releaseSeat(gameID, color, username);
+        if(released)
+            changed(gameID, true);
+        return released;
+    }
+
+    @Override
+    public void updateGameState(int gameID, ChessGame game) throws DataAccessException {
+        delegate.updateGameState(gameID, game);
+        changed(gameID, false); // lists carry no board
+    }
+
+    @Override
+    public <E extends Exception> GameData changeGameState(int gameID, GameChange<E> change) throws DataAccessException, E {
+        GameData changed = delegate.changeGameState(gameID, change);
+        if(changed != null)
+            changed(gameID, false);
+        return changed;
+    }
+
+    @Override
+    public void importGames(Collection<GameData> games) throws DataAccessException {
+        delegate.importGames(games);
+        for(GameData game : games)
+            changed(game.gameID(), false);
+        listVersion.accumulateAndGet(sequence.incrementAndGet(), Math::max);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        delegate.clear();
+        versions.clear();
+        listVersion.accumulateAndGet(sequence.incrementAndGet(), Math::max);
+    }
+
+    private void changed(int gameID, boolean listed) {
+        long version = sequence.incrementAndGet();
+        // max, so a slower writer finishing second cannot move the version back
+        versions.merge(gameID, version, Math::max);
+        if(listed)
+            listVersion.accumulateAndGet(version, Math::max);
+    }
+}
@@ -0,0 +1,83 @@
+package server;
+
+import io.javalin.http.Handler;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many requests of one endpoint class execute at once. With virtual threads
+ * the server no longer runs out of threads, so without a cap a burst would pile onto
+ * bcrypt or the database instead; waiting for a permit is cheap on a virtual thread,
+ * and a request that waits too long is refused with {@link ServerBusyException}.
+ */
+public class ConcurrencyLimiter {
+    private final String name;
+    private final int limit;
+    private final long waitMillis;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param name       the endpoint class, for error messages
+     * @param limit      requests allowed to execute at once
+     * @param waitMillis how long a request may wait for a permit
+     */
+    public ConcurrencyLimiter(String name, int limit, long waitMillis) {
+        this.name = name;
+        this.limit = limit;
+        this.waitMillis = waitMillis;
+        permits = new Semaphore(limit, true);
+    }
+
+    /**
+     * Takes a permit, waiting up to the limiter's wait time; pair with {@link #release()}
+     *
+     * @throws ServerBusyException if no permit came free in time
+     */
+    public void acquire() throws ServerBusyException {
+        try {
+            if(permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS))
+                return;
+        }
+        catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new ServerBusyException("Error: too many " + name + " requests, try again later");
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * @return a handler that runs the given one while holding a permit
+     */
+    public Handler limit(Handler handler) {
+        return ctx -> {
+            acquire();
+            try {
+                handler.handle(ctx);
+            }
+            finally {
+                release();
+            }
+        };
+    }
+
+    /**
+     * @return requests executing right now
+     */
+    public int getInFlight() {
+        return limit - permits.availablePermits();
+    }
+
+    /**
+     * @return requests refused since the server started
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
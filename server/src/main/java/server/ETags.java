@@ -0,0 +1,76 @@
+package server;
+
+import dataaccess.VersionedGameDAO;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Entity tags built from game versions, so a client polling something that has not
+ * changed is answered 304 from two counters instead of a read and a serialization.
+ * Each server instance mixes in its own random epoch, since versions restart at zero
+ * with the process.
+ * <p>
+ * The list and game tags are weak. They are chosen before the body exists, so they cannot
+ * tell whether the response will be large enough to be gzipped, and a strong tag must
+ * differ between the gzip and identity encodings. Static assets know their bytes up front
+ * and give each encoding its own strong tag instead.
+ */
+final class ETags {
+    private final VersionedGameDAO versions;
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    ETags(VersionedGameDAO versions) {
+        this.versions = versions;
+    }
+
+    /**
+     * Must be called before reading the list, so the tag is never newer than the data
+     */
+    String list() {
+        return "W/\"l" + epoch + "-" + versions.getListVersion() + "\"";
+    }
+
+    /**
+     * Must be called before reading the game, so the tag is never newer than the data
+     */
+    String game(int gameID) {
+        return "W/\"g" + epoch + "-" + versions.getVersion(gameID) + "\"";
+    }
+
+    /**
+     * Tags the response, and answers 304 if the request's If-None-Match already names the tag
+     *
+     * @return true if the response is complete and the handler should not write a body
+     */
+    static boolean notModified(Context ctx, String etag) {
+        // Clients may keep the body, but must ask again before each use
+        return notModified(ctx, etag, "private, no-cache");
+    }
+
+    /**
+     * @param cacheControl how long, and by whom, the response may be kept
+     * @see #notModified(Context, String)
+     */
+    static boolean notModified(Context ctx, String etag, String cacheControl) {
+        ctx.header("ETag", etag);
+        ctx.header("Cache-Control", cacheControl);
+        String ifNoneMatch = ctx.header("If-None-Match");
+        if(ifNoneMatch == null)
+            return false;
+        String opaque = opaque(etag);
+        for(String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if(opaque(candidate).equals(opaque) || candidate.equals("*")) { // If-None-Match compares weakly
+                ctx.status(HttpStatus.NOT_MODIFIED);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,101 @@
+package server;
+
+import com.google.gson.stream.JsonWriter;
+import dataaccess.VersionedGameDAO;
+import io.javalin.http.Context;
+import model.AuthData;
+import model.CreateGameRequest;
+import model.CreateGameResult;
+import model.GameData;
+import model.JoinGameRequest;
+import model.ListGamesResult;
+import service.BadRequestException;
+import service.GameService;
+import service.UserService;
+
+/**
+ * Routes for listing, reading, creating and joining games; all of them need an auth
+ * token. Lists and games carry ETags, and a poll for one that has not changed is
+ * answered 304 without reading the games.
+ */
+public class GameHandler {
+    private final UserService users;
+    private final GameService games;
+    private final ETags etags;
+
+    public GameHandler(UserService users, GameService games, VersionedGameDAO versions) {
+        this.users = users;
+        this.games = games;
+        this.etags = new ETags(versions);
+    }
+
+    /**
+     * Lists games as a {@link ListGamesResult}, every game or, given a limit query
+     * parameter, one page starting after the after parameter's game ID. The games are
+     * written to the response as they are read, so a long list is never held in memory.
+     */
+    public void listGames(Context ctx) throws Exception {
+        users.authenticate(ctx.header("authorization"));
+        // Checked before anything is written, since a failure after that cannot change the status
+        int afterID = intParam(ctx, "after", 0, 0);
+        Integer pageSize = (ctx.queryParam("limit") == null) ? null : intParam(ctx, "limit", 1, 1);
+        if(ETags.notModified(ctx, etags.list()))
+            return;
+        try(JsonWriter writer = Json.stream(ctx)) {
+            writer.beginObject().name("games").beginArray();
+            Integer next = games.listGames(afterID, pageSize, game -> Json.GSON.toJson(game, GameData.class, writer));
+            writer.endArray();
+            if(next != null)
+                writer.name("next").value(next);
+            writer.endObject();
+        }
+    }
+
+    /**
+     * One game with its board, for clients that poll rather than hold a WebSocket
+     */
+    public void getGame(Context ctx) throws Exception {
+        users.authenticate(ctx.header("authorization"));
+        int gameID;
+        try {
+            gameID = Integer.parseInt(ctx.pathParam("gameID"));
+        }
+        catch (NumberFormatException malformed) {
+            throw new BadRequestException("Error: bad request");
+        }
+        if(ETags.notModified(ctx, etags.game(gameID)))
+            return;
+        Json.write(ctx, games.getGame(gameID));
+    }
+
+    public void createGame(Context ctx) throws Exception {
+        users.authenticate(ctx.header("authorization"));
+        int gameID = games.createGame(Json.read(ctx, CreateGameRequest.class));
+        Json.write(ctx, new CreateGameResult(gameID));
+    }
+
+    public void joinGame(Context ctx) throws Exception {
+        AuthData auth = users.authenticate(ctx.header("authorization"));
+        games.joinGame(auth.username(), Json.read(ctx, JoinGameRequest.class));
+        ctx.contentType("application/json").result("{}");
+    }
+
+    /**
+     * @return the query parameter, or absent if the request has none
+     * @throws BadRequestException if it is not a number of at least min
+     */
+    private static int intParam(Context ctx, String name, int absent, int min) throws BadRequestException {
+        String value = ctx.queryParam(name);
+        if(value == null)
+            return absent;
+        try {
+            int parsed = Integer.parseInt(value);
+            if(parsed >= min)
+                return parsed;
+        }
+        catch (NumberFormatException malformed) {
+            // answered below like any other bad value
+        }
+        throw new BadRequestException("Error: bad request");
+    }
+}
@@ -0,0 +1,52 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import io.javalin.http.Context;
+import service.BadRequestException;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Reads request bodies and writes responses with Gson, the same serialization the
+ * client and the WebSocket messages use
+ */
+final class Json {
+    static final Gson GSON = new Gson();
+
+    private Json() {}
+
+    /**
+     * @throws BadRequestException if the body is not JSON of the expected shape
+     */
+    static <T> T read(Context ctx, Class<T> type) throws BadRequestException {
+        try {
+            return GSON.fromJson(ctx.body(), type);
+        }
+        catch (JsonParseException malformed) {
+            throw new BadRequestException("Error: bad request");
+        }
+    }
+
+    static void write(Context ctx, Object body) {
+        ctx.contentType("application/json").result(GSON.toJson(body));
+    }
+
+    /**
+     * @return a writer straight onto the response body, for output too large to build as
+     * one string first; closing it completes the response
+     */
+    static JsonWriter stream(Context ctx) {
+        ctx.contentType("application/json");
+        return new JsonWriter(new BufferedWriter(new OutputStreamWriter(ctx.outputStream(), StandardCharsets.UTF_8)));
+    }
+
+    static void error(Context ctx, int status, String message) {
+        ctx.status(status);
+        write(ctx, Map.of("message", message));
+    }
+}
@@ -0,0 +1,20 @@
+package server;
+
+/**
+ * Indicates a client has used up its request allowance and must wait before the next one
+ */
+public class RateLimitedException extends Exception {
+    private final long retryAfterMillis;
+
+    public RateLimitedException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return whole seconds until the request would be allowed, at least 1, for a Retry-After header
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfterMillis + 999) / 1000);
+    }
+}
@@ -0,0 +1,157 @@
+package server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per key, such as an auth token or a remote address. Each bucket holds
+ * up to burst permits and refills at permitsPerSecond; a request takes one permit or
+ * is refused with the time until the next one.
+ * <p>
+ * A bucket's whole state, its permits in thousandths and the millisecond it was last
+ * refilled, is packed into one long and updated with compare-and-set, so requests from
+ * the same client never lock and requests from different clients never touch the same
+ * memory. Buckets left idle long enough to have refilled are swept out by whichever
+ * request first notices the sweep is due, so keys seen once do not accumulate. A
+ * bucket swept while a request is using it loses at most that one permit, and an idle
+ * bucket was full anyway.
+ */
+public class RateLimiter {
+    private static final int TIME_BITS = 40; // milliseconds, about 34 years
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final long MAX_MILLIPERMITS = (1L << (64 - TIME_BITS)) - 1;
+    private static final long PERMIT = 1000;
+
+    private final String name;
+    private final double permitsPerSecond;
+    private final long capacity;
+    private final long idleMillis;
+    private final LongSupplier nanoTime;
+    private final long origin;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param name             what a key is, for error messages
+     * @param permitsPerSecond how fast a bucket refills
+     * @param burst            how many requests a rested client may make at once
+     * @param idleMillis       how long a bucket goes unused before it is dropped; raised if
+     *                         needed to the time an empty bucket takes to refill
+     */
+    public RateLimiter(String name, double permitsPerSecond, int burst, long idleMillis) {
+        this(name, permitsPerSecond, burst, idleMillis, System::nanoTime);
+    }
+
+    RateLimiter(String name, double permitsPerSecond, int burst, long idleMillis, LongSupplier nanoTime) {
+        if(!(permitsPerSecond > 0) || burst < 1 || burst * PERMIT > MAX_MILLIPERMITS)
+            throw new IllegalArgumentException("Rate must be positive and burst between 1 and " + MAX_MILLIPERMITS / PERMIT);
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = burst * PERMIT;
+        this.idleMillis = Math.max(idleMillis, (long) Math.ceil(burst * 1000 / permitsPerSecond));
+        this.nanoTime = nanoTime;
+        this.origin = nanoTime.getAsLong();
+        this.nextSweep = new AtomicLong(this.idleMillis);
+    }
+
+    /**
+     * Takes a permit from the key's bucket
+     *
+     * @throws RateLimitedException if the bucket is empty
+     */
+    public void acquire(String key) throws RateLimitedException {
+        long waitMillis = tryAcquire(key);
+        if(waitMillis > 0)
+            throw new RateLimitedException("Error: too many requests per " + name + ", try again later", waitMillis);
+    }
+
+    /**
+     * Takes a permit from the key's bucket if it has one
+     *
+     * @return 0 if a permit was taken, otherwise milliseconds until one will be available
+     */
+    public long tryAcquire(String key) {
+        long now = now();
+        sweepIfDue(now);
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(pack(capacity, now)));
+        while(true) {
+            long state = bucket.get();
+            long last = time(state);
+            long permits = permits(state);
+            long elapsed = Math.max(0, now - last);
+            // permitsPerSecond thousandths of a permit accrue per millisecond
+            long added = (long) (elapsed * permitsPerSecond);
+            long refilled;
+            long refilledAt;
+            if(permits + added >= capacity) {
+                refilled = capacity;
+                refilledAt = now;
+            }
+            else {
+                refilled = permits + added;
+                // Only the time that bought whole thousandths is used up, so slow rates still accrue
+                refilledAt = last + (long) (added / permitsPerSecond);
+            }
+            if(refilled < PERMIT) {
+                rejected.increment();
+                return Math.max(1, (long) Math.ceil((PERMIT - refilled) / permitsPerSecond));
+            }
+            if(bucket.compareAndSet(state, pack(refilled - PERMIT, refilledAt)))
+                return 0;
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if(now < due || !nextSweep.compareAndSet(due, now + idleMillis / 2))
+            return;
+        buckets.values().removeIf(bucket -> {
+            boolean idle = now - time(bucket.get()) >= idleMillis;
+            if(idle)
+                evictions.increment();
+            return idle;
+        });
+    }
+
+    private long now() {
+        return (nanoTime.getAsLong() - origin) / 1_000_000;
+    }
+
+    private static long pack(long permits, long time) {
+        return (permits << TIME_BITS) | (time & TIME_MASK);
+    }
+
+    private static long permits(long state) {
+        return state >>> TIME_BITS;
+    }
+
+    private static long time(long state) {
+        return state & TIME_MASK;
+    }
+
+    /**
+     * @return requests refused since the server started
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return idle buckets dropped since the server started
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return keys with a bucket right now
+     */
+    public int getBuckets() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,194 @@
+package server;
+
+import chess.ChessGame;
+import dataaccess.CachingAuthDAO;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.VersionedGameDAO;
+import io.javalin.*;
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.compression.Gzip;
+import io.javalin.util.ConcurrencyUtil;
+import server.websocket.WebSocketHandler;
+import service.AlreadyTakenException;
+import service.AnalysisService;
+import service.BadRequestException;
+import service.ClearService;
+import service.GameService;
+import service.LegalMoveCache;
+import service.PasswordHasher;
+import service.ServiceUnavailableException;
+import service.UnauthorizedException;
+import service.UserService;
+
+public class Server {
+    /** Platform threads Jetty keeps around when virtual threads are off */
+    private static final int MIN_THREADS = 8;
+    /** Responses smaller than about one packet gain too little from gzip to pay for it */
+    private static final int COMPRESSION_MIN_BYTES = 1400;
+    /** zlib's default, most of the best level's savings for a fraction of its CPU */
+    private static final int GZIP_LEVEL = 6;
+    /** How long a client's rate limit bucket outlives its last request */
+    private static final long RATE_BUCKET_IDLE_MILLIS = 60_000;
+
+    private final Javalin javalin;
+    private final ConcurrencyLimiter authLimiter;
+    private final ConcurrencyLimiter listLimiter;
+    private final ConcurrencyLimiter mutationLimiter;
+    private final RateLimiter tokenRateLimiter;
+    private final RateLimiter addressRateLimiter;
+    private final PasswordHasher passwordHasher;
+    private final CachingAuthDAO authCache;
+    private final LegalMoveCache moveCache;
+    private final AnalysisService analysisService;
+
+    public Server() {
+        this(DataAccess.memory(), ServerSettings.defaults());
+    }
+
+    /**
+     * @param dataAccess where users, auth tokens and games are kept
+     * @param settings   threading and per-endpoint-class concurrency limits
+     */
+    public Server(DataAccess dataAccess, ServerSettings settings) {
+        authLimiter = new ConcurrencyLimiter("auth", settings.authConcurrency(), settings.limitWaitMillis());
+        listLimiter = new ConcurrencyLimiter("game list", settings.listConcurrency(), settings.limitWaitMillis());
+        mutationLimiter = new ConcurrencyLimiter("game", settings.mutationConcurrency(), settings.limitWaitMillis());
+        tokenRateLimiter = new RateLimiter("auth token", settings.tokenRate().perSecond(),
+                settings.tokenRate().burst(), RATE_BUCKET_IDLE_MILLIS);
+        addressRateLimiter = new RateLimiter("address", settings.addressRate().perSecond(),
+                settings.addressRate().burst(), RATE_BUCKET_IDLE_MILLIS);
+        ServerSettings.PasswordHashing hashing = settings.passwordHashing();
+        int logRounds = (hashing.logRounds() == 0) ? PasswordHasher.calibrate(hashing.targetMillis()) : hashing.logRounds();
+        passwordHasher = new PasswordHasher(hashing.threads(), hashing.maxQueued(), logRounds);
+        ServerSettings.AnalysisPool analysis = settings.analysis();
+        analysisService = new AnalysisService(analysis.threads(), analysis.queueCapacity(),
+                analysis.maxMillis(), analysis.maxNodes());
+
+        ServerSettings.AuthCache caching = settings.authCache();
+        if(caching.enabled()) {
+            dataAccess = dataAccess.withAuthCache(caching.maxEntries(), caching.ttlMillis(), caching.negativeTtlMillis());
+            authCache = (CachingAuthDAO) dataAccess.auths();
+        }
+        else authCache = null;
+
+        // ChessGame looks the cache up statically, so it serves every game in the process
+        moveCache = (settings.moveCacheBytes() > 0) ? new LegalMoveCache(settings.moveCacheBytes()) : null;
+        ChessGame.setMoveCache(moveCache);
+
+        // Every game write goes through the versions, so the handlers can tell what changed
+        VersionedGameDAO versions = new VersionedGameDAO(dataAccess.games());
+        dataAccess = new DataAccess(dataAccess.users(), dataAccess.auths(), versions);
+
+        UserService userService = new UserService(dataAccess, passwordHasher);
+        GameService gameService = new GameService(dataAccess);
+        ClearService clearService = new ClearService(dataAccess);
+        UserHandler userHandler = new UserHandler(userService);
+        GameHandler gameHandler = new GameHandler(userService, gameService, versions);
+        WebSocketHandler webSocketHandler = new WebSocketHandler(userService, gameService, analysisService,
+                listLimiter, mutationLimiter, tokenRateLimiter, addressRateLimiter);
+
+        StaticAssets staticAssets = StaticAssets.load("web");
+        javalin = Javalin.create(config -> {
+            // Static files come precompressed from StaticAssets; this covers the JSON responses
+            CompressionStrategy compression = new CompressionStrategy(null, new Gzip(GZIP_LEVEL));
+            compression.setDefaultMinSizeForCompression(COMPRESSION_MIN_BYTES);
+            config.http.customCompression(compression);
+            // Every request, HTTP or WebSocket, is dispatched from this pool, so with virtual threads
+            // a handler blocked on JDBC or waiting for the bcrypt pool holds no platform thread
+            config.useVirtualThreads = settings.virtualThreads();
+            config.jetty.threadPool = ConcurrencyUtil.jettyThreadPool("JettyServerThreadPool",
+                    MIN_THREADS, settings.maxThreads(), settings.virtualThreads());
+        });
+
+        // Ahead of every route, so a refused request costs two CAS operations and nothing else
+        javalin.before(ctx -> {
+            addressRateLimiter.acquire(ctx.ip());
+            String token = ctx.header("authorization");
+            if(token != null)
+                tokenRateLimiter.acquire(token);
+        });
+        staticAssets.register(javalin);
+        javalin.post("/user", authLimiter.limit(userHandler::register));
+        javalin.post("/session", authLimiter.limit(userHandler::login));
+        javalin.delete("/session", authLimiter.limit(userHandler::logout));
+        javalin.get("/game", listLimiter.limit(gameHandler::listGames));
+        javalin.get("/game/{gameID}", listLimiter.limit(gameHandler::getGame));
+        javalin.post("/game", mutationLimiter.limit(gameHandler::createGame));
+        javalin.put("/game", mutationLimiter.limit(gameHandler::joinGame));
+        javalin.delete("/db", ctx -> {
+            clearService.clear();
+            ctx.contentType("application/json").result("{}");
+        });
+        javalin.ws("/ws", ws -> {
+            ws.onMessage(webSocketHandler::onMessage);
+            ws.onClose(webSocketHandler::onClose);
+        });
+
+        javalin.exception(BadRequestException.class, (e, ctx) -> Json.error(ctx, 400, e.getMessage()));
+        javalin.exception(UnauthorizedException.class, (e, ctx) -> Json.error(ctx, 401, e.getMessage()));
+        javalin.exception(AlreadyTakenException.class, (e, ctx) -> Json.error(ctx, 403, e.getMessage()));
+        javalin.exception(RateLimitedException.class, (e, ctx) -> {
+            ctx.header("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            Json.error(ctx, 429, e.getMessage());
+        });
+        javalin.exception(ServerBusyException.class, (e, ctx) -> Json.error(ctx, 503, e.getMessage()));
+        javalin.exception(ServiceUnavailableException.class, (e, ctx) -> Json.error(ctx, 503, e.getMessage()));
+        javalin.exception(DataAccessException.class, (e, ctx) -> Json.error(ctx, 500, "Error: " + e.getMessage()));
+        javalin.exception(Exception.class, (e, ctx) -> Json.error(ctx, 500, "Error: " + e.getMessage()));
+    }
+
+    public int run(int desiredPort) {
+        javalin.start(desiredPort);
+        return javalin.port();
+    }
+
+    public void stop() {
+        javalin.stop();
+        passwordHasher.close();
+        analysisService.close();
+        ChessGame.setMoveCache(null);
+    }
+
+    public ConcurrencyLimiter getAuthLimiter() {
+        return authLimiter;
+    }
+
+    public ConcurrencyLimiter getListLimiter() {
+        return listLimiter;
+    }
+
+    public ConcurrencyLimiter getMutationLimiter() {
+        return mutationLimiter;
+    }
+
+    public RateLimiter getTokenRateLimiter() {
+        return tokenRateLimiter;
+    }
+
+    public RateLimiter getAddressRateLimiter() {
+        return addressRateLimiter;
+    }
+
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
+
+    public AnalysisService getAnalysisService() {
+        return analysisService;
+    }
+
+    /**
+     * @return the token lookup cache, or null when it is off
+     */
+    public CachingAuthDAO getAuthCache() {
+        return authCache;
+    }
+
+    /**
+     * @return the legal move sets moves are validated against, or null when the cache is off
+     */
+    public LegalMoveCache getMoveCache() {
+        return moveCache;
+    }
+}
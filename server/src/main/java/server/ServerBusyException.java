@@ -0,0 +1,11 @@
+package server;
+
+/**
+ * Indicates an endpoint class is at its concurrency limit and a request gave up waiting
+ */
+public class ServerBusyException extends Exception {
+
+    public ServerBusyException(String message) {
+        super(message);
+    }
+}
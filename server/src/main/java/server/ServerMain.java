@@ -1,10 +1,40 @@
 package server;
 
 import chess.*;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
 
 public class ServerMain {
+    /**
+     * @param args the port, 8080 if absent, then the store: "mysql", the default, or
+     *             "memory". If MySQL cannot be reached the server runs on memory instead.
+     */
     public static void main(String[] args) {
         var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 8080;
+        String store = (args.length > 1) ? args[1] : "mysql";
+        Server server = new Server(dataAccess(store), ServerSettings.defaults());
+        System.out.println("Listening on port " + server.run(port));
+    }
+
+    private static DataAccess dataAccess(String store) {
+        switch (store) {
+            case "memory" -> {
+                return DataAccess.memory();
+            }
+            case "mysql" -> {
+                try {
+                    DataAccess mysql = DataAccess.mysql();
+                    System.out.println("Storing data in MySQL");
+                    return mysql;
+                }
+                catch (DataAccessException ex) {
+                    System.out.println("MySQL is unavailable (" + ex.getMessage() + "); storing data in memory");
+                    return DataAccess.memory();
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown store " + store + "; use mysql or memory");
+        }
     }
 }
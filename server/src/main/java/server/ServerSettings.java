@@ -0,0 +1,198 @@
+package server;
+
+/**
+ * How the server runs its handlers. Requests fall into three endpoint classes, each with
+ * its own cap on how many may execute at once: auth (register, login, logout), which is
+ * dominated by bcrypt; game list, which only reads; and game mutation (create, join and
+ * the WebSocket gameplay commands), which writes. A request that cannot get a permit
+ * within limitWaitMillis is answered 503 instead of queueing without bound.
+ * <p>
+ * Separately, every HTTP request and WebSocket command is rate limited per auth token
+ * and per remote address, so one client sending too fast is answered 429 long before it
+ * can fill those caps for everyone else.
+ * <p>
+ * Register and login hash passwords on a pool of their own, sized by passwordHashing,
+ * so however many auth requests are admitted, bcrypt only ever occupies that pool's
+ * threads. Once its queue is full, further hashes are answered 503.
+ * <p>
+ * The auth token check every request makes is answered from a cache in front of the auth
+ * store, sized and timed by authCache. Logouts through this server take effect at once;
+ * a token deleted by another server sharing the database is trusted here until its
+ * entry's TTL runs out.
+ * <p>
+ * Moves are validated against legal move sets shared by every game, held in at most
+ * moveCacheBytes of memory, so positions many games reach, like the openings, are
+ * generated once.
+ * <p>
+ * Engine searches asked for over the WebSocket run on a pool of their own, sized and
+ * capped by analysis, so however many are requested they only ever occupy its threads.
+ *
+ * @param virtualThreads      run each request on its own virtual thread instead of a pooled platform thread
+ * @param maxThreads          size of the platform thread pool when virtual threads are off
+ * @param authConcurrency     auth requests allowed to execute at once
+ * @param listConcurrency     game list requests allowed to execute at once
+ * @param mutationConcurrency game mutations allowed to execute at once
+ * @param limitWaitMillis     how long a request may wait for a permit before it is refused
+ * @param tokenRate           the request rate allowed each auth token
+ * @param addressRate         the request rate allowed each remote address, which clients behind
+ *                            one NAT share
+ * @param passwordHashing     the bcrypt pool and cost factor
+ * @param authCache           the token lookup cache
+ * @param moveCacheBytes      memory for cached legal move sets, or 0 to check each move directly
+ * @param analysis            the engine search pool and the limits on each search
+ */
+public record ServerSettings(boolean virtualThreads, int maxThreads, int authConcurrency,
+                             int listConcurrency, int mutationConcurrency, long limitWaitMillis,
+                             RateLimit tokenRate, RateLimit addressRate, PasswordHashing passwordHashing,
+                             AuthCache authCache, long moveCacheBytes, AnalysisPool analysis) {
+
+    /**
+     * @param perSecond the sustained rate
+     * @param burst     requests allowed at once after a quiet spell
+     */
+    public record RateLimit(double perSecond, int burst) {}
+
+    /**
+     * @param threads      hashes computed at once
+     * @param maxQueued    hashes allowed to wait for a thread before more are refused
+     * @param logRounds    the bcrypt cost factor, or 0 to calibrate it at startup
+     * @param targetMillis the time one hash should take when the cost is calibrated
+     */
+    public record PasswordHashing(int threads, int maxQueued, int logRounds, long targetMillis) {
+        /**
+         * @return hashing at a fixed cost factor, which skips calibration
+         */
+        public PasswordHashing withLogRounds(int logRounds) {
+            return new PasswordHashing(threads, maxQueued, logRounds, targetMillis);
+        }
+    }
+
+    /**
+     * @param maxEntries        tokens, valid or not, to remember at most, or 0 to look every
+     *                          token up in the store
+     * @param ttlMillis         how long a valid token is trusted without asking the store
+     * @param negativeTtlMillis how long an unknown token is refused without asking the store
+     */
+    public record AuthCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        /** No cache, so every check reaches the auth store */
+        public static final AuthCache OFF = new AuthCache(0, 1, 1);
+
+        public AuthCache {
+            if(maxEntries < 0 || ttlMillis <= 0 || negativeTtlMillis <= 0)
+                throw new IllegalArgumentException("Auth cache size must not be negative and its TTLs must be positive");
+        }
+
+        public boolean enabled() {
+            return maxEntries > 0;
+        }
+    }
+
+    /**
+     * @param threads       searches run at once
+     * @param queueCapacity searches allowed to wait for a thread before more are refused
+     * @param maxMillis     the most think time any one search gets
+     * @param maxNodes      the most nodes any one search visits
+     */
+    public record AnalysisPool(int threads, int queueCapacity, long maxMillis, long maxNodes) {
+        public AnalysisPool {
+            if(threads < 1 || queueCapacity < 1 || maxMillis < 1 || maxNodes < 1)
+                throw new IllegalArgumentException("Analysis pool size and limits must be positive");
+        }
+    }
+
+    /** Jetty's own default pool size, which is what the starter server ran with */
+    public static final int DEFAULT_MAX_THREADS = 250;
+
+    public ServerSettings {
+        if(maxThreads < 1 || authConcurrency < 1 || listConcurrency < 1 || mutationConcurrency < 1)
+            throw new IllegalArgumentException("Thread and concurrency limits must be positive");
+        if(limitWaitMillis < 0)
+            throw new IllegalArgumentException("Limit wait must not be negative: " + limitWaitMillis);
+        if(tokenRate == null || addressRate == null)
+            throw new IllegalArgumentException("Rate limits are required");
+        if(passwordHashing == null)
+            throw new IllegalArgumentException("Password hashing settings are required");
+        if(authCache == null)
+            throw new IllegalArgumentException("Auth cache settings are required");
+        if(moveCacheBytes < 0)
+            throw new IllegalArgumentException("Move cache size must not be negative: " + moveCacheBytes);
+        if(analysis == null)
+            throw new IllegalArgumentException("Analysis settings are required");
+    }
+
+    /**
+     * Virtual threads, with reads and writes allowed well past what a platform pool could
+     * carry. bcrypt gets half the cores, leaving the rest to game traffic, and a queue of
+     * about a second's hashes at the 100 ms it is calibrated to. The rate limits are far
+     * above what a person at a client produces, so they only stop runaway scripts. Tokens
+     * are cached for a minute, enough for every active session, and unknown ones for five
+     * seconds. Legal move sets get 32 MB. Engine searches get a quarter of the cores and at
+     * most five seconds each.
+     */
+    public static ServerSettings defaults() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int hashThreads = Math.max(1, cores / 2);
+        return new ServerSettings(true, DEFAULT_MAX_THREADS, 256, 1024, 512, 2000,
+                new RateLimit(50, 200), new RateLimit(500, 2000),
+                new PasswordHashing(hashThreads, hashThreads * 10, 0, 100),
+                new AuthCache(10_000, 60_000, 5_000), 32L << 20,
+                new AnalysisPool(Math.max(1, cores / 4), 16, 5_000, 5_000_000));
+    }
+
+    /**
+     * @return these settings with virtual threads switched on or off
+     */
+    public ServerSettings withVirtualThreads(boolean virtualThreads) {
+        return new ServerSettings(virtualThreads, maxThreads, authConcurrency, listConcurrency,
+                mutationConcurrency, limitWaitMillis, tokenRate, addressRate, passwordHashing, authCache, moveCacheBytes, analysis);
+    }
+
+    /**
+     * @return these settings with new limits for the three endpoint classes
+     */
+    public ServerSettings withConcurrency(int authConcurrency, int listConcurrency, int mutationConcurrency) {
+        return new ServerSettings(virtualThreads, maxThreads, authConcurrency, listConcurrency,
+                mutationConcurrency, limitWaitMillis, tokenRate, addressRate, passwordHashing, authCache, moveCacheBytes, analysis);
+    }
+
+    /**
+     * @return these settings with new per-token and per-address rate limits
+     */
+    public ServerSettings withRateLimits(RateLimit tokenRate, RateLimit addressRate) {
+        return new ServerSettings(virtualThreads, maxThreads, authConcurrency, listConcurrency,
+                mutationConcurrency, limitWaitMillis, tokenRate, addressRate, passwordHashing, authCache, moveCacheBytes, analysis);
+    }
+
+    /**
+     * @return these settings with a new bcrypt pool and cost factor
+     */
+    public ServerSettings withPasswordHashing(PasswordHashing passwordHashing) {
+        return new ServerSettings(virtualThreads, maxThreads, authConcurrency, listConcurrency,
+                mutationConcurrency, limitWaitMillis, tokenRate, addressRate, passwordHashing, authCache, moveCacheBytes, analysis);
+    }
+
+    /**
+     * @return these settings with a new token lookup cache
+     */
+    public ServerSettings withAuthCache(AuthCache authCache) {
+        return new ServerSettings(virtualThreads, maxThreads, authConcurrency, listConcurrency,
+                mutationConcurrency, limitWaitMillis, tokenRate, addressRate, passwordHashing, authCache, moveCacheBytes, analysis);
+    }
+
+    /**
+     * @return these settings with a new memory cap for cached legal move sets
+     */
+    public ServerSettings withMoveCacheBytes(long moveCacheBytes) {
+        return new ServerSettings(virtualThreads, maxThreads, authConcurrency, listConcurrency,
+                mutationConcurrency, limitWaitMillis, tokenRate, addressRate, passwordHashing, authCache, moveCacheBytes, analysis);
+    }
+
+    /**
+     * @return these settings with a new engine search pool
+     */
+    public ServerSettings withAnalysis(AnalysisPool analysis) {
+        return new ServerSettings(virtualThreads, maxThreads, authConcurrency, listConcurrency,
+                mutationConcurrency, limitWaitMillis, tokenRate, addressRate, passwordHashing, authCache,
+                moveCacheBytes, analysis);
+    }
+}
@@ -0,0 +1,222 @@
+package server;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The files of a classpath directory, read, hashed and gzipped once at startup and
+ * served from memory, so no request ever compresses or even reads a file.
+ * <p>
+ * Every file other than an HTML page is also served under a name carrying a hash of
+ * its content, index.css as index.3f2a9c1b7e04.css, with headers that let browsers
+ * keep it for a year. The pages are rewritten to refer to those names. A changed file
+ * gets a new name, so the long cache can never serve a stale copy. The pages themselves,
+ * and the plain names kept for old links, are revalidated with their ETag on every use.
+ */
+final class StaticAssets {
+    /** Safe only because a hashed name's content never changes */
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+    private static final int HASH_CHARS = 12;
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "js", "text/javascript; charset=utf-8",
+            "json", "application/json",
+            "svg", "image/svg+xml",
+            "txt", "text/plain; charset=utf-8",
+            "ico", "image/x-icon",
+            "png", "image/png");
+    /** Formats that are not already compressed */
+    private static final List<String> COMPRESSIBLE = List.of("html", "css", "js", "json", "svg", "txt", "ico");
+
+    private record Asset(String contentType, byte[] identity, byte[] gzipped, String hash, String cacheControl) {
+        Asset revalidated() {
+            return new Asset(contentType, identity, gzipped, hash, REVALIDATE);
+        }
+    }
+
+    /** By request path */
+    private final Map<String, Asset> assets = new LinkedHashMap<>();
+
+    /**
+     * @param directory the classpath directory, read with its subdirectories
+     * @throws UncheckedIOException if the directory cannot be read
+     */
+    static StaticAssets load(String directory) {
+        try {
+            URL url = StaticAssets.class.getClassLoader().getResource(directory);
+            if(url == null)
+                throw new IOException("No " + directory + " directory on the classpath");
+            URI uri = url.toURI();
+            if(!uri.getScheme().equals("jar"))
+                return new StaticAssets(read(Path.of(uri)));
+            FileSystem jar;
+            try {
+                jar = FileSystems.newFileSystem(uri, Map.of());
+            }
+            catch (FileSystemAlreadyExistsException open) {
+                jar = FileSystems.getFileSystem(uri);
+            }
+            return new StaticAssets(read(jar.getPath(directory)));
+        }
+        catch (IOException | URISyntaxException ex) {
+            throw new UncheckedIOException("Unable to read static files from " + directory,
+                    (ex instanceof IOException io) ? io : new IOException(ex));
+        }
+    }
+
+    private StaticAssets(Map<String, byte[]> files) throws IOException {
+        Map<String, String> hashedNames = new LinkedHashMap<>();
+        for(Map.Entry<String, byte[]> file : files.entrySet()) {
+            String name = file.getKey();
+            if(extension(name).equals("html"))
+                continue;
+            String hash = hash(file.getValue());
+            String hashedName = hashedName(name, hash);
+            hashedNames.put(name, hashedName);
+            Asset asset = asset(name, file.getValue(), hash, IMMUTABLE);
+            assets.put("/" + hashedName, asset);
+            assets.put("/" + name, asset.revalidated());
+        }
+        for(Map.Entry<String, byte[]> file : files.entrySet()) {
+            String name = file.getKey();
+            if(!extension(name).equals("html"))
+                continue;
+            String page = new String(file.getValue(), StandardCharsets.UTF_8);
+            for(Map.Entry<String, String> hashed : hashedNames.entrySet()) {
+                page = page.replace("\"" + hashed.getKey() + "\"", "\"" + hashed.getValue() + "\"")
+                        .replace("\"/" + hashed.getKey() + "\"", "\"/" + hashed.getValue() + "\"");
+            }
+            byte[] bytes = page.getBytes(StandardCharsets.UTF_8);
+            Asset asset = asset(name, bytes, hash(bytes), REVALIDATE);
+            assets.put("/" + name, asset);
+            if(name.equals("index.html"))
+                assets.put("/", asset);
+        }
+    }
+
+    /**
+     * Adds a GET route for every asset
+     */
+    void register(Javalin javalin) {
+        for(Map.Entry<String, Asset> asset : assets.entrySet())
+            javalin.get(asset.getKey(), ctx -> serve(ctx, asset.getValue()));
+    }
+
+    private static void serve(Context ctx, Asset asset) {
+        // Caches must keep the gzipped and plain copies apart
+        ctx.header("Vary", "Accept-Encoding");
+        boolean gzip = asset.gzipped() != null && acceptsGzip(ctx.header("Accept-Encoding"));
+        // A strong tag names exact bytes, so each encoding has its own
+        String etag = "\"" + asset.hash() + (gzip ? "-gz\"" : "\"");
+        if(ETags.notModified(ctx, etag, asset.cacheControl()))
+            return;
+        ctx.contentType(asset.contentType());
+        if(gzip) {
+            ctx.header("Content-Encoding", "gzip"); // which also keeps Javalin from compressing it again
+            ctx.result(asset.gzipped());
+        }
+        else ctx.result(asset.identity());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if(acceptEncoding == null)
+            return false;
+        for(String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if(!name.equalsIgnoreCase("gzip") && !name.equals("*"))
+                continue;
+            for(int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if(parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    }
+                    catch (NumberFormatException malformed) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static Asset asset(String name, byte[] bytes, String hash, String cacheControl) throws IOException {
+        String extension = extension(name);
+        byte[] gzipped = null;
+        if(COMPRESSIBLE.contains(extension)) {
+            gzipped = gzip(bytes);
+            if(gzipped.length >= bytes.length)
+                gzipped = null;
+        }
+        String contentType = CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+        return new Asset(contentType, bytes, gzipped, hash, cacheControl);
+    }
+
+    private static Map<String, byte[]> read(Path root) throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        try(Stream<Path> paths = Files.walk(root)) {
+            for(Path path : paths.filter(Files::isRegularFile).sorted().toList())
+                files.put(root.relativize(path).toString().replace('\\', '/'), Files.readAllBytes(path));
+        }
+        return files;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 64);
+        // Compressed once per start, so the slowest, smallest setting costs nothing per request
+        try(GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest).substring(0, HASH_CHARS);
+        }
+        catch (NoSuchAlgorithmException missing) {
+            throw new IllegalStateException("SHA-256 is required of every JVM", missing);
+        }
+    }
+
+    private static String hashedName(String name, String hash) {
+        int dot = name.lastIndexOf('.');
+        return (dot < 0) ? name + "." + hash : name.substring(0, dot) + "." + hash + name.substring(dot);
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return (dot < 0) ? "" : name.substring(dot + 1).toLowerCase();
+    }
+}
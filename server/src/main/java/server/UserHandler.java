@@ -0,0 +1,30 @@
+package server;
+
+import io.javalin.http.Context;
+import model.LoginRequest;
+import model.UserData;
+import service.UserService;
+
+/**
+ * Routes for registering, logging in and logging out
+ */
+public class UserHandler {
+    private final UserService users;
+
+    public UserHandler(UserService users) {
+        this.users = users;
+    }
+
+    public void register(Context ctx) throws Exception {
+        Json.write(ctx, users.register(Json.read(ctx, UserData.class)));
+    }
+
+    public void login(Context ctx) throws Exception {
+        Json.write(ctx, users.login(Json.read(ctx, LoginRequest.class)));
+    }
+
+    public void logout(Context ctx) throws Exception {
+        users.logout(ctx.header("authorization"));
+        ctx.contentType("application/json").result("{}");
+    }
+}
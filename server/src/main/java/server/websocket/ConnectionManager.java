@@ -0,0 +1,61 @@
+package server.websocket;
+
+import io.javalin.websocket.WsContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which WebSocket sessions are connected to which game so a command's effects
+ * reach every player and observer
+ */
+public class ConnectionManager {
+    private final Map<Integer, Map<String, WsContext>> byGame = new ConcurrentHashMap<>();
+
+    public void add(int gameID, WsContext session) {
+        byGame.computeIfAbsent(gameID, key -> new ConcurrentHashMap<>()).put(session.sessionId(), session);
+    }
+
+    public void remove(int gameID, WsContext session) {
+        byGame.computeIfPresent(gameID, (key, sessions) -> {
+            sessions.remove(session.sessionId());
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /**
+     * Forgets a closed session in every game it was connected to
+     */
+    public void removeEverywhere(WsContext session) {
+        for(Integer gameID : byGame.keySet())
+            remove(gameID, session);
+    }
+
+    /**
+     * Sends a message to every open session connected to the game except one
+     *
+     * @param exclude the session to skip, or null to send to all
+     */
+    public void broadcast(int gameID, String message, WsContext exclude) {
+        Map<String, WsContext> sessions = byGame.get(gameID);
+        if(sessions == null)
+            return;
+        for(WsContext session : sessions.values()) {
+            if(exclude != null && session.sessionId().equals(exclude.sessionId()))
+                continue;
+            if(session.session.isOpen())
+                send(session, message);
+            else remove(gameID, session);
+        }
+    }
+
+    /**
+     * Sends to one session. Jetty allows one blocking send per session at a time, and
+     * broadcasts for different commands can reach the same session from different threads.
+     */
+    public static void send(WsContext session, String message) {
+        synchronized(session.session) {
+            session.send(message);
+        }
+    }
+}
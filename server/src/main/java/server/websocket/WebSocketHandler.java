@@ -0,0 +1,182 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import dataaccess.DataAccessException;
+import io.javalin.websocket.WsCloseContext;
+import io.javalin.websocket.WsContext;
+import io.javalin.websocket.WsMessageContext;
+import model.AuthData;
+import model.GameData;
+import server.ConcurrencyLimiter;
+import server.RateLimitedException;
+import server.RateLimiter;
+import server.ServerBusyException;
+import service.AnalysisRejectedException;
+import service.AnalysisService;
+import service.BadRequestException;
+import service.GameService;
+import service.UnauthorizedException;
+import service.UserService;
+import websocket.commands.AnalyzeCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.AnalysisMessage;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Plays the gameplay commands sent over /ws. Every command is rate limited by the
+ * sender's address and auth token like an HTTP request. CONNECT and ANALYZE count against
+ * the game list limit like any other read, and MAKE_MOVE, LEAVE and RESIGN against the
+ * mutation limit. Anything that goes wrong is reported to the sender alone as an ERROR message.
+ * <p>
+ * ANALYZE queues an engine search and returns at once; the ANALYSIS message follows when
+ * the search finishes. Closing the session cancels every search it asked for.
+ */
+public class WebSocketHandler {
+    private static final Gson GSON = new Gson();
+    /** Iterative deepening stops at the time limit long before this */
+    private static final int MAX_ANALYSIS_DEPTH = 64;
+
+    private final UserService users;
+    private final GameService games;
+    private final AnalysisService analysis;
+    private final ConcurrencyLimiter readLimiter;
+    private final ConcurrencyLimiter mutationLimiter;
+    private final RateLimiter tokenRateLimiter;
+    private final RateLimiter addressRateLimiter;
+    private final ConnectionManager connections = new ConnectionManager();
+
+    public WebSocketHandler(UserService users, GameService games, AnalysisService analysis,
+                            ConcurrencyLimiter readLimiter, ConcurrencyLimiter mutationLimiter,
+                            RateLimiter tokenRateLimiter, RateLimiter addressRateLimiter) {
+        this.users = users;
+        this.games = games;
+        this.analysis = analysis;
+        this.readLimiter = readLimiter;
+        this.mutationLimiter = mutationLimiter;
+        this.tokenRateLimiter = tokenRateLimiter;
+        this.addressRateLimiter = addressRateLimiter;
+    }
+
+    public void onMessage(WsMessageContext ctx) {
+        try {
+            addressRateLimiter.acquire(address(ctx));
+            UserGameCommand command = GSON.fromJson(ctx.message(), UserGameCommand.class);
+            if(command == null || command.getCommandType() == null || command.getGameID() == null)
+                throw new BadRequestException("Error: bad command");
+            if(command.getAuthToken() != null)
+                tokenRateLimiter.acquire(command.getAuthToken());
+            boolean reads = command.getCommandType() == UserGameCommand.CommandType.CONNECT
+                    || command.getCommandType() == UserGameCommand.CommandType.ANALYZE;
+            ConcurrencyLimiter limiter = reads ? readLimiter : mutationLimiter;
+            limiter.acquire();
+            try {
+                AuthData auth = users.authenticate(command.getAuthToken());
+                switch (command.getCommandType()) {
+                    case CONNECT -> connect(ctx, auth, command.getGameID());
+                    case MAKE_MOVE -> makeMove(ctx, auth, GSON.fromJson(ctx.message(), MakeMoveCommand.class));
+                    case LEAVE -> leave(ctx, auth, command.getGameID());
+                    case RESIGN -> resign(auth, command.getGameID());
+                    case ANALYZE -> analyze(ctx, GSON.fromJson(ctx.message(), AnalyzeCommand.class));
+                }
+            }
+            finally {
+                limiter.release();
+            }
+        }
+        catch (JsonParseException malformed) {
+            sendError(ctx, "Error: bad command");
+        }
+        catch (BadRequestException | UnauthorizedException | ServerBusyException | RateLimitedException
+               | AnalysisRejectedException refused) {
+            sendError(ctx, refused.getMessage());
+        }
+        catch (DataAccessException failed) {
+            sendError(ctx, "Error: " + failed.getMessage());
+        }
+        catch (RuntimeException unexpected) {
+            // Nothing else reports it, and the sender would otherwise wait for an answer forever
+            sendError(ctx, "Error: " + unexpected);
+        }
+    }
+
+    public void onClose(WsCloseContext ctx) {
+        connections.removeEverywhere(ctx);
+        analysis.cancelAll(ctx.sessionId());
+    }
+
+    private static String address(WsContext ctx) {
+        SocketAddress remote = ctx.session.getRemoteAddress();
+        return (remote instanceof InetSocketAddress inet) ? inet.getAddress().getHostAddress() : String.valueOf(remote);
+    }
+
+    private void connect(WsContext ctx, AuthData auth, int gameID) throws BadRequestException, DataAccessException {
+        GameData game = games.getGame(gameID);
+        TeamColor color = GameService.colorOf(game, auth.username());
+        String role = (color == null) ? "an observer" : color.name().toLowerCase();
+        notifyOthers(ctx, gameID, auth.username() + " joined the game as " + role);
+        // Announced before the sender is loaded, so sessions connecting after that never hear it late
+        connections.add(gameID, ctx);
+        ConnectionManager.send(ctx, GSON.toJson(new LoadGameMessage(game.game())));
+    }
+
+    private void makeMove(WsContext ctx, AuthData auth, MakeMoveCommand command)
+            throws BadRequestException, DataAccessException {
+        GameService.PlayedMove played = games.makeMove(auth.username(), command.getGameID(), command.getMove());
+        int gameID = command.getGameID();
+        connections.broadcast(gameID, GSON.toJson(new LoadGameMessage(played.game().game())), null);
+        notifyOthers(ctx, gameID, auth.username() + " played " + played.san());
+
+        ChessGame game = played.game().game();
+        TeamColor next = game.getTeamTurn();
+        String player = played.game().username(next);
+        if(player == null)
+            player = next.name().toLowerCase();
+        if(game.isInCheckmate(next))
+            notifyAll(gameID, player + " is in checkmate");
+        else if(game.isInStalemate(next))
+            notifyAll(gameID, player + " is in stalemate");
+        else if(game.isInCheck(next))
+            notifyAll(gameID, player + " is in check");
+    }
+
+    private void leave(WsContext ctx, AuthData auth, int gameID) throws BadRequestException, DataAccessException {
+        games.leave(auth.username(), gameID);
+        connections.remove(gameID, ctx);
+        notifyOthers(ctx, gameID, auth.username() + " left the game");
+    }
+
+    private void resign(AuthData auth, int gameID) throws BadRequestException, DataAccessException {
+        games.resign(auth.username(), gameID);
+        notifyAll(gameID, auth.username() + " resigned");
+    }
+
+    private void analyze(WsContext ctx, AnalyzeCommand command)
+            throws BadRequestException, DataAccessException, AnalysisRejectedException {
+        GameData game = games.getGame(command.getGameID());
+        int depth = (command.getDepth() > 0) ? command.getDepth() : MAX_ANALYSIS_DEPTH;
+        long millis = (command.getMillis() > 0) ? command.getMillis() : Long.MAX_VALUE; // capped by the service
+        analysis.submit(ctx.sessionId(), game.game(), depth, millis, Long.MAX_VALUE, result -> ConnectionManager.send(ctx,
+                GSON.toJson(new AnalysisMessage(result.bestMove(), result.score(), result.depth()))));
+    }
+
+    private void notifyOthers(WsContext ctx, int gameID, String message) {
+        connections.broadcast(gameID, GSON.toJson(new NotificationMessage(message)), ctx);
+    }
+
+    private void notifyAll(int gameID, String message) {
+        connections.broadcast(gameID, GSON.toJson(new NotificationMessage(message)), null);
+    }
+
+    private static void sendError(WsContext ctx, String message) {
+        ConnectionManager.send(ctx, GSON.toJson(new ErrorMessage(message)));
+    }
+}
@@ -0,0 +1,11 @@
+package service;
+
+/**
+ * Indicates a username or a seat at a game already belongs to someone else
+ */
+public class AlreadyTakenException extends Exception {
+
+    public AlreadyTakenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package service;
+
+import chess.engine.SearchResult;
+import chess.engine.TimeManager;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handle to one queued or running analysis
+ */
+public class Analysis {
+    private final Object owner;
+    private final ThreadPoolExecutor executor;
+    private volatile FutureTask<SearchResult> future;
+    private volatile TimeManager timeManager;
+    private volatile boolean cancelled;
+
+    Analysis(Object owner, ThreadPoolExecutor executor) {
+        this.owner = owner;
+        this.executor = executor;
+    }
+
+    void setFuture(FutureTask<SearchResult> future) {
+        this.future = future;
+    }
+
+    /**
+     * Called on the worker thread when the search starts. If the analysis was cancelled
+     * in the meantime the search is stopped before it begins.
+     */
+    void start(TimeManager timeManager) {
+        this.timeManager = timeManager;
+        if(cancelled)
+            timeManager.stop();
+    }
+
+    /**
+     * Stops the analysis. A queued analysis never runs; a running one returns its best
+     * move so far at its next clock check.
+     */
+    public void cancel() {
+        cancelled = true;
+        TimeManager running = timeManager;
+        if(running != null)
+            running.stop();
+        else if(future != null && executor.remove(future))
+            future.cancel(false); // still queued; otherwise start() sees the flag
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return future != null && future.isDone();
+    }
+
+    /**
+     * Waits for the result
+     *
+     * @throws CancellationException if the analysis was cancelled before it started
+     */
+    public SearchResult get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(timeout, unit);
+    }
+
+    Object getOwner() {
+        return owner;
+    }
+}
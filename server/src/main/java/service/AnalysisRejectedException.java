@@ -0,0 +1,11 @@
+package service;
+
+/**
+ * Indicates the analysis service is saturated and turned a request away
+ */
+public class AnalysisRejectedException extends Exception {
+
+    public AnalysisRejectedException(String message) {
+        super(message);
+    }
+}
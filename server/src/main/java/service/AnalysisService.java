@@ -0,0 +1,156 @@
+package service;
+
+import chess.ChessGame;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import chess.engine.TimeManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs engine searches for analysis and hints off the request threads. A fixed number
+ * of workers drains a bounded queue; when both are full new requests are refused with
+ * {@link AnalysisRejectedException} rather than piling up, so CPU-heavy searches can
+ * never starve HTTP or move traffic. Every request is capped in time and nodes, and all
+ * requests belonging to an owner (a WebSocket session, an HTTP request) can be cancelled
+ * at once when it goes away.
+ */
+public class AnalysisService implements AutoCloseable {
+    private final ThreadPoolExecutor executor;
+    private final long maxMillis;
+    private final long maxNodes;
+    private final Map<Object, Set<Analysis>> byOwner = new ConcurrentHashMap<>();
+
+    /**
+     * @param threads       worker threads, each running one search at a time
+     * @param queueCapacity analyses allowed to wait for a worker
+     * @param maxMillis     upper bound on any one search's think time
+     * @param maxNodes      upper bound on any one search's node count
+     */
+    public AnalysisService(int threads, int queueCapacity, long maxMillis, long maxNodes) {
+        this.maxMillis = maxMillis;
+        this.maxNodes = maxNodes;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "analysis-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues a search of the game's current position
+     *
+     * @param owner    whoever the analysis is for; see {@link #cancelAll(Object)}
+     * @param game     the position to analyze, copied before this returns
+     * @param maxDepth the deepest iteration to search
+     * @param millis   requested think time, capped by the service limit
+     * @param nodes    requested node budget, capped by the service limit
+     * @return a handle to wait on or cancel
+     * @throws AnalysisRejectedException if every worker is busy and the queue is full
+     */
+    public Analysis submit(Object owner, ChessGame game, int maxDepth, long millis, long nodes) throws AnalysisRejectedException {
+        return submit(owner, game, maxDepth, millis, nodes, result -> {});
+    }
+
+    /**
+     * Queues a search of the game's current position and hands its result on without
+     * anyone waiting for it
+     *
+     * @param onResult called on the worker thread when the search finishes, unless the
+     *                 analysis was cancelled
+     * @see #submit(Object, ChessGame, int, long, long)
+     */
+    public Analysis submit(Object owner, ChessGame game, int maxDepth, long millis, long nodes,
+                           Consumer<SearchResult> onResult) throws AnalysisRejectedException {
+        ChessGame snapshot = new ChessGame(game);
+        long budget = Math.max(1, Math.min(millis, maxMillis));
+        long nodeLimit = Math.max(1, Math.min(nodes, maxNodes));
+        Analysis analysis = new Analysis(owner, executor);
+        FutureTask<SearchResult> task = new FutureTask<>(() -> run(analysis, snapshot, maxDepth, budget, nodeLimit, onResult));
+        analysis.setFuture(task);
+        byOwner.computeIfAbsent(owner, key -> ConcurrentHashMap.newKeySet()).add(analysis);
+        try {
+            executor.execute(task);
+        }
+        catch (RejectedExecutionException saturated) {
+            forget(analysis);
+            throw new AnalysisRejectedException("Error: analysis is busy, try again later");
+        }
+        return analysis;
+    }
+
+    private SearchResult run(Analysis analysis, ChessGame game, int maxDepth, long budget, long nodeLimit,
+                             Consumer<SearchResult> onResult) {
+        try {
+            TimeManager timeManager = TimeManager.forBudget(budget);
+            analysis.start(timeManager);
+            Search search = new Search();
+            search.setNodeLimit(nodeLimit);
+            SearchResult result = search.search(game, maxDepth, timeManager);
+            if(!analysis.isCancelled())
+                onResult.accept(result);
+            return result;
+        }
+        finally {
+            forget(analysis);
+        }
+    }
+
+    /**
+     * Cancels everything queued or running for an owner, for example when its WebSocket
+     * session closes
+     *
+     * @return how many analyses were cancelled
+     */
+    public int cancelAll(Object owner) {
+        Set<Analysis> analyses = byOwner.remove(owner);
+        if(analyses == null)
+            return 0;
+        for(Analysis analysis : analyses)
+            analysis.cancel();
+        return analyses.size();
+    }
+
+    private void forget(Analysis analysis) {
+        byOwner.computeIfPresent(analysis.getOwner(), (owner, analyses) -> {
+            analyses.remove(analysis);
+            return analyses.isEmpty() ? null : analyses;
+        });
+    }
+
+    /**
+     * @return analyses waiting for a worker
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return analyses currently searching
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Stops every analysis and the workers
+     */
+    @Override
+    public void close() {
+        for(Object owner : byOwner.keySet())
+            cancelAll(owner);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,11 @@
+package service;
+
+/**
+ * Indicates a request was missing fields or asked for something that cannot be done
+ */
+public class BadRequestException extends Exception {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
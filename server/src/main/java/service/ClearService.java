@@ -0,0 +1,21 @@
+package service;
+
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+
+public class ClearService {
+    private final DataAccess dataAccess;
+
+    public ClearService(DataAccess dataAccess) {
+        this.dataAccess = dataAccess;
+    }
+
+    /**
+     * Deletes every user, auth token and game
+     */
+    public void clear() throws DataAccessException {
+        dataAccess.auths().clear();
+        dataAccess.games().clear();
+        dataAccess.users().clear();
+    }
+}
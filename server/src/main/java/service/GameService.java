@@ -0,0 +1,188 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.notation.MoveNotation;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.CreateGameRequest;
+import model.GameData;
+import model.JoinGameRequest;
+
+import java.util.function.Consumer;
+
+/**
+ * Creates, lists and seats games, and plays moves, leaves and resignations in them.
+ * Callers authenticate first and pass the username the token belongs to.
+ */
+public class GameService {
+    /** The most games one page of the list may hold */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final GameDAO games;
+
+    public GameService(DataAccess dataAccess) {
+        games = dataAccess.games();
+    }
+
+    /**
+     * Hands the action one page of game summaries in ID order, each as it is read
+     *
+     * @param afterID  the cursor from the previous page, or 0 for the first
+     * @param pageSize the most games to list, capped at {@link #MAX_PAGE_SIZE}, or null
+     *                 for every game after the cursor
+     * @return the cursor for the next page, or null if this page reached the last game
+     */
+    public Integer listGames(int afterID, Integer pageSize, Consumer<GameData> action)
+            throws BadRequestException, DataAccessException {
+        if(afterID < 0 || (pageSize != null && pageSize < 1))
+            throw new BadRequestException("Error: bad request");
+        if(pageSize == null) {
+            games.forEachGame(afterID, Integer.MAX_VALUE, action);
+            return null;
+        }
+        int limit = Math.min(pageSize, MAX_PAGE_SIZE);
+        int[] listed = new int[3]; // games passed on, the last one's ID, and 1 if there are more
+        // Reading one game past the page tells whether there is another page
+        games.forEachGame(afterID, limit + 1, game -> {
+            if(listed[0] == limit) {
+                listed[2] = 1;
+                return;
+            }
+            listed[0]++;
+            listed[1] = game.gameID();
+            action.accept(game);
+        });
+        return (listed[2] == 1) ? listed[1] : null;
+    }
+
+    /**
+     * @return the new game's ID
+     */
+    public int createGame(CreateGameRequest request) throws BadRequestException, DataAccessException {
+        if(request == null || UserService.isBlank(request.gameName()))
+            throw new BadRequestException("Error: bad request");
+        return games.createGame(request.gameName());
+    }
+
+    /**
+     * Seats the user as the requested color
+     */
+    public void joinGame(String username, JoinGameRequest request)
+            throws BadRequestException, AlreadyTakenException, DataAccessException {
+        if(request == null || request.playerColor() == null || request.gameID() == null)
+            throw new BadRequestException("Error: bad request");
+        getGame(request.gameID());
+        if(!games.claimSeat(request.gameID(), request.playerColor(), username))
+            throw new AlreadyTakenException("Error: already taken");
+    }
+
+    /**
+     * @throws BadRequestException if there is no game with the ID
+     */
+    public GameData getGame(int gameID) throws BadRequestException, DataAccessException {
+        GameData game = games.getGame(gameID);
+        if(game == null)
+            throw new BadRequestException("Error: no game with ID " + gameID);
+        return game;
+    }
+
+    /**
+     * Plays a move for the user, who must be seated at the game and have the turn. The
+     * checks and the move are one atomic step against other writes to the game, so of two
+     * moves sent at once only one can find it the mover's turn.
+     *
+     * @return the game after the move and the move in SAN
+     */
+    public PlayedMove makeMove(String username, int gameID, ChessMove move)
+            throws BadRequestException, DataAccessException {
+        if(move == null)
+            throw new BadRequestException("Error: no move given");
+        if(!onBoard(move.getStartPosition()) || !onBoard(move.getEndPosition()))
+            throw new BadRequestException("Error: the move leaves the board");
+        TeamColor[] mover = new TeamColor[1];
+        String[] san = new String[1];
+        GameData played = games.changeGameState(gameID, data -> {
+            ChessGame game = data.game();
+            if(game.isGameOver())
+                throw new BadRequestException("Error: the game is over");
+            if(colorOf(data, username) == null)
+                throw new BadRequestException("Error: observers cannot make moves");
+            TeamColor color = game.getTeamTurn();
+            if(!username.equals(data.username(color)))
+                throw new BadRequestException("Error: it is not your turn");
+            ChessGame before = new ChessGame(game);
+            try {
+                game.makeMove(move);
+            }
+            catch (InvalidMoveException invalid) {
+                throw new BadRequestException("Error: illegal move");
+            }
+            TeamColor next = game.getTeamTurn();
+            if(game.isInCheckmate(next) || game.isInStalemate(next))
+                game.setGameOver(true);
+            mover[0] = color;
+            san[0] = new MoveNotation(before).toSan(move);
+        });
+        if(played == null)
+            throw new BadRequestException("Error: no game with ID " + gameID);
+        return new PlayedMove(played, mover[0], san[0]);
+    }
+
+    /**
+     * Gives up the user's seat, if they have one; observers simply stop watching
+     *
+     * @return the game after the user left
+     */
+    public GameData leave(String username, int gameID) throws BadRequestException, DataAccessException {
+        GameData data = getGame(gameID);
+        TeamColor color = colorOf(data, username);
+        if(color == null || !games.releaseSeat(gameID, color, username))
+            return data;
+        return data.withPlayer(color, null);
+    }
+
+    /**
+     * Ends the game in the opponent's favor
+     *
+     * @return the color that resigned
+     */
+    public TeamColor resign(String username, int gameID) throws BadRequestException, DataAccessException {
+        TeamColor[] color = new TeamColor[1];
+        GameData resigned = games.changeGameState(gameID, data -> {
+            color[0] = colorOf(data, username);
+            if(color[0] == null)
+                throw new BadRequestException("Error: observers cannot resign");
+            if(data.game().isGameOver())
+                throw new BadRequestException("Error: the game is already over");
+            data.game().setGameOver(true);
+        });
+        if(resigned == null)
+            throw new BadRequestException("Error: no game with ID " + gameID);
+        return color[0];
+    }
+
+    /**
+     * @return the color the user plays in the game, or null if they only observe
+     */
+    public static TeamColor colorOf(GameData game, String username) {
+        if(username.equals(game.whiteUsername()))
+            return TeamColor.WHITE;
+        if(username.equals(game.blackUsername()))
+            return TeamColor.BLACK;
+        return null;
+    }
+
+    private static boolean onBoard(ChessPosition position) {
+        return position != null && position.isOnBoard();
+    }
+
+    /**
+     * A move that was played: the game after it, who played it and how it is written
+     */
+    public record PlayedMove(GameData game, TeamColor mover, String san) {}
+}
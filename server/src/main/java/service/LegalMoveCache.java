@@ -0,0 +1,143 @@
+package service;
+
+import chess.ChessGame;
+import chess.MoveCache;
+import chess.engine.Zobrist;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Legal move sets shared by every game on the server, keyed by the position's Zobrist
+ * hash, which covers the pieces, side to move, castling rights and en passant square.
+ * <p>
+ * Lookups are lock-free map reads that set the entry's reference bit. Inserts take a
+ * lock and evict with the CLOCK (second chance) policy until the cache fits its memory
+ * cap: entries referenced since the hand last passed get another lap, the rest go. So
+ * positions every game reaches, like opening positions, stay, while the long tail of
+ * middlegames cycles through.
+ * <p>
+ * Entries are trusted on the 64-bit key alone; a collision needs around 2^32 cached
+ * positions to become likely, far more than the memory cap allows.
+ */
+public class LegalMoveCache implements MoveCache {
+    /** Rough bytes per entry besides its moves: map node, boxed key, entry and array headers */
+    static final int ENTRY_OVERHEAD = 96;
+
+    private final long maxBytes;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ArrayDeque<Entry> clock = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+
+    private static class Entry {
+        final long key;
+        final int[] moves;
+        volatile boolean referenced;
+
+        Entry(long key, int[] moves) {
+            this.key = key;
+            this.moves = moves;
+        }
+
+        long bytes() {
+            return ENTRY_OVERHEAD + 4L * moves.length;
+        }
+    }
+
+    /**
+     * @param maxBytes how much memory the cached move sets may take, approximately
+     */
+    public LegalMoveCache(long maxBytes) {
+        if(maxBytes <= 0)
+            throw new IllegalArgumentException("Memory cap must be positive: " + maxBytes);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int[] legalMoves(ChessGame game) {
+        long key = Zobrist.hash(game);
+        Entry entry = entries.get(key);
+        if(entry != null) {
+            if(!entry.referenced)
+                entry.referenced = true; // skip the write when already set, keeping the cache line shared
+            hits.increment();
+            return entry.moves;
+        }
+        misses.increment();
+        int[] moves = game.packedLegalMoves(); // computed outside the lock; racing misses both compute
+        insert(new Entry(key, moves));
+        return moves;
+    }
+
+    private void insert(Entry entry) {
+        lock.lock();
+        try {
+            if(entries.putIfAbsent(entry.key, entry) != null)
+                return;
+            clock.addLast(entry);
+            bytes += entry.bytes();
+            while(bytes > maxBytes && !clock.isEmpty()) {
+                Entry hand = clock.pollFirst();
+                if(hand.referenced && hand != entry) {
+                    hand.referenced = false;
+                    clock.addLast(hand);
+                    continue;
+                }
+                entries.remove(hand.key);
+                bytes -= hand.bytes();
+                evictions.increment();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, or 0 before any lookup
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return (total == 0) ? 0 : (double) hit / total;
+    }
+
+    /**
+     * @return positions currently cached
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return estimated memory held by cached entries
+     */
+    public long getBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package service;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs bcrypt on a small pool of its own platform threads. Request threads hand it a
+ * hash or a check and wait, which costs a virtual thread nothing, while the pool caps
+ * how many cores bcrypt can occupy, so a burst of logins cannot crowd out game traffic.
+ * When more hashes are queued than the pool clears quickly, new ones are refused with
+ * {@link ServiceUnavailableException} rather than left to wait behind the others.
+ */
+public class PasswordHasher implements AutoCloseable {
+    /** jBCrypt's default, and the least calibration will choose */
+    public static final int MIN_CALIBRATED_ROUNDS = 10;
+    public static final int MAX_CALIBRATED_ROUNDS = 16;
+    /** Cheap enough to time a few times at startup, costly enough to time accurately */
+    private static final int PROBE_ROUNDS = 8;
+
+    private final int logRounds;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    /**
+     * @param threads   hashes computed at once
+     * @param maxQueued hashes allowed to wait for a thread before more are refused
+     * @param logRounds the bcrypt cost factor; each step doubles the time per hash
+     */
+    public PasswordHasher(int threads, int maxQueued, int logRounds) {
+        if(threads < 1 || maxQueued < 1)
+            throw new IllegalArgumentException("Threads and queue must be positive");
+        if(logRounds < 4 || logRounds > 31)
+            throw new IllegalArgumentException("bcrypt takes 4 to 31 rounds: " + logRounds);
+        this.logRounds = logRounds;
+        AtomicInteger created = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), task -> {
+                    Thread thread = new Thread(task, "password-hasher-" + created.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Times bcrypt on this machine and picks the cost factor nearest the target
+     *
+     * @return rounds between {@link #MIN_CALIBRATED_ROUNDS} and {@link #MAX_CALIBRATED_ROUNDS}
+     */
+    public static int calibrate(long targetMillis) {
+        String salt = BCrypt.gensalt(PROBE_ROUNDS);
+        BCrypt.hashpw("warm up", salt);
+        long[] samples = new long[3];
+        for(int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double probeMillis = samples[1] / 1e6;
+        // Every extra round doubles the work
+        long rounds = PROBE_ROUNDS + Math.round(Math.log(targetMillis / probeMillis) / Math.log(2));
+        return (int) Math.max(MIN_CALIBRATED_ROUNDS, Math.min(MAX_CALIBRATED_ROUNDS, rounds));
+    }
+
+    /**
+     * @return the bcrypt hash of the password, salted and at this hasher's cost
+     * @throws ServiceUnavailableException if too many hashes are already waiting
+     */
+    public String hash(String password) throws ServiceUnavailableException {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(logRounds)));
+    }
+
+    /**
+     * @return true if the password matches the hash, at whatever cost the hash was made
+     * @throws ServiceUnavailableException if too many hashes are already waiting
+     */
+    public boolean verify(String password, String hash) throws ServiceUnavailableException {
+        return run(() -> BCrypt.checkpw(password, hash));
+    }
+
+    private <T> T run(Callable<T> work) throws ServiceUnavailableException {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                queueNanos.add(start - submitted);
+                try {
+                    return work.call();
+                }
+                finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashes.increment();
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulate(elapsed);
+                }
+            });
+        }
+        catch (RejectedExecutionException full) {
+            shed.increment();
+            throw new ServiceUnavailableException("Error: too many logins at once, try again later");
+        }
+        try {
+            return future.get();
+        }
+        catch (CancellationException closed) {
+            throw new ServiceUnavailableException("Error: the server is shutting down");
+        }
+        catch (InterruptedException interrupted) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Error: interrupted while hashing");
+        }
+        catch (ExecutionException failed) {
+            // bcrypt only throws for malformed input, such as a stored hash that is not one
+            throw new IllegalArgumentException(failed.getCause());
+        }
+    }
+
+    public int getLogRounds() {
+        return logRounds;
+    }
+
+    /**
+     * @return hashes and checks computed
+     */
+    public long getHashes() {
+        return hashes.sum();
+    }
+
+    /**
+     * @return mean time one hash or check took to compute, or 0 before any
+     */
+    public double getAverageHashMillis() {
+        long count = hashes.sum();
+        return (count == 0) ? 0 : hashNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxHashMillis() {
+        return maxHashNanos.get() / 1e6;
+    }
+
+    /**
+     * @return mean time a hash waited for a thread, or 0 before any
+     */
+    public double getAverageQueueMillis() {
+        long count = hashes.sum();
+        return (count == 0) ? 0 : queueNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * @return hashes waiting for a thread right now
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return hashes refused because the queue was full
+     */
+    public long getShed() {
+        return shed.sum();
+    }
+
+    /**
+     * Stops the threads. Hashes still waiting for one are abandoned, and their callers
+     * get {@link ServiceUnavailableException}.
+     */
+    @Override
+    public void close() {
+        for(Runnable queued : executor.shutdownNow())
+            ((Future<?>) queued).cancel(false);
+    }
+}
@@ -0,0 +1,12 @@
+package service;
+
+/**
+ * Indicates the server has more of some kind of work queued than it can get through in
+ * reasonable time, and refused a request rather than make it wait
+ */
+public class ServiceUnavailableException extends Exception {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package service;
+
+/**
+ * Indicates a request carried no valid auth token, or wrong credentials
+ */
+public class UnauthorizedException extends Exception {
+
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
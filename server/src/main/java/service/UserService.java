@@ -0,0 +1,86 @@
+package service;
+
+import dataaccess.AuthDAO;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.UserDAO;
+import model.AuthData;
+import model.LoginRequest;
+import model.UserData;
+
+import java.util.UUID;
+
+/**
+ * Registers users, logs them in and out, and resolves the auth tokens every other
+ * request carries
+ */
+public class UserService {
+    private final UserDAO users;
+    private final AuthDAO auths;
+    private final PasswordHasher hasher;
+
+    /**
+     * @param hasher computes every password hash off the calling thread
+     */
+    public UserService(DataAccess dataAccess, PasswordHasher hasher) {
+        users = dataAccess.users();
+        auths = dataAccess.auths();
+        this.hasher = hasher;
+    }
+
+    /**
+     * Creates the user and logs them in
+     *
+     * @return a fresh auth token for the new user
+     */
+    public AuthData register(UserData request)
+            throws BadRequestException, AlreadyTakenException, ServiceUnavailableException, DataAccessException {
+        if(request == null || isBlank(request.username()) || isBlank(request.password()) || isBlank(request.email()))
+            throw new BadRequestException("Error: bad request");
+        if(users.getUser(request.username()) != null) // spares the hash; createUser still decides races
+            throw new AlreadyTakenException("Error: already taken");
+        String hash = hasher.hash(request.password());
+        if(!users.createUser(new UserData(request.username(), hash, request.email())))
+            throw new AlreadyTakenException("Error: already taken");
+        return issueToken(request.username());
+    }
+
+    /**
+     * @return a fresh auth token for the user
+     */
+    public AuthData login(LoginRequest request)
+            throws BadRequestException, UnauthorizedException, ServiceUnavailableException, DataAccessException {
+        if(request == null || isBlank(request.username()) || isBlank(request.password()))
+            throw new BadRequestException("Error: bad request");
+        UserData user = users.getUser(request.username());
+        if(user == null || !hasher.verify(request.password(), user.password()))
+            throw new UnauthorizedException("Error: unauthorized");
+        return issueToken(user.username());
+    }
+
+    public void logout(String authToken) throws UnauthorizedException, DataAccessException {
+        if(authToken == null || !auths.deleteAuth(authToken))
+            throw new UnauthorizedException("Error: unauthorized");
+    }
+
+    /**
+     * @return the token and the user it belongs to
+     * @throws UnauthorizedException if the token is missing, unknown or logged out
+     */
+    public AuthData authenticate(String authToken) throws UnauthorizedException, DataAccessException {
+        AuthData auth = (authToken == null) ? null : auths.getAuth(authToken);
+        if(auth == null)
+            throw new UnauthorizedException("Error: unauthorized");
+        return auth;
+    }
+
+    private AuthData issueToken(String username) throws DataAccessException {
+        AuthData auth = new AuthData(UUID.randomUUID().toString(), username);
+        auths.createAuth(auth);
+        return auth;
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
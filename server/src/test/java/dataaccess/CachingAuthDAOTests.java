@@ -0,0 +1,111 @@
+package dataaccess;
+
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.PasswordHasher;
+import service.UnauthorizedException;
+import service.UserService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CachingAuthDAOTests {
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    @DisplayName("Logout Takes Effect Immediately")
+    public void logoutImmediately() throws Exception {
+        DataAccess dataAccess = DataAccess.memory().withAuthCache(1000, HOUR, HOUR);
+        UserService users = new UserService(dataAccess, new PasswordHasher(1, 16, 4));
+        AuthData auth = users.register(new UserData("alice", "password", "alice@mail"));
+        for(int i = 0; i < 3; i++)
+            Assertions.assertEquals("alice", users.authenticate(auth.authToken()).username());
+
+        users.logout(auth.authToken());
+        Assertions.assertThrows(UnauthorizedException.class, () -> users.authenticate(auth.authToken()));
+        Assertions.assertEquals(3, ((CachingAuthDAO) dataAccess.auths()).getHits());
+    }
+
+    @Test
+    @DisplayName("Lookup Racing Logout Cannot Revive Token")
+    public void lookupRacingLogout() throws Exception {
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        MemoryAuthDAO slow = new MemoryAuthDAO() {
+            @Override
+            public AuthData getAuth(String authToken) {
+                AuthData auth = super.getAuth(authToken);
+                read.countDown();
+                try {
+                    deleted.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return auth;
+            }
+        };
+        slow.createAuth(new AuthData("token", "alice")); // behind the cache's back, so the lookup misses
+        CachingAuthDAO cache = new CachingAuthDAO(slow, 1000, HOUR, HOUR);
+
+        CompletableFuture<AuthData> lookup = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cache.getAuth("token");
+            }
+            catch (DataAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Assertions.assertTrue(read.await(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(cache.deleteAuth("token"));
+        deleted.countDown();
+        Assertions.assertEquals("alice", lookup.get(10, TimeUnit.SECONDS).username(), "it read before the delete");
+        Assertions.assertNull(cache.getAuth("token"));
+    }
+
+    @Test
+    @DisplayName("Invalid Tokens Cached Until Negative TTL")
+    public void negativeCaching() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        MemoryAuthDAO counting = new MemoryAuthDAO() {
+            @Override
+            public AuthData getAuth(String authToken) {
+                lookups.incrementAndGet();
+                return super.getAuth(authToken);
+            }
+        };
+        AtomicLong now = new AtomicLong();
+        CachingAuthDAO cache = new CachingAuthDAO(counting, 1000, HOUR, 1000, now::get);
+        for(int i = 0; i < 5; i++)
+            Assertions.assertNull(cache.getAuth("bogus"));
+        Assertions.assertEquals(1, lookups.get());
+        Assertions.assertEquals(4, cache.getNegativeHits());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assertions.assertNull(cache.getAuth("bogus"));
+        Assertions.assertEquals(2, lookups.get());
+        Assertions.assertEquals(4.0 / 6, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Stays Within Size And Keeps Busy Tokens")
+    public void sizeBound() throws Exception {
+        CachingAuthDAO cache = new CachingAuthDAO(new MemoryAuthDAO(), 8, HOUR, HOUR);
+        cache.createAuth(new AuthData("busy", "alice"));
+        for(int i = 0; i < 100; i++) {
+            cache.createAuth(new AuthData("token" + i, "user" + i));
+            cache.getAuth("busy");
+        }
+        Assertions.assertTrue(cache.size() <= 8);
+        Assertions.assertEquals(100 - 7, cache.getEvictions());
+        long misses = cache.getMisses();
+        Assertions.assertEquals("alice", cache.getAuth("busy").username());
+        Assertions.assertEquals(misses, cache.getMisses(), "the busy token survived every sweep");
+    }
+}
@@ -0,0 +1,157 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPoolTests {
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("Closing Returns Connection For Reuse")
+    public void reuse() throws Exception {
+        ConnectionPool pool = pool(new ConnectionPool.Settings(0, 4, 100, 60_000, 60_000, false));
+        Connection first = pool.getConnection();
+        first.setAutoCommit(false);
+        first.close();
+        first.close();
+        Assertions.assertTrue(first.isClosed());
+        Assertions.assertThrows(SQLException.class, () -> first.setAutoCommit(true));
+
+        try(Connection second = pool.getConnection()) {
+            Assertions.assertTrue(second.getAutoCommit(), "the abandoned transaction was rolled back");
+        }
+        Assertions.assertEquals(1, pool.getCreated());
+        Assertions.assertEquals(1, opened.get(0).rollbacks);
+        Assertions.assertFalse(opened.get(0).closed);
+        Assertions.assertEquals(2, pool.getBorrows());
+        Assertions.assertEquals(1, pool.getIdle());
+    }
+
+    @Test
+    @DisplayName("Full Pool Makes Borrowers Wait Then Time Out")
+    public void waitAndTimeout() throws Exception {
+        ConnectionPool pool = new ConnectionPool(this::connect, new ConnectionPool.Settings(0, 1, 200, 60_000, 60_000, false));
+        Connection held = pool.getConnection();
+        Assertions.assertThrows(DataAccessException.class, pool::getConnection);
+        Assertions.assertEquals(1, pool.getTimeouts());
+        Assertions.assertTrue(pool.getMaxWaitMillis() >= 150, "waited about the borrow timeout");
+
+        Thread returner = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+                held.close();
+            }
+            catch (InterruptedException | SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        returner.start();
+        try(Connection next = pool.getConnection()) {
+            Assertions.assertFalse(next.isClosed());
+        }
+        Assertions.assertEquals(2, pool.getWaits());
+        Assertions.assertEquals(1, pool.getTimeouts());
+        Assertions.assertEquals(1, pool.getCreated());
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Stale Connections Are Validated And Replaced")
+    public void validation() throws Exception {
+        ConnectionPool pool = pool(new ConnectionPool.Settings(0, 4, 100, 60_000, 60_000, false));
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        pool.getConnection().close();
+        Assertions.assertEquals(2, pool.getCreated());
+        Assertions.assertTrue(opened.get(0).closed);
+        Assertions.assertEquals(1, pool.getDestroyed());
+    }
+
+    @Test
+    @DisplayName("Housekeeping Evicts Idle, Keeps Minimum And Reports Leaks")
+    public void housekeeping() throws Exception {
+        ConnectionPool pool = pool(new ConnectionPool.Settings(1, 4, 100, 1_000, 5_000, false));
+        pool.housekeep();
+        Assertions.assertEquals(1, pool.getIdle(), "topped up to the minimum");
+
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        Connection c = pool.getConnection();
+        a.close();
+        b.close();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        pool.housekeep();
+        Assertions.assertEquals(1, pool.getIdle(), "idle connections past the timeout closed down to the minimum");
+        Assertions.assertEquals(0, pool.getLeaks());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        pool.housekeep();
+        pool.housekeep();
+        Assertions.assertEquals(1, pool.getLeaks(), "the held connection is reported once");
+        c.close();
+        Assertions.assertEquals(0, pool.getActive());
+    }
+
+    @Test
+    @DisplayName("Leaks Are Reported With Or Without Borrow Traces")
+    public void leakTraces() throws Exception {
+        for(boolean traces : new boolean[] {false, true}) {
+            ConnectionPool pool = pool(new ConnectionPool.Settings(0, 4, 100, 60_000, 5_000, traces));
+            Connection held = pool.getConnection();
+            now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+            pool.housekeep();
+            Assertions.assertEquals(1, pool.getLeaks(), "reported with leakStackTraces " + traces);
+            held.close();
+            pool.close();
+        }
+    }
+
+    private ConnectionPool pool(ConnectionPool.Settings settings) {
+        return new ConnectionPool(this::connect, settings, now::get, false);
+    }
+
+    private Connection connect() {
+        FakeConnection fake = new FakeConnection();
+        opened.add(fake);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isValid" -> fake.valid;
+                    case "isClosed" -> fake.closed;
+                    case "close" -> {
+                        fake.closed = true;
+                        yield null;
+                    }
+                    case "getAutoCommit" -> fake.autoCommit;
+                    case "setAutoCommit" -> {
+                        fake.autoCommit = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "rollback" -> {
+                        fake.rollbacks++;
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * The state of a physical connection the pool cannot tell from a real one
+     */
+    private static class FakeConnection {
+        volatile boolean valid = true;
+        volatile boolean closed;
+        volatile boolean autoCommit = true;
+        volatile int rollbacks;
+    }
+}
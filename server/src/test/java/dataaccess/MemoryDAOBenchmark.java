@@ -0,0 +1,139 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operations per second for the memory DAOs under 64 and more threads, against the same
+ * DAOs behind one global lock. The mix approximates the server's traffic: mostly token
+ * and game lookups, some logins and moves, and a few registrations, game creations and
+ * seat changes spread over a small number of hot games.
+ * <p>
+ * Arguments: seconds per run, then thread counts (default 64 128 256).
+ */
+public class MemoryDAOBenchmark {
+    private static final int HOT_GAMES = 256;
+    private static final int TOKENS = 4096;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+        int[] threadCounts = {64, 128, 256};
+        if(args.length > 1) {
+            threadCounts = new int[args.length - 1];
+            for(int i = 1; i < args.length; i++)
+                threadCounts[i - 1] = Integer.parseInt(args[i]);
+        }
+        for(int threads : threadCounts) {
+            run("global lock", globalLock(DataAccess.memory()), threads, 1);
+            run("striped", DataAccess.memory(), threads, 1);
+            double locked = run("global lock", globalLock(DataAccess.memory()), threads, seconds);
+            double striped = run("striped", DataAccess.memory(), threads, seconds);
+            System.out.printf("%4d threads   global lock %,12.0f ops/s   striped %,12.0f ops/s   x%.1f%n",
+                    threads, locked, striped, striped / locked);
+        }
+    }
+
+    private static double run(String name, DataAccess dataAccess, int threads, int seconds) throws Exception {
+        for(int i = 0; i < HOT_GAMES; i++)
+            dataAccess.games().createGame("hot" + i);
+        for(int i = 0; i < TOKENS; i++)
+            dataAccess.auths().createAuth(new AuthData("token" + i, "user" + i));
+
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        Thread[] workers = new Thread[threads];
+        for(int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(id);
+                long done = 0;
+                try {
+                    start.await();
+                    while((done & 255) != 0 || System.nanoTime() < deadline[0]) {
+                        operate(dataAccess, random, id, done);
+                        done++;
+                    }
+                }
+                catch (Exception failed) {
+                    throw new IllegalStateException(name + " failed", failed);
+                }
+                operations.add(done);
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + seconds * 1_000_000_000L;
+        start.countDown();
+        for(Thread worker : workers)
+            worker.join();
+        return operations.sum() * 1e9 / (System.nanoTime() - begin);
+    }
+
+    private static void operate(DataAccess dataAccess, SplittableRandom random, int thread, long step)
+            throws DataAccessException {
+        int roll = random.nextInt(100);
+        int gameID = 1 + random.nextInt(HOT_GAMES);
+        if(roll < 50) {
+            dataAccess.auths().getAuth("token" + random.nextInt(TOKENS));
+        }
+        else if(roll < 70) {
+            dataAccess.games().getGame(gameID);
+        }
+        else if(roll < 78) {
+            dataAccess.users().getUser("user" + random.nextInt(TOKENS));
+        }
+        else if(roll < 84) {
+            GameData game = dataAccess.games().getGame(gameID);
+            dataAccess.games().updateGameState(gameID, game.game());
+        }
+        else if(roll < 88) {
+            dataAccess.users().createUser(new UserData("user" + thread + "-" + step, "hash", "mail"));
+        }
+        else if(roll < 92) {
+            dataAccess.auths().createAuth(new AuthData("fresh" + thread + "-" + step, "user"));
+        }
+        else if(roll < 93) {
+            dataAccess.games().createGame("game" + thread + "-" + step);
+        }
+        else {
+            ChessGame.TeamColor color = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            String username = "user" + thread;
+            if(!dataAccess.games().claimSeat(gameID, color, username))
+                dataAccess.games().releaseSeat(gameID, color, username);
+        }
+    }
+
+    /**
+     * The same stores with every call serialized on one monitor, the way a single
+     * synchronized DAO behaves
+     */
+    private static DataAccess globalLock(DataAccess inner) {
+        Object lock = new Object();
+        return new DataAccess(serialized(UserDAO.class, inner.users(), lock),
+                serialized(AuthDAO.class, inner.auths(), lock), serialized(GameDAO.class, inner.games(), lock));
+    }
+
+    private static <T> T serialized(Class<T> type, T target, Object lock) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            synchronized(lock) {
+                try {
+                    return method.invoke(target, args);
+                }
+                catch (InvocationTargetException thrown) {
+                    throw thrown.getCause();
+                }
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+}
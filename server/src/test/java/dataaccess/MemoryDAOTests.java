@@ -0,0 +1,135 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MemoryDAOTests {
+    private static final int THREADS = 64;
+
+    @Test
+    @DisplayName("Concurrent Registrations Have One Winner")
+    public void registerOnce() throws Exception {
+        MemoryUserDAO users = new MemoryUserDAO();
+        List<Boolean> results = race(i -> users.createUser(new UserData("alice", "hash" + i, "alice@mail")));
+        Assertions.assertEquals(1, results.stream().filter(created -> created).count());
+        int winner = results.indexOf(true);
+        Assertions.assertEquals("hash" + winner, users.getUser("alice").password());
+    }
+
+    @Test
+    @DisplayName("Concurrent Joins Seat One Player")
+    public void joinOnce() throws Exception {
+        MemoryGameDAO games = new MemoryGameDAO();
+        int gameID = games.createGame("contested");
+        List<Boolean> results = race(i -> games.claimSeat(gameID, ChessGame.TeamColor.WHITE, "player" + i));
+        Assertions.assertEquals(1, results.stream().filter(seated -> seated).count());
+        Assertions.assertEquals("player" + results.indexOf(true), games.getGame(gameID).whiteUsername());
+        Assertions.assertNull(games.getGame(gameID).blackUsername());
+    }
+
+    @Test
+    @DisplayName("Concurrent Moves Play One")
+    public void moveOnce() throws Exception {
+        MemoryGameDAO games = new MemoryGameDAO();
+        int gameID = games.createGame("contested");
+        GameData read = games.getGame(gameID);
+        List<ChessMove> openings = new ArrayList<>(read.game().legalMoves());
+        List<Boolean> results = race(i -> {
+            try {
+                games.changeGameState(gameID, data -> {
+                    if(data.game().getTeamTurn() != ChessGame.TeamColor.WHITE)
+                        throw new InvalidMoveException("not white's turn");
+                    data.game().makeMove(openings.get(i % openings.size()));
+                });
+                return true;
+            }
+            catch (InvalidMoveException lost) {
+                return false;
+            }
+        });
+        Assertions.assertEquals(1, results.stream().filter(played -> played).count());
+
+        ChessGame expected = new ChessGame();
+        expected.makeMove(openings.get(results.indexOf(true) % openings.size()));
+        Assertions.assertEquals(expected, games.getGame(gameID).game());
+        Assertions.assertEquals(new ChessGame(), read.game(), "the state read before the moves was never changed");
+        Assertions.assertNull(games.changeGameState(gameID + 1, data -> {}));
+    }
+
+    @Test
+    @DisplayName("Saving State Keeps Later Joins")
+    public void stateKeepsSeats() throws Exception {
+        MemoryGameDAO games = new MemoryGameDAO();
+        int gameID = games.createGame("game");
+        GameData read = games.getGame(gameID);
+        Assertions.assertTrue(games.claimSeat(gameID, ChessGame.TeamColor.BLACK, "bob"));
+        read.game().setGameOver(true);
+        games.updateGameState(gameID, read.game());
+
+        GameData stored = games.getGame(gameID);
+        Assertions.assertEquals("bob", stored.blackUsername());
+        Assertions.assertTrue(stored.game().isGameOver());
+        Assertions.assertFalse(games.releaseSeat(gameID, ChessGame.TeamColor.BLACK, "mallory"));
+        Assertions.assertTrue(games.releaseSeat(gameID, ChessGame.TeamColor.BLACK, "bob"));
+        Assertions.assertThrows(DataAccessException.class, () -> games.claimSeat(gameID + 1, ChessGame.TeamColor.WHITE, "bob"));
+    }
+
+    @Test
+    @DisplayName("Imported Games Keep Their IDs")
+    public void importGames() throws Exception {
+        MemoryGameDAO games = new MemoryGameDAO();
+        games.importGames(List.of(new GameData(7, "alice", null, "seven", new ChessGame()),
+                new GameData(3, null, "bob", "three", new ChessGame())));
+        Assertions.assertEquals("alice", games.getGame(7).whiteUsername());
+        Assertions.assertEquals(8, games.createGame("next"), "new games are numbered above the imported ones");
+        Assertions.assertThrows(DataAccessException.class,
+                () -> games.importGames(List.of(new GameData(3, null, null, "again", new ChessGame()))));
+    }
+
+    /**
+     * Runs the attempt once on each of THREADS threads, all released at the same moment
+     *
+     * @return each attempt's result, by thread index
+     */
+    private static List<Boolean> race(Attempt attempt) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for(int i = 0; i < THREADS; i++) {
+                int index = i;
+                Callable<Boolean> task = () -> {
+                    start.await();
+                    return attempt.run(index);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for(Future<Boolean> future : futures)
+                results.add(future.get());
+            return results;
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface Attempt {
+        boolean run(int index) throws Exception;
+    }
+}
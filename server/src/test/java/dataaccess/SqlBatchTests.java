@@ -0,0 +1,150 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class SqlBatchTests {
+    private final List<String> prepared = new ArrayList<>();
+    private int parameters;
+    private int rowsQueued;
+    private int batches;
+    private int updates;
+    private int commits;
+    private int rollbacks;
+    private boolean autoCommit = true;
+    private boolean failBatches;
+
+    @Test
+    @DisplayName("Multi-Row Insert Prepares Each Chunk Size Once")
+    public void insert() throws Exception {
+        List<Integer> rows = IntStream.range(0, 1050).boxed().toList();
+        ConnectionPool pool = new ConnectionPool(this::connect, new ConnectionPool.Settings(0, 1, 100, 60_000, 60_000, false),
+                System::nanoTime, false);
+        for(int run = 0; run < 2; run++) {
+            try(Connection conn = pool.getConnection()) {
+                long inserted = SqlBatch.insert(conn, "game", List.of("gameID", "gameName"), rows,
+                        (statement, index, row) -> {
+                            statement.setInt(index, row);
+                            statement.setString(index + 1, "game" + row);
+                        }, 500);
+                Assertions.assertEquals(1050, inserted);
+            }
+        }
+        Assertions.assertEquals(6, updates, "three statements per import instead of 1050");
+        Assertions.assertEquals(2 * 1050 * 2, parameters);
+        Assertions.assertEquals(2, commits);
+        Assertions.assertEquals(2, prepared.size(), "the 500-row and 50-row statements, prepared once each");
+        Assertions.assertTrue(prepared.get(0).startsWith("INSERT INTO game (gameID, gameName) VALUES (?, ?), (?, ?)"));
+        Assertions.assertEquals(4, pool.getStatementHits());
+        Assertions.assertEquals(2, pool.getStatementMisses());
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Batched Update Sends Batch Size Rows Per Round Trip")
+    public void update() throws Exception {
+        List<Integer> rows = IntStream.range(0, 250).boxed().toList();
+        try(Connection conn = connect()) {
+            SqlBatch.update(conn, "DELETE FROM auth WHERE authToken = ?", rows,
+                    (statement, index, row) -> statement.setString(index, "token" + row), 100);
+        }
+        Assertions.assertEquals(250, rowsQueued);
+        Assertions.assertEquals(3, batches);
+        Assertions.assertEquals(1, commits);
+        Assertions.assertTrue(autoCommit);
+    }
+
+    @Test
+    @DisplayName("Failed Batch Rolls Back Every Row")
+    public void rollback() throws Exception {
+        failBatches = true;
+        try(Connection conn = connect()) {
+            Assertions.assertThrows(SQLException.class, () -> SqlBatch.update(conn,
+                    "DELETE FROM auth WHERE authToken = ?", List.of(1, 2, 3),
+                    (statement, index, row) -> statement.setString(index, "token" + row), 2));
+        }
+        Assertions.assertEquals(0, commits);
+        Assertions.assertEquals(1, rollbacks);
+        Assertions.assertTrue(autoCommit, "autocommit restored for the next borrower");
+    }
+
+    private Connection connect() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "prepareStatement" -> {
+                        prepared.add((String) args[0]);
+                        yield statement();
+                    }
+                    case "getAutoCommit" -> autoCommit;
+                    case "setAutoCommit" -> {
+                        autoCommit = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "commit" -> {
+                        commits++;
+                        yield null;
+                    }
+                    case "rollback" -> {
+                        rollbacks++;
+                        yield null;
+                    }
+                    case "isValid" -> true;
+                    case "isClosed" -> false;
+                    case "close" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private PreparedStatement statement() {
+        int[] queued = new int[1];
+        int[] rows = new int[1];
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "setInt" -> {
+                        parameters++;
+                        rows[0]++; // every row in the insert test starts with its ID
+                        yield null;
+                    }
+                    case "setString" -> {
+                        parameters++;
+                        yield null;
+                    }
+                    case "addBatch" -> {
+                        rowsQueued++;
+                        queued[0]++;
+                        yield null;
+                    }
+                    case "executeBatch" -> {
+                        if(failBatches)
+                            throw new SQLException("Duplicate entry");
+                        batches++;
+                        int[] counts = new int[queued[0]];
+                        queued[0] = 0;
+                        Arrays.fill(counts, 1);
+                        yield counts;
+                    }
+                    case "executeUpdate" -> {
+                        updates++;
+                        int inserted = rows[0];
+                        rows[0] = 0;
+                        yield inserted;
+                    }
+                    case "isClosed" -> false;
+                    case "close", "clearParameters", "clearBatch" -> {
+                        rows[0] = 0;
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,75 @@
+package dataaccess;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import model.GameData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time to insert many games into the MySQL database from db.properties: one INSERT per
+ * row in its own transaction, the rows sent with addBatch/executeBatch, and
+ * {@link GameDAO#importGames}, which packs hundreds of rows into each INSERT. Each run
+ * starts from an empty game table.
+ * <p>
+ * Arguments: games to insert (default 100000), then the batch size (default 1000).
+ */
+public class SqlInsertBenchmark {
+    private static final Gson GSON = new Gson();
+    private static final String INSERT =
+            "INSERT INTO game (gameID, whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?, ?)";
+
+    public static void main(String[] args) throws Exception {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        int batchSize = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+        GameDAO games = DataAccess.mysql().games();
+        String state = GSON.toJson(new ChessGame());
+        List<GameData> rows = new ArrayList<>(count);
+        for(int i = 1; i <= count; i++)
+            rows.add(new GameData(i, "white" + i, null, "game" + i, null));
+
+        time("row by row", games, count, () -> {
+            try(Connection conn = DatabaseManager.getConnection()) {
+                for(GameData row : rows) {
+                    try(PreparedStatement statement = conn.prepareStatement(INSERT)) {
+                        bind(statement, 1, row, state);
+                        statement.executeUpdate();
+                    }
+                }
+            }
+        });
+        time("executeBatch (" + batchSize + ")", games, count, () -> {
+            try(Connection conn = DatabaseManager.getConnection()) {
+                SqlBatch.update(conn, INSERT, rows, (statement, index, row) -> bind(statement, index, row, state), batchSize);
+            }
+        });
+        time("multi-row importGames", games, count, () -> games.importGames(rows));
+
+        ConnectionPool pool = DatabaseManager.pool();
+        System.out.printf("statement cache: %,d hits, %,d misses%n", pool.getStatementHits(), pool.getStatementMisses());
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    private static void time(String name, GameDAO games, int count, Work work) throws Exception {
+        games.clear();
+        long start = System.nanoTime();
+        work.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-24s %,9d games in %6.2f s   %,10.0f rows/s%n", name, count, seconds, count / seconds);
+    }
+
+    private static void bind(PreparedStatement statement, int index, GameData game, String state) throws SQLException {
+        statement.setInt(index, game.gameID());
+        statement.setString(index + 1, game.whiteUsername());
+        statement.setString(index + 2, game.blackUsername());
+        statement.setString(index + 3, game.gameName());
+        statement.setString(index + 4, state);
+    }
+}
@@ -0,0 +1,97 @@
+package server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RateLimiterTests {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("Burst Then Refill At The Rate")
+    public void burstAndRefill() throws Exception {
+        RateLimiter limiter = new RateLimiter("client", 2, 3, 60_000, now::get);
+        for(int i = 0; i < 3; i++)
+            limiter.acquire("alice");
+        Assertions.assertEquals(500, limiter.tryAcquire("alice"), "one permit every half second");
+        RateLimitedException refused = Assertions.assertThrows(RateLimitedException.class, () -> limiter.acquire("alice"));
+        Assertions.assertEquals(1, refused.getRetryAfterSeconds());
+        Assertions.assertEquals(0, limiter.tryAcquire("bob"), "each key has its own bucket");
+
+        advance(300);
+        Assertions.assertEquals(200, limiter.tryAcquire("alice"));
+        advance(200);
+        Assertions.assertEquals(0, limiter.tryAcquire("alice"));
+        advance(60_000);
+        for(int i = 0; i < 3; i++)
+            Assertions.assertEquals(0, limiter.tryAcquire("alice"), "refilled only up to the burst");
+        Assertions.assertTrue(limiter.tryAcquire("alice") > 0);
+        Assertions.assertEquals(4, limiter.getRejected());
+    }
+
+    @Test
+    @DisplayName("Slow Rates Accrue Across Short Intervals")
+    public void slowRate() {
+        RateLimiter limiter = new RateLimiter("client", 0.5, 1, 60_000, now::get);
+        Assertions.assertEquals(0, limiter.tryAcquire("alice"));
+        for(int i = 0; i < 19; i++) {
+            advance(100);
+            Assertions.assertTrue(limiter.tryAcquire("alice") > 0);
+        }
+        advance(100);
+        Assertions.assertEquals(0, limiter.tryAcquire("alice"), "two seconds of 100 ms polls earn one permit");
+    }
+
+    @Test
+    @DisplayName("Idle Buckets Are Evicted")
+    public void eviction() {
+        RateLimiter limiter = new RateLimiter("address", 10, 10, 1_000, now::get);
+        for(int i = 0; i < 100; i++)
+            limiter.tryAcquire("10.0.0." + i);
+        Assertions.assertEquals(100, limiter.getBuckets());
+        advance(600);
+        limiter.tryAcquire("10.0.0.1");
+        advance(600);
+        limiter.tryAcquire("10.0.1.1");
+        Assertions.assertEquals(2, limiter.getBuckets(), "only the buckets used within the idle time remain");
+        Assertions.assertEquals(99, limiter.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Concurrent Requests Never Overdraw A Bucket")
+    public void concurrent() throws Exception {
+        RateLimiter limiter = new RateLimiter("client", 1, 1000, 60_000, now::get);
+        LongAdder allowed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[16];
+        for(int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                for(int i = 0; i < 500; i++) {
+                    if(limiter.tryAcquire("shared") == 0)
+                        allowed.increment();
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for(Thread thread : threads)
+            thread.join();
+        Assertions.assertEquals(1000, allowed.sum());
+        Assertions.assertEquals(16 * 500 - 1000, limiter.getRejected());
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
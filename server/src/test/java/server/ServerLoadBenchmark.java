@@ -0,0 +1,173 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import dataaccess.AuthDAO;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import dataaccess.MemoryUserDAO;
+import model.AuthData;
+import model.UserData;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency of GET /game under many concurrent clients, with virtual threads
+ * and with Jetty's default pool of platform threads. Every token lookup sleeps to stand in
+ * for a MySQL round trip, so a request spends most of its life blocked the way it would
+ * on JDBC: the platform pool runs out of threads long before the CPU runs out of work.
+ * <p>
+ * Arguments: clients, seconds per run, simulated round trip in milliseconds.
+ */
+public class ServerLoadBenchmark {
+    private static final Gson GSON = new Gson();
+
+    public static void main(String[] args) throws Exception {
+        int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 500;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+        long roundTripMillis = (args.length > 2) ? Long.parseLong(args[2]) : 50;
+
+        System.out.printf("%d clients, %d ms simulated round trip, %d s per run%n", clients, roundTripMillis, seconds);
+        for(boolean virtual : new boolean[] {false, true}) {
+            // Every client shares one token and one address, which the rate limits would otherwise throttle
+            ServerSettings.RateLimit unlimited = new ServerSettings.RateLimit(1e9, 16_000);
+            ServerSettings settings = ServerSettings.defaults().withVirtualThreads(virtual)
+                    .withConcurrency(64, clients * 2, clients * 2).withRateLimits(unlimited, unlimited);
+            run(virtual ? "virtual threads" : "platform pool (" + settings.maxThreads() + ")",
+                    settings, clients, seconds, roundTripMillis);
+        }
+    }
+
+    private static void run(String name, ServerSettings settings, int clients, int seconds, long roundTripMillis)
+            throws Exception {
+        DataAccess dataAccess = new DataAccess(new MemoryUserDAO(), new SlowAuthDAO(roundTripMillis), new MemoryGameDAO());
+        Server server = new Server(dataAccess, settings);
+        int port = server.run(0);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try {
+            String token = register(client, port);
+            dataAccess.games().createGame("benchmark");
+            HttpRequest list = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/game"))
+                    .header("authorization", token).GET().build();
+
+            load(client, list, clients, 2); // warm up the JIT and open every connection
+            Result result = load(client, list, clients, seconds);
+            System.out.printf("%-22s %,9.0f req/s   p50 %6.1f ms   p99 %7.1f ms   errors %d%n", name,
+                    result.requests() / (double) seconds, result.percentile(0.50), result.percentile(0.99), result.errors());
+        }
+        finally {
+            client.close();
+            server.stop();
+        }
+    }
+
+    private static Result load(HttpClient client, HttpRequest request, int clients, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(int c = 0; c < clients; c++) {
+                int id = c;
+                executor.execute(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while(System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            if(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200)
+                                errors.incrementAndGet();
+                        }
+                        catch (Exception failed) {
+                            errors.incrementAndGet();
+                        }
+                        if(count == samples.length)
+                            samples = Arrays.copyOf(samples, count * 2);
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    latencies[id] = samples;
+                    counts[id] = count;
+                });
+            }
+        }
+        int total = 0;
+        for(int count : counts)
+            total += count;
+        long[] all = new long[total];
+        int at = 0;
+        for(int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, at, counts[c]);
+            at += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.get());
+    }
+
+    private static String register(HttpClient client, int port) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/user"))
+                .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(new UserData("load", "password", "load@mail"))))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        return GSON.fromJson(body, JsonObject.class).get("authToken").getAsString();
+    }
+
+    private record Result(long[] sortedNanos, long errors) {
+        long requests() {
+            return sortedNanos.length;
+        }
+
+        double percentile(double fraction) {
+            if(sortedNanos.length == 0)
+                return Double.NaN;
+            return sortedNanos[(int) Math.min(sortedNanos.length - 1, sortedNanos.length * fraction)] / 1e6;
+        }
+    }
+
+    /**
+     * Sleeps on every token lookup like a query to a remote database would block
+     */
+    private static class SlowAuthDAO implements AuthDAO {
+        private final MemoryAuthDAO delegate = new MemoryAuthDAO();
+        private final long roundTripMillis;
+
+        SlowAuthDAO(long roundTripMillis) {
+            this.roundTripMillis = roundTripMillis;
+        }
+
+        @Override
+        public void createAuth(AuthData auth) {
+            delegate.createAuth(auth);
+        }
+
+        @Override
+        public AuthData getAuth(String authToken) throws DataAccessException {
+            try {
+                Thread.sleep(roundTripMillis);
+            }
+            catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessException("Interrupted", interrupted);
+            }
+            return delegate.getAuth(authToken);
+        }
+
+        @Override
+        public boolean deleteAuth(String authToken) {
+            return delegate.deleteAuth(authToken);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+    }
+}
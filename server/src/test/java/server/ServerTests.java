@@ -0,0 +1,456 @@
+package server;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import dataaccess.AuthDAO;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import dataaccess.MemoryUserDAO;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.commands.AnalyzeCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+public class ServerTests {
+    private static final Gson GSON = new Gson();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Server server;
+    private int port;
+
+    @AfterEach
+    public void tearDown() {
+        if(server != null)
+            server.stop();
+    }
+
+    @Test
+    @DisplayName("Register, Create, Join And List")
+    public void gameLifecycle() throws Exception {
+        start(DataAccess.memory(), ServerSettings.defaults());
+        String token = register("alice");
+        JsonObject created = send("POST", "/game", token, "{\"gameName\":\"first\"}", 200);
+        int gameID = created.get("gameID").getAsInt();
+        send("PUT", "/game", token, "{\"playerColor\":\"WHITE\",\"gameID\":" + gameID + "}", 200);
+        send("PUT", "/game", register("bob"), "{\"playerColor\":\"WHITE\",\"gameID\":" + gameID + "}", 403);
+
+        JsonObject listed = send("GET", "/game", token, null, 200).getAsJsonArray("games").get(0).getAsJsonObject();
+        Assertions.assertEquals(gameID, listed.get("gameID").getAsInt());
+        Assertions.assertEquals("alice", listed.get("whiteUsername").getAsString());
+        Assertions.assertFalse(listed.has("game"), "lists carry no board");
+        send("GET", "/game", "not a token", null, 401);
+    }
+
+    @Test
+    @DisplayName("Game List Pages Follow The Cursor")
+    public void listPages() throws Exception {
+        start(DataAccess.memory(), ServerSettings.defaults());
+        String token = register("alice");
+        for(int i = 0; i < 5; i++)
+            send("POST", "/game", token, "{\"gameName\":\"game" + i + "\"}", 200);
+
+        JsonObject first = send("GET", "/game?limit=2", token, null, 200);
+        Assertions.assertEquals(2, first.getAsJsonArray("games").size());
+        int after = first.get("next").getAsInt();
+        JsonObject second = send("GET", "/game?limit=2&after=" + after, token, null, 200);
+        Assertions.assertEquals(after + 1, second.getAsJsonArray("games").get(0).getAsJsonObject().get("gameID").getAsInt());
+        JsonObject last = send("GET", "/game?limit=2&after=" + second.get("next").getAsInt(), token, null, 200);
+        Assertions.assertEquals(1, last.getAsJsonArray("games").size());
+        Assertions.assertFalse(last.has("next"), "no cursor past the last game");
+
+        JsonObject all = send("GET", "/game", token, null, 200);
+        Assertions.assertEquals(5, all.getAsJsonArray("games").size());
+        Assertions.assertFalse(all.has("next"));
+        send("GET", "/game?limit=0", token, null, 400);
+        send("GET", "/game?after=first", token, null, 400);
+    }
+
+    @Test
+    @DisplayName("Unchanged Polls Answer 304 Without Reading Games")
+    public void etags() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        MemoryGameDAO games = new MemoryGameDAO() {
+            @Override
+            public GameData getGame(int gameID) {
+                reads.incrementAndGet();
+                return super.getGame(gameID);
+            }
+
+            @Override
+            public void forEachGame(int afterID, int limit, Consumer<GameData> action) {
+                reads.incrementAndGet();
+                super.forEachGame(afterID, limit, action);
+            }
+        };
+        start(new DataAccess(new MemoryUserDAO(), new MemoryAuthDAO(), games), ServerSettings.defaults());
+        String token = register("alice");
+        int gameID = send("POST", "/game", token, "{\"gameName\":\"polled\"}", 200).get("gameID").getAsInt();
+        String listTag = poll("/game", token, null, 200);
+        String gameTag = poll("/game/" + gameID, token, null, 200);
+
+        reads.set(0);
+        Assertions.assertEquals(listTag, poll("/game", token, listTag, 304));
+        Assertions.assertEquals(gameTag, poll("/game/" + gameID, token, "\"other\", " + gameTag, 304));
+        Assertions.assertEquals(0, reads.get(), "304s are answered from the versions alone");
+
+        send("PUT", "/game", token, "{\"playerColor\":\"BLACK\",\"gameID\":" + gameID + "}", 200);
+        Assertions.assertNotEquals(listTag, poll("/game", token, listTag, 200));
+        Assertions.assertNotEquals(gameTag, poll("/game/" + gameID, token, gameTag, 200));
+        poll("/game/" + (gameID + 1), token, null, 400);
+    }
+
+    @Test
+    @DisplayName("Static Files Are Precompressed Under Hashed Names")
+    public void staticFiles() throws Exception {
+        start(DataAccess.memory(), ServerSettings.defaults());
+        HttpResponse<byte[]> page = get("/", "gzip");
+        Assertions.assertEquals("gzip", page.headers().firstValue("Content-Encoding").orElse(null));
+        String html = gunzip(page.body());
+        Matcher stylesheet = Pattern.compile("href=\"(index\\.[0-9a-f]{12}\\.css)\"").matcher(html);
+        Assertions.assertTrue(stylesheet.find(), "the page links the hashed stylesheet");
+
+        HttpResponse<byte[]> css = get("/" + stylesheet.group(1), null);
+        Assertions.assertEquals(200, css.statusCode());
+        Assertions.assertTrue(css.headers().firstValue("Cache-Control").orElse("").contains("immutable"));
+        Assertions.assertTrue(css.headers().firstValue("Content-Encoding").isEmpty(), "plain for clients without gzip");
+        Assertions.assertArrayEquals(css.body(), get("/index.css", null).body());
+        Assertions.assertEquals("no-cache", get("/index.css", null).headers().firstValue("Cache-Control").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Only Large API Responses Are Gzipped")
+    public void apiCompression() throws Exception {
+        start(DataAccess.memory(), ServerSettings.defaults());
+        String token = register("alice");
+        HttpRequest small = HttpRequest.newBuilder(request("GET", "/game", token, null), (name, value) -> true)
+                .header("Accept-Encoding", "gzip").build();
+        Assertions.assertTrue(client.send(small, HttpResponse.BodyHandlers.ofByteArray()).headers()
+                .firstValue("Content-Encoding").isEmpty(), "a short list is not worth compressing");
+
+        for(int i = 0; i < 100; i++)
+            send("POST", "/game", token, "{\"gameName\":\"game number " + i + "\"}", 200);
+        HttpResponse<byte[]> large = client.send(small, HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals("gzip", large.headers().firstValue("Content-Encoding").orElse(null));
+        JsonObject games = GSON.fromJson(gunzip(large.body()), JsonObject.class);
+        Assertions.assertEquals(100, games.getAsJsonArray("games").size());
+
+        String tag = large.headers().firstValue("ETag").orElse("");
+        Assertions.assertTrue(tag.startsWith("W/"), "one tag covers both encodings, so it must be weak");
+        Assertions.assertEquals(tag, poll("/game", token, null, 200));
+        poll("/game", token, tag.substring(2), 304);
+    }
+
+    @Test
+    @DisplayName("Fast Client Is Answered 429 Over HTTP And WebSocket")
+    public void rateLimit() throws Exception {
+        ServerSettings.RateLimit perToken = new ServerSettings.RateLimit(0.1, 2);
+        start(DataAccess.memory(), ServerSettings.defaults().withRateLimits(perToken, new ServerSettings.RateLimit(1000, 1000)));
+        String token = register("alice");
+        send("GET", "/game", token, null, 200);
+        send("GET", "/game", token, null, 200);
+        HttpResponse<String> refused = client.send(request("GET", "/game", token, null), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(429, refused.statusCode());
+        Assertions.assertEquals("10", refused.headers().firstValue("Retry-After").orElse(null));
+        send("GET", "/game", register("bob"), null, 200);
+
+        BlockingQueue<JsonObject> inbox = new LinkedBlockingQueue<>();
+        WebSocket socket = connect(inbox);
+        socket.sendText(GSON.toJson(new UserGameCommand(UserGameCommand.CommandType.CONNECT, token, 1)), true);
+        JsonObject error = inbox.poll(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(error.get("errorMessage").getAsString().contains("too many requests"));
+        Assertions.assertEquals(2, server.getTokenRateLimiter().getRejected());
+        socket.abort();
+    }
+
+    @Test
+    @DisplayName("Handlers Run On Virtual Threads")
+    public void virtualThreads() throws Exception {
+        for(boolean virtual : new boolean[] {true, false}) {
+            RecordingAuthDAO auths = new RecordingAuthDAO();
+            // Uncached, so the lookup reaches the store on the handler's thread
+            start(new DataAccess(new MemoryUserDAO(), auths, new MemoryGameDAO()),
+                    ServerSettings.defaults().withVirtualThreads(virtual).withAuthCache(ServerSettings.AuthCache.OFF));
+            send("GET", "/game", register("alice"), null, 200);
+            Assertions.assertEquals(virtual, auths.lastLookupVirtual);
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Auth Checks Use The Cache")
+    public void authCache() throws Exception {
+        RecordingAuthDAO auths = new RecordingAuthDAO();
+        start(new DataAccess(new MemoryUserDAO(), auths, new MemoryGameDAO()), ServerSettings.defaults());
+        String token = register("alice");
+        send("GET", "/game", token, null, 200);
+        send("GET", "/game", token, null, 200);
+        Assertions.assertEquals(2, server.getAuthCache().getHits());
+        Assertions.assertEquals(0, server.getAuthCache().getMisses());
+
+        send("DELETE", "/session", token, null, 200);
+        send("GET", "/game", token, null, 401);
+        server.stop();
+
+        start(DataAccess.memory(), ServerSettings.defaults().withAuthCache(ServerSettings.AuthCache.OFF));
+        Assertions.assertNull(server.getAuthCache());
+    }
+
+    @Test
+    @DisplayName("Saturated Endpoint Class Answers 503")
+    public void saturated() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MemoryUserDAO blocking = new MemoryUserDAO() {
+            @Override
+            public UserData getUser(String username) {
+                if(username.equals("slow")) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getUser(username);
+            }
+        };
+        ServerSettings defaults = ServerSettings.defaults();
+        ServerSettings settings = new ServerSettings(true, ServerSettings.DEFAULT_MAX_THREADS, 1, 16, 16, 0,
+                defaults.tokenRate(), defaults.addressRate(), defaults.passwordHashing(), defaults.authCache(),
+                defaults.moveCacheBytes(), defaults.analysis());
+        start(new DataAccess(blocking, new MemoryAuthDAO(), new MemoryGameDAO()), settings);
+
+        CompletableFuture<HttpResponse<String>> slow = client.sendAsync(request("POST", "/user", null,
+                GSON.toJson(new UserData("slow", "pw", "slow@mail"))), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertTrue(entered.await(10, TimeUnit.SECONDS));
+        send("POST", "/user", null, GSON.toJson(new UserData("fast", "pw", "fast@mail")), 503);
+        Assertions.assertEquals(1, server.getAuthLimiter().getRejected());
+
+        release.countDown();
+        Assertions.assertEquals(200, slow.get(10, TimeUnit.SECONDS).statusCode());
+        send("POST", "/user", null, GSON.toJson(new UserData("fast", "pw", "fast@mail")), 200);
+    }
+
+    @Test
+    @DisplayName("Move Over WebSocket Reaches Both Players")
+    public void webSocketMove() throws Exception {
+        start(DataAccess.memory(), ServerSettings.defaults());
+        String white = register("white");
+        String black = register("black");
+        int gameID = send("POST", "/game", white, "{\"gameName\":\"ws\"}", 200).get("gameID").getAsInt();
+        send("PUT", "/game", white, "{\"playerColor\":\"WHITE\",\"gameID\":" + gameID + "}", 200);
+        send("PUT", "/game", black, "{\"playerColor\":\"BLACK\",\"gameID\":" + gameID + "}", 200);
+
+        BlockingQueue<JsonObject> whiteInbox = new LinkedBlockingQueue<>();
+        BlockingQueue<JsonObject> blackInbox = new LinkedBlockingQueue<>();
+        WebSocket whiteSocket = connect(whiteInbox);
+        WebSocket blackSocket = connect(blackInbox);
+        whiteSocket.sendText(GSON.toJson(new UserGameCommand(UserGameCommand.CommandType.CONNECT, white, gameID)), true);
+        Assertions.assertEquals("LOAD_GAME", type(whiteInbox));
+        blackSocket.sendText(GSON.toJson(new UserGameCommand(UserGameCommand.CommandType.CONNECT, black, gameID)), true);
+        Assertions.assertEquals("LOAD_GAME", type(blackInbox));
+        Assertions.assertEquals("NOTIFICATION", type(whiteInbox));
+
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        whiteSocket.sendText(GSON.toJson(new MakeMoveCommand(white, gameID, e4)), true);
+        Assertions.assertEquals("LOAD_GAME", type(whiteInbox));
+        Assertions.assertEquals("LOAD_GAME", type(blackInbox));
+        JsonObject notification = blackInbox.poll(10, TimeUnit.SECONDS);
+        Assertions.assertEquals("white played e4", notification.get("message").getAsString());
+
+        blackSocket.sendText(GSON.toJson(new MakeMoveCommand(black, gameID, e4)), true);
+        Assertions.assertEquals("ERROR", type(blackInbox));
+        ChessMove offBoard = new ChessMove(new ChessPosition(0, 0), new ChessPosition(5, 5), null);
+        blackSocket.sendText(GSON.toJson(new MakeMoveCommand(black, gameID, offBoard)), true);
+        Assertions.assertEquals("ERROR", type(blackInbox));
+        whiteSocket.abort();
+        blackSocket.abort();
+    }
+
+    @Test
+    @DisplayName("Games Share Legal Move Sets")
+    public void moveCache() throws Exception {
+        start(DataAccess.memory(), ServerSettings.defaults());
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        for(int game = 0; game < 2; game++) {
+            String white = register("white" + game);
+            int gameID = send("POST", "/game", white, "{\"gameName\":\"opening\"}", 200).get("gameID").getAsInt();
+            send("PUT", "/game", white, "{\"playerColor\":\"WHITE\",\"gameID\":" + gameID + "}", 200);
+            BlockingQueue<JsonObject> inbox = new LinkedBlockingQueue<>();
+            WebSocket socket = connect(inbox);
+            socket.sendText(GSON.toJson(new UserGameCommand(UserGameCommand.CommandType.CONNECT, white, gameID)), true);
+            Assertions.assertEquals("LOAD_GAME", type(inbox));
+            socket.sendText(GSON.toJson(new MakeMoveCommand(white, gameID, e4)), true);
+            Assertions.assertEquals("LOAD_GAME", type(inbox));
+            socket.abort();
+        }
+
+        Assertions.assertEquals(1, server.getMoveCache().getMisses());
+        Assertions.assertEquals(1, server.getMoveCache().getHits());
+        server.stop();
+
+        start(DataAccess.memory(), ServerSettings.defaults().withMoveCacheBytes(0));
+        Assertions.assertNull(server.getMoveCache());
+    }
+
+    @Test
+    @DisplayName("Analysis Over WebSocket Ends With The Session")
+    public void webSocketAnalysis() throws Exception {
+        start(DataAccess.memory(), ServerSettings.defaults()
+                .withAnalysis(new ServerSettings.AnalysisPool(1, 1, 30_000, Long.MAX_VALUE)));
+        String token = register("alice");
+        int gameID = send("POST", "/game", token, "{\"gameName\":\"hint\"}", 200).get("gameID").getAsInt();
+        BlockingQueue<JsonObject> inbox = new LinkedBlockingQueue<>();
+        WebSocket socket = connect(inbox);
+        socket.sendText(GSON.toJson(new AnalyzeCommand(token, gameID, 2, 1_000)), true);
+        JsonObject analysis = inbox.poll(10, TimeUnit.SECONDS);
+        Assertions.assertNotNull(analysis, "no analysis arrived");
+        Assertions.assertEquals("ANALYSIS", analysis.get("serverMessageType").getAsString());
+        Assertions.assertTrue(analysis.has("bestMove"));
+
+        // Unbounded depth, so only the 30 second cap or the session closing ends it
+        socket.sendText(GSON.toJson(new AnalyzeCommand(token, gameID, 0, 0)), true);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while(server.getAnalysisService().getActiveCount() == 0 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        Assertions.assertEquals(1, server.getAnalysisService().getActiveCount());
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "").join();
+        while(server.getAnalysisService().getActiveCount() > 0 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        Assertions.assertEquals(0, server.getAnalysisService().getActiveCount(), "closing the session stops its search");
+    }
+
+    private void start(DataAccess dataAccess, ServerSettings settings) {
+        // bcrypt at its cheapest, which also skips calibrating it at every start
+        settings = settings.withPasswordHashing(settings.passwordHashing().withLogRounds(4));
+        server = new Server(dataAccess, settings);
+        port = server.run(0);
+    }
+
+    private String register(String username) throws Exception {
+        UserData user = new UserData(username, "password", username + "@mail");
+        return send("POST", "/user", null, GSON.toJson(user), 200).get("authToken").getAsString();
+    }
+
+    private JsonObject send(String method, String path, String token, String body, int expectedStatus) throws Exception {
+        HttpResponse<String> response = client.send(request(method, path, token, body), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(expectedStatus, response.statusCode(), response.body());
+        return GSON.fromJson(response.body(), JsonObject.class);
+    }
+
+    /**
+     * @return the response's ETag
+     */
+    private String poll(String path, String token, String ifNoneMatch, int expectedStatus) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(request("GET", path, token, null), (name, value) -> true);
+        if(ifNoneMatch != null)
+            request.header("If-None-Match", ifNoneMatch);
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(expectedStatus, response.statusCode(), response.body());
+        return response.headers().firstValue("ETag").orElse(null);
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if(acceptEncoding != null)
+            request.header("Accept-Encoding", acceptEncoding);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try(GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private HttpRequest request(String method, String path, String token, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .method(method, (body == null) ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if(token != null)
+            request.header("authorization", token);
+        return request.build();
+    }
+
+    private WebSocket connect(BlockingQueue<JsonObject> inbox) {
+        return client.newWebSocketBuilder().buildAsync(URI.create("ws://localhost:" + port + "/ws"), new WebSocket.Listener() {
+            private final StringBuilder text = new StringBuilder();
+
+            @Override
+            public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+                text.append(data);
+                if(last) {
+                    inbox.add(GSON.fromJson(text.toString(), JsonObject.class));
+                    text.setLength(0);
+                }
+                socket.request(1);
+                return null;
+            }
+        }).join();
+    }
+
+    private static String type(BlockingQueue<JsonObject> inbox) throws InterruptedException {
+        JsonObject message = inbox.poll(10, TimeUnit.SECONDS);
+        Assertions.assertNotNull(message, "no message arrived");
+        return message.get("serverMessageType").getAsString();
+    }
+
+    /**
+     * Notes whether the token lookups that every authenticated request makes ran on a virtual thread
+     */
+    private static class RecordingAuthDAO implements AuthDAO {
+        private final MemoryAuthDAO delegate = new MemoryAuthDAO();
+        private volatile boolean lastLookupVirtual;
+
+        @Override
+        public void createAuth(AuthData auth) {
+            delegate.createAuth(auth);
+        }
+
+        @Override
+        public AuthData getAuth(String authToken) {
+            lastLookupVirtual = Thread.currentThread().isVirtual();
+            return delegate.getAuth(authToken);
+        }
+
+        @Override
+        public boolean deleteAuth(String authToken) {
+            return delegate.deleteAuth(authToken);
+        }
+
+        @Override
+        public void clear() throws DataAccessException {
+            delegate.clear();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package service;
+
+import chess.ChessGame;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class AnalysisServiceTests {
+    private AnalysisService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new AnalysisService(1, 1, 30_000, Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.close();
+    }
+
+    @Test
+    @DisplayName("Short Analysis Completes")
+    public void completes() throws Exception {
+        Analysis analysis = service.submit("session", new ChessGame(), 2, 1_000, Long.MAX_VALUE);
+        SearchResult result = analysis.get(10, TimeUnit.SECONDS);
+        Assertions.assertNotNull(result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Saturated Service Sheds Load")
+    public void shedsLoad() throws Exception {
+        service.submit("first", new ChessGame(), 64, 30_000, Long.MAX_VALUE);
+        service.submit("second", new ChessGame(), 64, 30_000, Long.MAX_VALUE);
+        while(service.getActiveCount() == 0)
+            Thread.onSpinWait();
+        Assertions.assertThrows(AnalysisRejectedException.class,
+                () -> service.submit("third", new ChessGame(), 64, 30_000, Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Closing Session Cancels Its Work")
+    public void cancelOwner() throws Exception {
+        Analysis running = service.submit("session", new ChessGame(), 64, 30_000, Long.MAX_VALUE);
+        Analysis queued = service.submit("session", new ChessGame(), 64, 30_000, Long.MAX_VALUE);
+        while(service.getActiveCount() == 0)
+            Thread.onSpinWait();
+
+        Assertions.assertEquals(2, service.cancelAll("session"));
+
+        SearchResult result = running.get(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(result.bestMove(), "A stopped search still returns its best move so far");
+        Assertions.assertTrue(queued.isCancelled());
+        Assertions.assertEquals(0, service.getQueueDepth());
+        service.submit("other", new ChessGame(), 1, 1_000, Long.MAX_VALUE).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Node Limit Stops Search")
+    public void nodeLimit() throws Exception {
+        long start = System.nanoTime();
+        SearchResult result = service.submit("session", new ChessGame(), 64, 30_000, 2_000).get(20, TimeUnit.SECONDS);
+        Assertions.assertTrue(result.nodes() < 2_000 + 256, "Visited " + result.nodes() + " nodes");
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(20));
+    }
+}
@@ -0,0 +1,94 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class LegalMoveCacheTests {
+
+    @AfterEach
+    public void uninstall() {
+        ChessGame.setMoveCache(null);
+    }
+
+    @Test
+    @DisplayName("Repeated Positions Hit")
+    public void repeatedPositionsHit() {
+        LegalMoveCache cache = new LegalMoveCache(1 << 20);
+        for(int i = 0; i < 10; i++)
+            Assertions.assertEquals(20, cache.legalMoves(new ChessGame()).length);
+
+        Assertions.assertEquals(9, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(0.9, cache.getHitRate(), 1e-9);
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Stays Under Memory Cap")
+    public void staysUnderMemoryCap() {
+        long cap = 20 * (LegalMoveCache.ENTRY_OVERHEAD + 4 * 40);
+        LegalMoveCache cache = new LegalMoveCache(cap);
+        ChessGame start = new ChessGame();
+        Random random = new Random(39);
+        for(int game = 0; game < 20; game++) {
+            ChessGame current = new ChessGame();
+            for(int ply = 0; ply < 20; ply++) {
+                cache.legalMoves(start); // keeps the start position referenced
+                List<ChessMove> moves = new ArrayList<>(current.legalMoves());
+                if(moves.isEmpty())
+                    break;
+                cache.legalMoves(current);
+                current.applyMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+
+        Assertions.assertTrue(cache.getBytes() <= cap, cache.getBytes() + " > " + cap);
+        Assertions.assertTrue(cache.getEvictions() > 0);
+        long hits = cache.getHits();
+        cache.legalMoves(start);
+        Assertions.assertEquals(hits + 1, cache.getHits(), "the hot position survived eviction");
+    }
+
+    @Test
+    @DisplayName("Game Validation Uses Cache")
+    public void gameValidationUsesCache() throws InvalidMoveException {
+        LegalMoveCache cache = new LegalMoveCache(1 << 20);
+        ChessGame.setMoveCache(cache);
+        ChessGame first = new ChessGame();
+        ChessGame second = new ChessGame();
+        first.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        second.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> second.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(4, 5), null)));
+
+        Assertions.assertEquals(new HashSet<>(new ChessGame().getBoard().validMoves(new ChessPosition(1, 7))),
+                new HashSet<>(new ChessGame().validMoves(new ChessPosition(1, 7))));
+        Assertions.assertTrue(cache.getHits() >= 2);
+    }
+
+    @Test
+    @DisplayName("Off-Board Moves Are Rejected")
+    public void offBoardMovesRejected() {
+        ChessGame.setMoveCache(new LegalMoveCache(1 << 20));
+        ChessGame game = new ChessGame();
+        // (4, 0) packs to the same square as h3, so h2 to it must not pass as h2-h3
+        ChessMove aliased = new ChessMove(new ChessPosition(2, 8), new ChessPosition(4, 0), null);
+        Assertions.assertEquals(new ChessMove(new ChessPosition(2, 8), new ChessPosition(3, 8), null),
+                ChessMove.unpack(aliased.pack()));
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(aliased));
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(new ChessPosition(1, 9), new ChessPosition(3, 1), null)));
+        Assertions.assertEquals(new ChessGame(), game);
+    }
+}
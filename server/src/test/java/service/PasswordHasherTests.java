@@ -0,0 +1,69 @@
+package service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class PasswordHasherTests {
+
+    @Test
+    @DisplayName("Hashes Verify And Are Timed")
+    public void roundTrip() throws Exception {
+        try(PasswordHasher hasher = new PasswordHasher(2, 4, 5)) {
+            String hash = hasher.hash("password");
+            Assertions.assertTrue(hash.startsWith("$2a$05$"), hash);
+            Assertions.assertTrue(hasher.verify("password", hash));
+            Assertions.assertFalse(hasher.verify("wrong", hash));
+
+            Assertions.assertEquals(3, hasher.getHashes());
+            Assertions.assertTrue(hasher.getAverageHashMillis() > 0);
+            Assertions.assertTrue(hasher.getMaxHashMillis() >= hasher.getAverageHashMillis());
+            Assertions.assertEquals(0, hasher.getShed());
+        }
+    }
+
+    @Test
+    @DisplayName("Full Queue Is Refused")
+    public void fullQueueShed() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(1, 1, 14);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hash(hasher));
+        CompletableFuture<String> queued = null;
+        try {
+            // The first hash takes the thread, so the second has to wait in the queue
+            while(hasher.getQueued() == 0) {
+                if(queued == null && !running.isDone())
+                    queued = CompletableFuture.supplyAsync(() -> hash(hasher));
+                Thread.sleep(5);
+            }
+            Assertions.assertThrows(ServiceUnavailableException.class, () -> hasher.hash("refused"));
+            Assertions.assertEquals(1, hasher.getShed());
+        }
+        finally {
+            hasher.close();
+        }
+        CompletableFuture<String> abandoned = queued;
+        ExecutionException closed = Assertions.assertThrows(ExecutionException.class,
+                () -> abandoned.get(10, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(ServiceUnavailableException.class, closed.getCause().getCause());
+    }
+
+    @Test
+    @DisplayName("Calibration Stays In Range")
+    public void calibrationClamped() {
+        Assertions.assertEquals(PasswordHasher.MIN_CALIBRATED_ROUNDS, PasswordHasher.calibrate(1));
+        Assertions.assertEquals(PasswordHasher.MAX_CALIBRATED_ROUNDS, PasswordHasher.calibrate(1_000_000));
+    }
+
+    private static String hash(PasswordHasher hasher) {
+        try {
+            return hasher.hash("password");
+        }
+        catch (ServiceUnavailableException busy) {
+            throw new RuntimeException(busy);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package chess;
 
 import chess.ChessPiece.PieceType;
 import chess.ChessGame.TeamColor;
+import chess.engine.Zobrist;
 
 import java.util.*;
 
@@ -12,7 +13,11 @@ import java.util.*;
  * signature of the existing methods.
  */
 public class ChessBoard {
-    private final ChessPiece[][] board;
+    // 0 for an empty square, otherwise the piece kind + 1, squares numbered (row - 1) * 8 + (col - 1)
+    private final byte[] squares;
+    // Zobrist hash of the piece placement, computed on first use and then kept up to date; 0 until
+    // computed. One field, so a reader computing it can never publish it half-written or out of step
+    private transient volatile long pieceHash;
 
     public boolean longCastlingPrivilegesWhite = true;
     public boolean longCastlingPrivilegesBlack = true;
@@ -27,22 +32,37 @@ public class ChessBoard {
             new ChessMove(new ChessPosition(8, 5), new ChessPosition(8, 7), null),
             new ChessMove(new ChessPosition(8, 5), new ChessPosition(8, 3), null));
 
+    /** (row, column) steps of a knight's moves, shared with the engine; never modified */
+    public static final int[][] KNIGHT_OFFSETS = {{-2, 1}, {-1, 2}, {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}};
+    /** (row, column) steps to the eight neighbouring squares, orthogonals first; never modified */
+    public static final int[][] KING_OFFSETS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    public static TeamColor opponent(TeamColor team) {
+        return team == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
     public ChessBoard() {
-        board = new ChessPiece[8][8];
+        squares = new byte[64];
     }
     public void copy(ChessBoard other) {
-        for(int i = 0; i < 8; i++)
-            System.arraycopy(other.board[i], 0, this.board[i], 0, 8);
+        System.arraycopy(other.squares, 0, this.squares, 0, 64);
+        this.pieceHash = other.pieceHash;
+        this.longCastlingPrivilegesWhite = other.longCastlingPrivilegesWhite;
+        this.longCastlingPrivilegesBlack = other.longCastlingPrivilegesBlack;
+        this.shortCastlingPrivilegesWhite = other.shortCastlingPrivilegesWhite;
+        this.shortCastlingPrivilegesBlack = other.shortCastlingPrivilegesBlack;
+        this.existsEnPassant = other.existsEnPassant;
+        this.enPassantSquare = other.enPassantSquare;
     }
     public ChessPosition getKingPosition(TeamColor color) {
-        for(int i = 1; i <= 8; i++) {
-            for(int j = 1; j<= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = getPiece(position);
-                if(piece != null && piece.getPieceType() == PieceType.KING && piece.getTeamColor() == color)
-                    return position;
-            }
-        }
+        int square = kingSquare(squares, color);
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+    }
+    private static int kingSquare(byte[] board, TeamColor color) {
+        byte king = code(color, PieceType.KING);
+        for(int square = 0; square < 64; square++)
+            if(board[square] == king)
+                return square;
         throw new IllegalStateException("There is no king on the board");
     }
     public Collection<ChessMove> validMoves(ChessPosition position) {
@@ -50,7 +70,8 @@ public class ChessBoard {
         if(piece == null)
             return Collections.emptyList();
         Collection<ChessMove> potentialMoves = piece.pieceMoves(this, position);
-        potentialMoves.removeIf(move -> !isValidMove(move)); // removes all invalid moves
+        byte[] scratch = squares.clone();
+        potentialMoves.removeIf(move -> !leavesKingSafe(move, piece.getTeamColor(), scratch)); // removes all invalid moves
         if(piece.getPieceType() == PieceType.KING) {
             if(canCastle(piece.getTeamColor(), CastleType.SHORT)) {
                 potentialMoves.add(new ChessMove(position, new ChessPosition(position.row(), 7), null));
@@ -59,65 +80,213 @@ public class ChessBoard {
                 potentialMoves.add(new ChessMove(position, new ChessPosition(position.row(), 3), null));
             }
         }
-        if(piece.getPieceType() == PieceType.PAWN && existsEnPassant && Math.abs(position.getColumn() - enPassantSquare.getColumn()) == 1) {
-            potentialMoves.add(new ChessMove(position, enPassantSquare, null));
+        if(piece.getPieceType() == PieceType.PAWN && canCaptureEnPassant(piece, position)) {
+            ChessMove enPassant = new ChessMove(position, enPassantSquare, null);
+            if(leavesKingSafe(enPassant, piece.getTeamColor(), scratch))
+                potentialMoves.add(enPassant);
         }
         return potentialMoves;
     }
-    private boolean isValidMove(ChessMove move) {
-        ChessPiece piece = this.getPiece(move.startPosition());
-        if(piece == null)
+    public Collection<ChessMove> allValidMoves(TeamColor team) {
+        Collection<ChessMove> moves = new ArrayList<>();
+        for(int i = 1; i <= 8; i++)
+            for(int j = 1; j <= 8; j++) {
+                ChessPosition position = new ChessPosition(i, j);
+                ChessPiece piece = getPiece(position);
+                if(piece != null && piece.getTeamColor() == team)
+                    moves.addAll(validMoves(position));
+            }
+        return moves;
+    }
+    public boolean isCaptureMove(ChessMove move) {
+        if(!isEmptySquare(move.getEndPosition()))
+            return true;
+        ChessPiece piece = getPiece(move.getStartPosition());
+        return existsEnPassant && piece != null && piece.getPieceType() == PieceType.PAWN && move.getEndPosition().equals(enPassantSquare);
+    }
+    /**
+     * Checks a single move without generating the piece's other moves: a geometry test,
+     * then one attack test on the king with the move made and unmade on a copy of the squares
+     *
+     * @param move the move to check
+     * @return true if the piece on the start square may legally make this move
+     */
+    public boolean isLegal(ChessMove move) {
+        return isLegal(move, squares.clone());
+    }
+
+    /**
+     * {@link #isLegal} for {@link ChessGame#makeMove}, which changes the board next anyway:
+     * it makes and unmakes the move on the board's own squares, so it allocates nothing,
+     * but the board must not be shared with readers while it runs
+     */
+    boolean isLegalInPlace(ChessMove move) {
+        return isLegal(move, squares);
+    }
+    private boolean isLegal(ChessMove move, byte[] board) {
+        ChessPiece piece = getPiece(move.getStartPosition());
+        if(piece == null || !isPseudoLegal(piece, move))
+            return false;
+        if(piece.getPieceType() == PieceType.KING && Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn()) == 2)
+            return true; // castling, which isPseudoLegal checked completely
+        return leavesKingSafe(move, piece.getTeamColor(), board);
+    }
+    private boolean isPseudoLegal(ChessPiece piece, ChessMove move) {
+        int fromRow = move.getStartPosition().getRow();
+        int fromCol = move.getStartPosition().getColumn();
+        int toRow = move.getEndPosition().getRow();
+        int toCol = move.getEndPosition().getColumn();
+        if(!piece.isValidIndex(toRow) || !piece.isValidIndex(toCol) || (fromRow == toRow && fromCol == toCol))
+            return false;
+        ChessPiece target = at((toRow-1)*8 + toCol-1);
+        if(target != null && target.getTeamColor() == piece.getTeamColor())
+            return false;
+        int rowDelta = toRow - fromRow;
+        int colDelta = toCol - fromCol;
+        TeamColor team = piece.getTeamColor();
+
+        if(piece.getPieceType() != PieceType.PAWN && move.getPromotionPiece() != null)
+            return false;
+        switch(piece.getPieceType()) {
+            case PAWN -> {
+                int direction = team == TeamColor.WHITE ? 1 : -1;
+                boolean promotes = toRow == (team == TeamColor.WHITE ? 8 : 1);
+                PieceType promotion = move.getPromotionPiece();
+                if(promotes != (promotion != null) || promotion == PieceType.KING || promotion == PieceType.PAWN)
+                    return false;
+                if(colDelta == 0) {
+                    if(target != null)
+                        return false;
+                    if(rowDelta == direction)
+                        return true;
+                    int startRow = team == TeamColor.WHITE ? 2 : 7;
+                    return rowDelta == 2 * direction && fromRow == startRow && at((fromRow+direction-1)*8 + fromCol-1) == null;
+                }
+                if(Math.abs(colDelta) != 1 || rowDelta != direction)
+                    return false;
+                return target != null || (move.getEndPosition().equals(enPassantSquare) && canCaptureEnPassant(piece, move.getStartPosition()));
+            }
+            case KNIGHT -> {
+                return Math.abs(rowDelta * colDelta) == 2;
+            }
+            case KING -> {
+                if(Math.abs(rowDelta) <= 1 && Math.abs(colDelta) <= 1)
+                    return true;
+                int homeRow = team == TeamColor.WHITE ? 1 : 8;
+                if(rowDelta != 0 || fromRow != homeRow || fromCol != 5 || Math.abs(colDelta) != 2)
+                    return false;
+                return canCastle(team, colDelta > 0 ? CastleType.SHORT : CastleType.LONG);
+            }
+            default -> {
+                boolean straight = rowDelta == 0 || colDelta == 0;
+                boolean diagonal = Math.abs(rowDelta) == Math.abs(colDelta);
+                if(piece.getPieceType() == PieceType.ROOK ? !straight
+                        : piece.getPieceType() == PieceType.BISHOP ? !diagonal : !(straight || diagonal))
+                    return false;
+                int rowStep = Integer.signum(rowDelta);
+                int colStep = Integer.signum(colDelta);
+                for(int r = fromRow + rowStep, c = fromCol + colStep; r != toRow || c != toCol; r += rowStep, c += colStep)
+                    if(at((r-1)*8 + c-1) != null)
+                        return false;
+                return true;
+            }
+        }
+    }
+    /**
+     * Makes the move on the given squares (ignoring promotion and the castling rook, neither
+     * of which can uncover the king), tests whether the king is attacked, then puts
+     * everything back. The squares are this board's own only when called from
+     * {@link #isLegalInPlace}; every read-only query passes a copy, so concurrent readers
+     * never see a piece mid-move.
+     */
+    private boolean leavesKingSafe(ChessMove move, TeamColor team, byte[] board) {
+        int fromRow = move.getStartPosition().getRow() - 1;
+        int fromCol = move.getStartPosition().getColumn() - 1;
+        int toRow = move.getEndPosition().getRow() - 1;
+        int toCol = move.getEndPosition().getColumn() - 1;
+        byte piece = board[fromRow*8 + fromCol];
+        byte captured = board[toRow*8 + toCol];
+        byte passed = 0;
+        PieceType type = PIECES[piece].getPieceType();
+        boolean enPassant = type == PieceType.PAWN && captured == 0 && fromCol != toCol;
+        if(enPassant) {
+            passed = board[fromRow*8 + toCol];
+            board[fromRow*8 + toCol] = 0;
+        }
+        // Raw writes leave the piece hash alone, which is right again once they are undone
+        board[toRow*8 + toCol] = piece;
+        board[fromRow*8 + fromCol] = 0;
+
+        int king = (type == PieceType.KING) ? toRow*8 + toCol : kingSquare(board, team);
+        boolean safe = !isAttacked(board, king / 8 + 1, king % 8 + 1, opponent(team));
+
+        board[fromRow*8 + fromCol] = piece;
+        board[toRow*8 + toCol] = captured;
+        if(enPassant)
+            board[fromRow*8 + toCol] = passed;
+        return safe;
+    }
+    private boolean canCaptureEnPassant(ChessPiece pawn, ChessPosition position) {
+        if(!existsEnPassant)
             return false;
-        Collection<ChessMove> moveList = piece.pieceMoves(this, move.getStartPosition());
-        if(!moveList.contains(move))
+        int direction = pawn.getTeamColor() == TeamColor.WHITE ? 1 : -1;
+        if(enPassantSquare.getRow() != position.getRow() + direction || Math.abs(position.getColumn() - enPassantSquare.getColumn()) != 1)
             return false;
-        ChessBoard duplicate = new ChessBoard();
-        duplicate.copy(this);
-        duplicate.makeMove(move);
-        return !duplicate.isInCheck(piece.getTeamColor());
+        ChessPiece passed = at((position.getRow()-1)*8 + enPassantSquare.getColumn()-1);
+        return passed != null && passed.getPieceType() == PieceType.PAWN && passed.getTeamColor() != pawn.getTeamColor();
     }
     public void makeMove(ChessMove move) {
-        ChessPiece piece = this.getPiece((move.getStartPosition()));
-        if(piece.getPieceType() == PieceType.KING && CASTLING_MOVES.contains(move)) {
-            CastleType castleType = (move.getEndPosition().getColumn() == 7) ? CastleType.SHORT : CastleType.LONG;
+        int fromRow = move.getStartPosition().getRow() - 1;
+        int fromCol = move.getStartPosition().getColumn() - 1;
+        int toRow = move.getEndPosition().getRow() - 1;
+        int toCol = move.getEndPosition().getColumn() - 1;
+        ChessPiece piece = at(fromRow*8 + fromCol);
+        if(piece.getPieceType() == PieceType.KING && Math.abs(toCol - fromCol) == 2) { // only castling moves a king two files
             castle(move);
-            revokeCastling(piece.getTeamColor(), castleType);
+            revokeCastling(piece.getTeamColor(), (toCol == 6) ? CastleType.SHORT : CastleType.LONG);
             return;
         }
-        
+
         if(move.promotionPiece() != null)
-            piece = new ChessPiece(piece.getTeamColor(), move.promotionPiece());
-        this.addPiece(move.getEndPosition(), piece);
-        this.addPiece(move.getStartPosition(), null);
-        if(piece.getPieceType() == PieceType.PAWN && move.endPosition().equals(enPassantSquare)) {
-            int direction = piece.getTeamColor() == TeamColor.WHITE ? 1 : -1;
-            this.addPiece(new ChessPosition(move.getEndPosition().getRow() - direction, move.getEndPosition().getColumn()), null);
-        }
+            piece = ChessPiece.of(piece.getTeamColor(), move.promotionPiece());
+        if(existsEnPassant && piece.getPieceType() == PieceType.PAWN && move.endPosition().equals(enPassantSquare))
+            put(fromRow*8 + toCol, null); // the passed pawn stands beside the start square
+        put(toRow*8 + toCol, piece);
+        put(fromRow*8 + fromCol, null);
     }
     public void castle(ChessMove move) {
-        int row = move.getStartPosition().getRow();
-        int endCol = move.getEndPosition().getColumn();
-
-        // Makes move without function call to avoid infinite recursion
-        this.addPiece(move.getEndPosition(), this.getPiece((move.getStartPosition())));
-        this.addPiece(move.getStartPosition(), null);
-
-        int rookEndCol = (endCol == 7) ? 6 : 4; // final rook position
-        int rookStartCol = (rookEndCol == 6) ? 8 : 1; // left or right rook
-        ChessMove rookMove = new ChessMove(new ChessPosition(row, rookStartCol), new ChessPosition(row, rookEndCol), null);
-        makeMove(rookMove);
+        int row = move.getStartPosition().getRow() - 1;
+        int startCol = move.getStartPosition().getColumn() - 1;
+        int endCol = move.getEndPosition().getColumn() - 1;
+        put(row*8 + endCol, at(row*8 + startCol));
+        put(row*8 + startCol, null);
 
+        int rookEndCol = (endCol == 6) ? 5 : 3; // final rook position
+        int rookStartCol = (rookEndCol == 5) ? 7 : 0; // left or right rook
+        put(row*8 + rookEndCol, at(row*8 + rookStartCol));
+        put(row*8 + rookStartCol, null);
     }
+    /**
+     * Revokes the castling rights a move gives up: all of them when the king moves, one
+     * side when a rook leaves its corner, and the opponent's side when a rook is captured
+     * on its corner
+     */
     public void maintainCastlingPermissions(ChessMove move) {
-        Collection<ChessPosition> rightRookPositions = new ArrayList<>(List.of(new ChessPosition(1,8), new ChessPosition(8,8)));
-        Collection<ChessPosition> leftRookPositions = new ArrayList<>(List.of(new ChessPosition(1,1), new ChessPosition(8,1)));
         ChessPiece piece = getPiece(move.getStartPosition());
-        if(move.getStartPosition().equals(getKingPosition(piece.getTeamColor())))
-            revokeCastling(piece.getTeamColor(), CastleType.ALL);
-        else if(rightRookPositions.contains(move.getStartPosition()))
-            revokeCastling(piece.getTeamColor(), CastleType.SHORT);
-        else if(leftRookPositions.contains(move.getStartPosition()))
-            revokeCastling(piece.getTeamColor(), CastleType.LONG);
+        TeamColor color = piece.getTeamColor();
+        if(piece.getPieceType() == PieceType.KING)
+            revokeCastling(color, CastleType.ALL);
+        else
+            revokeCornerRights(move.getStartPosition(), color);
+        revokeCornerRights(move.getEndPosition(), opponent(color));
+    }
+    private void revokeCornerRights(ChessPosition position, TeamColor color) {
+        if(position.getRow() != ((color == TeamColor.WHITE) ? 1 : 8))
+            return;
+        if(position.getColumn() == 8)
+            revokeCastling(color, CastleType.SHORT);
+        else if(position.getColumn() == 1)
+            revokeCastling(color, CastleType.LONG);
     }
     public enum CastleType {
         LONG,
@@ -146,12 +315,12 @@ public class ChessBoard {
         try {
             switch (color) {
                 case WHITE -> {
-                    if (type == CastleType.SHORT) return shortCastlingPrivilegesWhite && getPiece(new ChessPosition(1, 8)).getPieceType() == PieceType.ROOK && getPiece(new ChessPosition(1, 8)).getTeamColor() == TeamColor.WHITE;
-                    else return longCastlingPrivilegesWhite && getPiece(new ChessPosition(1, 1)).getPieceType() == PieceType.ROOK && getPiece(new ChessPosition(1, 1)).getTeamColor() == TeamColor.WHITE;
+                    if (type == CastleType.SHORT) return shortCastlingPrivilegesWhite && getPiece(ChessPosition.of(1, 8)).getPieceType() == PieceType.ROOK && getPiece(ChessPosition.of(1, 8)).getTeamColor() == TeamColor.WHITE;
+                    else return longCastlingPrivilegesWhite && getPiece(ChessPosition.of(1, 1)).getPieceType() == PieceType.ROOK && getPiece(ChessPosition.of(1, 1)).getTeamColor() == TeamColor.WHITE;
                 }
                 case BLACK -> {
-                    if (type == CastleType.SHORT) return shortCastlingPrivilegesBlack && getPiece(new ChessPosition(8, 8)).getPieceType() == PieceType.ROOK && getPiece(new ChessPosition(8, 8)).getTeamColor() == TeamColor.BLACK;
-                    else return longCastlingPrivilegesBlack && getPiece(new ChessPosition(8, 1)).getPieceType() == PieceType.ROOK && getPiece(new ChessPosition(8, 1)).getTeamColor() == TeamColor.BLACK;
+                    if (type == CastleType.SHORT) return shortCastlingPrivilegesBlack && getPiece(ChessPosition.of(8, 8)).getPieceType() == PieceType.ROOK && getPiece(ChessPosition.of(8, 8)).getTeamColor() == TeamColor.BLACK;
+                    else return longCastlingPrivilegesBlack && getPiece(ChessPosition.of(8, 1)).getPieceType() == PieceType.ROOK && getPiece(ChessPosition.of(8, 1)).getTeamColor() == TeamColor.BLACK;
                 }
             }
         }
@@ -161,22 +330,23 @@ public class ChessBoard {
         return false;
     }
     private boolean castlingPathClear(TeamColor color, CastleType type) {
-        Collection<ChessPosition> whiteLongSquares = new ArrayList<>(List.of(new ChessPosition(1,2), new ChessPosition(1,3), new ChessPosition(1,4)));
-        Collection<ChessPosition> whiteShortSquares = new ArrayList<>(List.of(new ChessPosition(1,6), new ChessPosition(1,7)));
-        Collection<ChessPosition> blackLongSquares = new ArrayList<>(List.of(new ChessPosition(8,2), new ChessPosition(8,3), new ChessPosition(8,4)));
-        Collection<ChessPosition> blackShortSquares = new ArrayList<>(List.of(new ChessPosition(8,6), new ChessPosition(8,7)));
+        int row = (color == TeamColor.WHITE) ? 1 : 8;
         switch(type) {
             case SHORT -> {
-                return (color == TeamColor.WHITE) ? !isInCheck(color) && whiteShortSquares.stream().allMatch(position -> isEmptySquare(position) && untargeted(color, position)) : !isInCheck(color) && blackShortSquares.stream().allMatch(position -> isEmptySquare(position) && untargeted(color, position));
+                return !isInCheck(color) && isEmptySquare(ChessPosition.of(row, 6)) && isEmptySquare(ChessPosition.of(row, 7))
+                        && untargeted(color, ChessPosition.of(row, 6)) && untargeted(color, ChessPosition.of(row, 7));
             }
-            case LONG -> {
-                return (color == TeamColor.WHITE) ? !isInCheck(color) && whiteLongSquares.stream().allMatch(position -> isEmptySquare(position) && untargeted(color, position)) : !isInCheck(color) && blackLongSquares.stream().allMatch(position -> isEmptySquare(position) && untargeted(color, position));
+            case LONG -> { // the b-file square must be empty, but the king never crosses it
+                return !isInCheck(color) && isEmptySquare(ChessPosition.of(row, 2)) && isEmptySquare(ChessPosition.of(row, 3))
+                        && isEmptySquare(ChessPosition.of(row, 4)) && untargeted(color, ChessPosition.of(row, 3)) && untargeted(color, ChessPosition.of(row, 4));
             }
             default -> throw new IllegalArgumentException("ALL is not a valid parameter for this function");
         }
     }
     private boolean canCastle(TeamColor color, CastleType type){
-        return hasCastlingPrivileges(color, type) && castlingPathClear(color, type);
+        ChessPiece king = getPiece(ChessPosition.of(color == TeamColor.WHITE ? 1 : 8, 5));
+        boolean kingAtHome = king != null && king.getPieceType() == PieceType.KING && king.getTeamColor() == color;
+        return kingAtHome && hasCastlingPrivileges(color, type) && castlingPathClear(color, type);
     }
 
 
@@ -185,47 +355,129 @@ public class ChessBoard {
 
 
     public boolean isInCheck(TeamColor team) {
-        ChessPosition kingPosition = getKingPosition(team);
-        for (int i = 1; i <= 8; i++)
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = getPiece(position);
-                if(piece == null || piece.getTeamColor() == team)
-                    continue;
-                for(ChessMove move : piece.pieceMoves(this, position))
-                    if(move.endPosition().equals(kingPosition))
-                        return true;
+        int king = kingSquare(squares, team);
+        return isAttacked(king / 8 + 1, king % 8 + 1, opponent(team));
+    }
+
+    /**
+     * Looks outwards from a square for an attacker instead of generating every enemy
+     * move, so it costs at most a few dozen array reads
+     */
+    private boolean isAttacked(int row, int col, TeamColor attacker) {
+        return isAttacked(squares, row, col, attacker);
+    }
+    private static boolean isAttacked(byte[] board, int row, int col, TeamColor attacker) {
+        int pawnRow = row - (attacker == TeamColor.WHITE ? 1 : -1);
+        if(isPiece(board, pawnRow, col - 1, attacker, PieceType.PAWN) || isPiece(board, pawnRow, col + 1, attacker, PieceType.PAWN))
+            return true;
+        for(int[] offset : KNIGHT_OFFSETS)
+            if(isPiece(board, row + offset[0], col + offset[1], attacker, PieceType.KNIGHT))
+                return true;
+        for(int[] offset : KING_OFFSETS) {
+            if(isPiece(board, row + offset[0], col + offset[1], attacker, PieceType.KING))
+                return true;
+            boolean straight = offset[0] == 0 || offset[1] == 0;
+            int r = row + offset[0];
+            int c = col + offset[1];
+            while(r >= 1 && r <= 8 && c >= 1 && c <= 8 && board[(r-1)*8 + c-1] == 0) {
+                r += offset[0];
+                c += offset[1];
             }
+            if(isPiece(board, r, c, attacker, PieceType.QUEEN) || isPiece(board, r, c, attacker, straight ? PieceType.ROOK : PieceType.BISHOP))
+                return true;
+        }
         return false;
     }
+    boolean isPiece(int row, int col, TeamColor color, PieceType type) {
+        return isPiece(squares, row, col, color, type);
+    }
+    private static boolean isPiece(byte[] board, int row, int col, TeamColor color, PieceType type) {
+        if(row < 1 || row > 8 || col < 1 || col > 8)
+            return false;
+        ChessPiece piece = PIECES[board[(row-1)*8 + col-1]];
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
     public boolean untargeted(TeamColor team, ChessPosition position) {
-        for (int i = 1; i <= 8; i++)
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition current = new ChessPosition(i, j);
-                ChessPiece piece = getPiece(current);
-                if(piece == null || piece.getTeamColor() == team)
-                    continue;
-                for(ChessMove move : piece.pieceMoves(this, current))
-                    if(move.endPosition().equals(position))
-                        return false;
-            }
-        return true;
+        return !isAttacked(position.getRow(), position.getColumn(), opponent(team));
     }
     public boolean isInCheckmate(TeamColor team) {
         return isInCheck(team) && noLegalMoves(team);
     }
     private boolean noLegalMoves(TeamColor team) {
-        for(int i = 1; i <=8; i++)
-            for(int j = 1; j <=8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = this.getPiece(position);
-                if(piece == null || piece.getTeamColor() != team)
-                    continue;
-                if(!validMoves(position).isEmpty()) {
-                    return false;
+        return !legalMoveIterator(team).hasNext();
+    }
+
+    /**
+     * Iterates a team's legal moves, testing each one's legality only when it is reached,
+     * so a caller that stops early, like checkmate and stalemate detection, usually pays
+     * for a single legality test. The board must not change while iterating.
+     *
+     * @param team the team to move
+     * @return the same moves {@link #allValidMoves} returns, generated one piece at a time
+     */
+    public Iterator<ChessMove> legalMoveIterator(TeamColor team) {
+        return new LegalMoveIterator(team);
+    }
+    private class LegalMoveIterator implements Iterator<ChessMove> {
+        private final TeamColor team;
+        private final byte[] scratch = squares.clone();
+        private int square = -1;
+        private Iterator<ChessMove> candidates = Collections.emptyIterator();
+        private ChessMove next;
+
+        LegalMoveIterator(TeamColor team) {
+            this.team = team;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while(true) {
+                while(candidates.hasNext()) {
+                    ChessMove move = candidates.next();
+                    if(leavesKingSafe(move, team, scratch)) {
+                        next = move;
+                        return;
+                    }
                 }
+                do {
+                    if(++square == 64)
+                        return;
+                } while(squares[square] == 0 || at(square).getTeamColor() != team);
+                candidates = candidates(ChessPosition.of(square / 8 + 1, square % 8 + 1), at(square));
             }
-        return true;
+        }
+
+        /**
+         * The piece's moves before the king safety test; castling moves are complete
+         * already, and the king safety test passes them too
+         */
+        private Iterator<ChessMove> candidates(ChessPosition position, ChessPiece piece) {
+            Collection<ChessMove> moves = piece.pieceMoves(ChessBoard.this, position);
+            if(piece.getPieceType() == PieceType.KING) {
+                if(canCastle(team, CastleType.SHORT))
+                    moves.add(new ChessMove(position, ChessPosition.of(position.row(), 7), null));
+                if(canCastle(team, CastleType.LONG))
+                    moves.add(new ChessMove(position, ChessPosition.of(position.row(), 3), null));
+            }
+            if(piece.getPieceType() == PieceType.PAWN && canCaptureEnPassant(piece, position))
+                moves.add(new ChessMove(position, enPassantSquare, null));
+            return moves.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ChessMove next() {
+            if(next == null)
+                throw new NoSuchElementException();
+            ChessMove move = next;
+            advance();
+            return move;
+        }
     }
     public boolean isEmptySquare(ChessPosition position) {
         return getPiece(position) == null;
@@ -234,6 +486,51 @@ public class ChessBoard {
         return !isInCheck(team) && noLegalMoves(team);
     }
 
+    private static final ChessPiece[] PIECES = new ChessPiece[13];
+
+    static {
+        for(TeamColor color : TeamColor.values())
+            for(PieceType type : PieceType.values())
+                PIECES[type.ordinal() * 2 + color.ordinal() + 1] = ChessPiece.of(color, type);
+    }
+
+    private static byte code(TeamColor color, PieceType type) {
+        return (byte) (type.ordinal() * 2 + color.ordinal() + 1);
+    }
+    private ChessPiece at(int square) {
+        return PIECES[squares[square]];
+    }
+    private void put(int square, ChessPiece piece) {
+        byte code = (piece == null) ? 0 : code(piece.getTeamColor(), piece.getPieceType());
+        long hash = pieceHash;
+        if(hash != 0) {
+            if(squares[square] != 0)
+                hash ^= Zobrist.pieceKey(squares[square] - 1, square);
+            if(code != 0)
+                hash ^= Zobrist.pieceKey(code - 1, square);
+            pieceHash = hash;
+        }
+        squares[square] = code;
+    }
+
+    /**
+     * Any number of readers may call this at once: each either sees the published hash or
+     * computes the same value itself. A placement that really hashes to 0, like the empty
+     * board, is simply computed again each time.
+     *
+     * @return the Zobrist hash of the piece placement, as {@link Zobrist#hashPieces} defines it
+     */
+    public long getPieceHash() {
+        long hash = pieceHash;
+        if(hash == 0) {
+            for(int square = 0; square < 64; square++)
+                if(squares[square] != 0)
+                    hash ^= Zobrist.pieceKey(squares[square] - 1, square);
+            pieceHash = hash;
+        }
+        return hash;
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -241,7 +538,7 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow()-1][position.getColumn()-1] = piece;
+        put((position.getRow()-1)*8 + position.getColumn()-1, piece);
     }
 
     /**
@@ -252,7 +549,7 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow()-1][position.getColumn()-1];
+        return at((position.getRow()-1)*8 + position.getColumn()-1);
     }
 
     /**
@@ -260,11 +557,8 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        for(int i = 0; i < 8; i++) {
-            for(int j = 0; j < 8; j++) {
-                board[i][j] = null;
-            }
-        }
+        Arrays.fill(squares, (byte) 0);
+        pieceHash = 0;
         addPiece(new ChessPosition(1, 1), new ChessPiece(TeamColor.WHITE, PieceType.ROOK));
         addPiece(new ChessPosition(1, 2), new ChessPiece(TeamColor.WHITE, PieceType.KNIGHT));
         addPiece(new ChessPosition(1, 3), new ChessPiece(TeamColor.WHITE, PieceType.BISHOP));
@@ -294,11 +588,11 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return getPieceHash() == that.getPieceHash() && Arrays.equals(squares, that.squares);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(getPieceHash());
     }
 }
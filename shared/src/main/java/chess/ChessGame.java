@@ -2,18 +2,26 @@ package chess;
 
 import java.util.*;
 import chess.ChessPiece.PieceType;
-
-import static chess.ChessBoard.CASTLING_MOVES;
+import chess.engine.Tablebase;
+import chess.engine.TablebaseResult;
 
 /**
  * For a class that can manage a chess game, making moves on a board
  * <p>
+ * Queries such as {@link #validMoves} and {@link #isInCheckmate} never change the game,
+ * so any number of threads may read one game at once. Making, undoing and redoing moves
+ * and the setters need the game to themselves.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessGame {
     private ChessBoard board;
     private TeamColor turn;
+    private boolean gameOver;
+    // not serialized: a game sent over the wire is just its position
+    private transient MoveLog history = new MoveLog();
+    private static volatile MoveCache moveCache;
 
     
 
@@ -25,6 +33,15 @@ public class ChessGame {
         board.resetBoard();
         turn = TeamColor.WHITE;
     }
+    /**
+     * Copies the position of another game and whether it is over, without its move history
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard();
+        board.copy(other.board);
+        turn = other.turn;
+        gameOver = other.gameOver;
+    }
 
     /**
      * @return Which team's turn it is
@@ -62,7 +79,46 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        return board.validMoves(startPosition);
+        MoveCache cache = moveCache;
+        ChessPiece piece = board.getPiece(startPosition);
+        if(cache == null || piece == null || piece.getTeamColor() != turn)
+            return board.validMoves(startPosition);
+        Collection<ChessMove> moves = new ArrayList<>();
+        int from = (startPosition.getRow() - 1) * 8 + (startPosition.getColumn() - 1);
+        for(int packed : cache.legalMoves(this))
+            if((packed & 63) == from)
+                moves.add(ChessMove.unpack(packed));
+        return moves;
+    }
+
+    /**
+     * @return every legal move for the team whose turn it is, packed with
+     * {@link ChessMove#pack()} and sorted ascending
+     */
+    public int[] packedLegalMoves() {
+        Collection<ChessMove> moves = legalMoves();
+        int[] packed = new int[moves.size()];
+        int i = 0;
+        for(ChessMove move : moves)
+            packed[i++] = move.pack();
+        Arrays.sort(packed);
+        return packed;
+    }
+
+    /**
+     * Makes every game consult a cache of legal move sets when validating moves
+     *
+     * @param cache the cache to use, or null to check each move directly
+     */
+    public static void setMoveCache(MoveCache cache) {
+        moveCache = cache;
+    }
+
+    /**
+     * @return every valid move for the team whose turn it is
+     */
+    public Collection<ChessMove> legalMoves() {
+        return board.allValidMoves(turn);
     }
 
     /**
@@ -72,29 +128,104 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
+        // Off-board squares would alias real ones in the board index and in ChessMove.pack()
+        if(!move.getStartPosition().isOnBoard() || !move.getEndPosition().isOnBoard())
+            throw new InvalidMoveException();
         ChessPiece piece = board.getPiece(move.getStartPosition());
         if(piece == null || piece.getTeamColor() != turn)
             throw new InvalidMoveException();
-        if(board.validMoves(move.getStartPosition()).contains(move)) {
-            board.maintainCastlingPermissions(move);
-            board.makeMove(move);
-            board.existsEnPassant = false;
-            if(piece.getPieceType() == PieceType.PAWN && Math.abs(move.startPosition().getRow() - move.endPosition().getRow()) == 2) {
+        MoveCache cache = moveCache;
+        boolean legal = (cache == null) ? board.isLegalInPlace(move) : Arrays.binarySearch(cache.legalMoves(this), move.pack()) >= 0;
+        if(legal)
+            applyMove(move);
+        else throw new InvalidMoveException();
+    }
+
+    /**
+     * Performs a move that is already known to be valid, skipping validation.
+     * Used by the engine, which only plays moves it generated itself.
+     *
+     * @param move chess move to perform
+     */
+    public void applyMove(ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        history.record(MoveLog.encode(board, move));
+        board.maintainCastlingPermissions(move);
+        board.makeMove(move);
+        board.existsEnPassant = false;
+        board.enPassantSquare = null;
+        int row = move.endPosition().getRow();
+        int col = move.endPosition().getColumn();
+        if(piece.getPieceType() == PieceType.PAWN && Math.abs(move.startPosition().getRow() - row) == 2) {
+            TeamColor enemy = (piece.getTeamColor() == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+            if(board.isPiece(row, col - 1, enemy, PieceType.PAWN) || board.isPiece(row, col + 1, enemy, PieceType.PAWN)) {
                 int direction = piece.getTeamColor() == TeamColor.WHITE ? 1 : -1;
-                ChessPiece adjacentLeft = piece.isValidIndex(move.endPosition().getColumn()-1) ? board.getPiece(new ChessPosition(move.endPosition().getRow(), move.endPosition().getColumn()-1)) : null;
-                ChessPiece adjacentRight = piece.isValidIndex(move.endPosition().getColumn()+1) ? board.getPiece(new ChessPosition(move.endPosition().getRow(), move.endPosition().getColumn()+1)) : null;
-                if(adjacentLeft != null && adjacentLeft.getPieceType() == PieceType.PAWN && adjacentLeft.getTeamColor() != piece.getTeamColor()){
-                    board.existsEnPassant = true;
-                    board.enPassantSquare = new ChessPosition(move.endPosition().getRow() - direction, move.endPosition().getColumn());
-                }
-                if(adjacentRight != null && adjacentRight.getPieceType() == PieceType.PAWN && adjacentRight.getTeamColor() != piece.getTeamColor()){
-                    board.existsEnPassant = true;
-                    board.enPassantSquare = new ChessPosition(move.endPosition().getRow() - direction, move.endPosition().getColumn());
-                }
+                board.existsEnPassant = true;
+                board.enPassantSquare = ChessPosition.of(row - direction, col);
             }
-            switchTurn();
         }
-        else throw new InvalidMoveException();
+        switchTurn();
+    }
+    /**
+     * Takes back the last move, restoring the position before it
+     *
+     * @return the move taken back, or null if there is none
+     */
+    public ChessMove undoMove() {
+        if(!history.canUndo())
+            return null;
+        return MoveLog.move(takeBack());
+    }
+    private int takeBack() {
+        int entry = history.undo();
+        MoveLog.unmake(board, entry);
+        switchTurn();
+        return entry;
+    }
+
+    /**
+     * Plays the last move taken back again
+     *
+     * @return the move played, or null if there is none
+     */
+    public ChessMove redoMove() {
+        if(!history.canRedo())
+            return null;
+        ChessMove move = MoveLog.move(history.peekRedo());
+        applyMove(move);
+        return move;
+    }
+
+    /**
+     * Undoes or redoes moves until the game is at the given ply
+     *
+     * @param ply number of moves from the start of the recorded history
+     * @throws IllegalArgumentException if the ply is outside the recorded history
+     */
+    public void goToPly(int ply) {
+        if(ply < 0 || ply > history.size())
+            throw new IllegalArgumentException("No position at ply " + ply);
+        while(history.ply() > ply)
+            takeBack();
+        while(history.ply() < ply)
+            applyMove(MoveLog.move(history.peekRedo()));
+    }
+
+    /**
+     * @return how many moves have been made since the start of the recorded history
+     */
+    public int getPly() {
+        return history.ply();
+    }
+
+    /**
+     * @return the moves made so far, oldest first, excluding any that were taken back
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> moves = new ArrayList<>(history.ply());
+        for(int i = 0; i < history.ply(); i++)
+            moves.add(MoveLog.move(history.entry(i)));
+        return moves;
     }
     private void castle(ChessMove move) {
         board.castle(move);
@@ -132,6 +263,30 @@ public class ChessGame {
         return board.isInStalemate(teamColor);
     }
 
+    /**
+     * Looks the current position up in endgame tablebases, which settles covered
+     * endgames instantly instead of playing them out
+     *
+     * @param tablebase the tables to consult
+     * @return the result with perfect play for the team whose turn it is, or null if
+     * the position is not covered
+     */
+    public TablebaseResult adjudicate(Tablebase tablebase) {
+        return tablebase.probe(board, turn);
+    }
+
+    /**
+     * @return true once the game has ended by checkmate, stalemate or resignation and
+     * no more moves may be made
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -140,6 +295,7 @@ public class ChessGame {
     public void setBoard(ChessBoard board) {
         this.board = new ChessBoard();
         this.board.copy(board);
+        history.clear();
     }
 
     /**
@@ -157,11 +313,11 @@ public class ChessGame {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
-        return Objects.equals(board, chessGame.board) && turn == chessGame.turn;
+        return turn == chessGame.turn && Objects.equals(board, chessGame.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, turn);
+        return 31 * Objects.hashCode(board) + Objects.hashCode(turn);
     }
 }
\ No newline at end of file
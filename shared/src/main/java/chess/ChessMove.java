@@ -11,6 +11,7 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public record ChessMove(ChessPosition startPosition, ChessPosition endPosition, PieceType promotionPiece) {
+    private static final PieceType[] PROMOTIONS = PieceType.values();
 
     /**
      * @return ChessPosition of starting location
@@ -39,6 +40,29 @@ public record ChessMove(ChessPosition startPosition, ChessPosition endPosition,
         return promotionPiece;
     }
 
+    /**
+     * Packs the move into an int: start square, end square (squares numbered
+     * (row - 1) * 8 + (col - 1), six bits each) and promotion type ordinal + 1
+     *
+     * @return the move in 15 bits
+     */
+    public int pack() {
+        int from = (startPosition.getRow() - 1) * 8 + (startPosition.getColumn() - 1);
+        int to = (endPosition.getRow() - 1) * 8 + (endPosition.getColumn() - 1);
+        return from | to << 6 | ((promotionPiece == null) ? 0 : promotionPiece.ordinal() + 1) << 12;
+    }
+
+    /**
+     * @return the move {@link #pack()} encoded; higher bits are ignored
+     */
+    public static ChessMove unpack(int packed) {
+        int from = packed & 63;
+        int to = packed >>> 6 & 63;
+        int promotion = packed >>> 12 & 7;
+        return new ChessMove(ChessPosition.of(from / 8 + 1, from % 8 + 1), ChessPosition.of(to / 8 + 1, to % 8 + 1),
+                (promotion == 0) ? null : PROMOTIONS[promotion - 1]);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
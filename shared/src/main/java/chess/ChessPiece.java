@@ -17,11 +17,26 @@ public class ChessPiece {
     private final PieceType type;
 
 
+    private static final ChessPiece[][] PIECES = new ChessPiece[2][PieceType.values().length];
+
+    static {
+        for(TeamColor color : TeamColor.values())
+            for(PieceType type : PieceType.values())
+                PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * @return a shared instance; pieces are immutable, so boards can hold the same one
+     */
+    public static ChessPiece of(TeamColor pieceColor, PieceType type) {
+        return PIECES[pieceColor.ordinal()][type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
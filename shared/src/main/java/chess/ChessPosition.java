@@ -9,6 +9,28 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public record ChessPosition(int row, int col) {
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for(int i = 0; i < 64; i++)
+            SQUARES[i] = new ChessPosition(i / 8 + 1, i % 8 + 1);
+    }
+
+    /**
+     * @return a shared instance for an on-board square, so hot paths need not allocate
+     */
+    public static ChessPosition of(int row, int col) {
+        if(row < 1 || row > 8 || col < 1 || col > 8)
+            return new ChessPosition(row, col);
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @return true if the position is one of the 64 squares of the board
+     */
+    public boolean isOnBoard() {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
 
     /**
      * @return which row this position is in
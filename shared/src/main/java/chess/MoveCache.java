@@ -0,0 +1,17 @@
+package chess;
+
+/**
+ * Somewhere to keep legal move sets of positions seen before, so games passing through
+ * the same positions, such as common openings, validate moves without generating them
+ * again. Install one with {@link ChessGame#setMoveCache(MoveCache)}.
+ */
+public interface MoveCache {
+
+    /**
+     * @param game the position; implementations must not change it
+     * @return the position's legal moves, packed with {@link ChessMove#pack()} and sorted
+     * ascending, as {@link ChessGame#packedLegalMoves()} computes them; callers must not
+     * modify the array
+     */
+    int[] legalMoves(ChessGame game);
+}
@@ -0,0 +1,152 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * A game's moves, one int per ply. Each entry holds the move plus everything the move
+ * destroys (the captured piece, castling rights and en passant square before it), so
+ * undoing is a handful of array writes instead of a replay from the start.
+ * <p>
+ * Entry layout, from the low bits: the move as {@link ChessMove#pack()} packs it (15), captured piece kind + 1 (4), castling rights before (4), en passant
+ * existed (1), en passant square (6), en passant capture (1), castle (1).
+ */
+class MoveLog {
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int CAPTURED_SHIFT = 15;
+    private static final int RIGHTS_SHIFT = 19;
+    private static final int EN_PASSANT_SHIFT = 23;
+    private static final int EN_PASSANT_CAPTURE = 1 << 30;
+    private static final int CASTLE = 1 << 31;
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final TeamColor[] COLORS = TeamColor.values();
+
+    private int[] entries = new int[64];
+    private int size;
+    private int ply;
+
+    /**
+     * Records a move about to be made at the current ply. Recording the move that is
+     * already next keeps the moves after it available to {@link #redo()}; any other
+     * move discards them.
+     */
+    void record(int entry) {
+        if(ply < size && entries[ply] == entry) {
+            ply++;
+            return;
+        }
+        if(ply == entries.length)
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        entries[ply++] = entry;
+        size = ply;
+    }
+
+    int undo() {
+        return entries[--ply];
+    }
+
+    /**
+     * @return the next entry to redo; recording it again advances the ply
+     */
+    int peekRedo() {
+        return entries[ply];
+    }
+
+    boolean canUndo() {
+        return ply > 0;
+    }
+
+    boolean canRedo() {
+        return ply < size;
+    }
+
+    int ply() {
+        return ply;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int entry(int index) {
+        return entries[index];
+    }
+
+    void clear() {
+        size = 0;
+        ply = 0;
+    }
+
+    /**
+     * Encodes a move before it is made on the board
+     */
+    static int encode(ChessBoard board, ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        ChessPiece captured = board.getPiece(move.getEndPosition());
+        int entry = move.pack(); // the low 15 bits
+        if(captured != null)
+            entry |= (captured.getPieceType().ordinal() * 2 + captured.getTeamColor().ordinal() + 1) << CAPTURED_SHIFT;
+        int rights = (board.shortCastlingPrivilegesWhite ? 1 : 0) | (board.longCastlingPrivilegesWhite ? 2 : 0)
+                | (board.shortCastlingPrivilegesBlack ? 4 : 0) | (board.longCastlingPrivilegesBlack ? 8 : 0);
+        entry |= rights << RIGHTS_SHIFT;
+        if(board.existsEnPassant) {
+            entry |= (1 | square(board.enPassantSquare) << 1) << EN_PASSANT_SHIFT;
+            if(piece.getPieceType() == PieceType.PAWN && move.getEndPosition().equals(board.enPassantSquare))
+                entry |= EN_PASSANT_CAPTURE;
+        }
+        if(piece.getPieceType() == PieceType.KING && Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn()) == 2)
+            entry |= CASTLE;
+        return entry;
+    }
+
+    static ChessMove move(int entry) {
+        return ChessMove.unpack(entry);
+    }
+
+    /**
+     * Takes a made move back off the board, restoring what it captured and the castling
+     * and en passant state from before it
+     */
+    static void unmake(ChessBoard board, int entry) {
+        ChessPosition from = position(entry & 63);
+        ChessPosition to = position(entry >>> 6 & 63);
+        ChessPiece moved = board.getPiece(to);
+        TeamColor color = moved.getTeamColor();
+        if((entry & CASTLE) != 0) {
+            int row = from.getRow();
+            ChessPosition rookStart = ChessPosition.of(row, (to.getColumn() == 7) ? 8 : 1);
+            ChessPosition rookEnd = ChessPosition.of(row, (to.getColumn() == 7) ? 6 : 4);
+            board.addPiece(rookStart, board.getPiece(rookEnd));
+            board.addPiece(rookEnd, null);
+        }
+        else if((entry >>> PROMOTION_SHIFT & 7) != 0)
+            moved = ChessPiece.of(color, PieceType.PAWN);
+        board.addPiece(from, moved);
+        int captured = entry >>> CAPTURED_SHIFT & 15;
+        board.addPiece(to, (captured == 0) ? null
+                : ChessPiece.of(COLORS[(captured - 1) % 2], TYPES[(captured - 1) / 2]));
+        if((entry & EN_PASSANT_CAPTURE) != 0) {
+            TeamColor enemy = (color == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+            board.addPiece(ChessPosition.of(from.getRow(), to.getColumn()), ChessPiece.of(enemy, PieceType.PAWN));
+        }
+
+        int rights = entry >>> RIGHTS_SHIFT & 15;
+        board.shortCastlingPrivilegesWhite = (rights & 1) != 0;
+        board.longCastlingPrivilegesWhite = (rights & 2) != 0;
+        board.shortCastlingPrivilegesBlack = (rights & 4) != 0;
+        board.longCastlingPrivilegesBlack = (rights & 8) != 0;
+        int enPassant = entry >>> EN_PASSANT_SHIFT & 127;
+        board.existsEnPassant = (enPassant & 1) != 0;
+        board.enPassantSquare = board.existsEnPassant ? position(enPassant >>> 1) : null;
+    }
+
+    private static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+
+    private static ChessPosition position(int square) {
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+    }
+}
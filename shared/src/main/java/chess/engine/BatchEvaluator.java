@@ -0,0 +1,77 @@
+package chess.engine;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Evaluates a {@link PositionBatch}: material plus piece-square score, as
+ * {@link Evaluator} computes it, and how many squares each side attacks.
+ * <p>
+ * Both implementations use the same bit tricks. Each piece-square table is folded into
+ * a handful of bit planes (plane b holds the squares whose table value has bit b set),
+ * so a kind's whole score is a few AND + popcount steps, and attacks are computed for
+ * all pieces of a kind at once with shifts and occluded fills. Everything is lane-wise,
+ * which is what lets the vector version process several positions per instruction.
+ */
+public abstract class BatchEvaluator {
+    static final long NOT_A_FILE = 0xFEFEFEFEFEFEFEFEL;
+    static final long NOT_H_FILE = 0x7F7F7F7F7F7F7F7FL;
+    static final long NOT_AB_FILE = 0xFCFCFCFCFCFCFCFCL;
+    static final long NOT_GH_FILE = 0x3F3F3F3F3F3F3F3FL;
+
+    /** Table value of each kind's lowest square, added once per piece */
+    static final int[] BASE = new int[PositionBatch.KINDS];
+    /** Bit planes of (table value - BASE) per kind */
+    static final long[][] PLANES = new long[PositionBatch.KINDS][];
+
+    static {
+        for(PieceType type : PieceType.values())
+            for(TeamColor color : TeamColor.values()) {
+                int kind = type.ordinal() * 2 + color.ordinal();
+                int[] values = new int[64];
+                int min = Integer.MAX_VALUE;
+                int max = Integer.MIN_VALUE;
+                for(int square = 0; square < 64; square++) {
+                    int material = (type == PieceType.KING) ? 0 : Evaluator.value(type);
+                    values[square] = material + Evaluator.squareBonus(type, color, square / 8 + 1, square % 8 + 1);
+                    min = Math.min(min, values[square]);
+                    max = Math.max(max, values[square]);
+                }
+                int bits = 32 - Integer.numberOfLeadingZeros(max - min);
+                BASE[kind] = min;
+                PLANES[kind] = new long[bits];
+                for(int square = 0; square < 64; square++)
+                    for(int bit = 0; bit < bits; bit++)
+                        if(((values[square] - min) >> bit & 1) != 0)
+                            PLANES[kind][bit] |= 1L << square;
+            }
+    }
+
+    /**
+     * Picks the vector implementation when the incubating Vector API module is present
+     * (run with {@code --add-modules jdk.incubator.vector}), otherwise the scalar one
+     */
+    public static BatchEvaluator create() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent())
+            return new VectorBatchEvaluator();
+        return new ScalarBatchEvaluator();
+    }
+
+    /**
+     * Evaluates every position in the batch
+     *
+     * @param scores       receives each position's score from white's point of view
+     * @param whiteAttacks receives how many squares white attacks in each position
+     * @param blackAttacks receives how many squares black attacks in each position
+     */
+    public abstract void evaluate(PositionBatch batch, int[] scores, int[] whiteAttacks, int[] blackAttacks);
+
+    /**
+     * @return a short name for benchmark output
+     */
+    public abstract String name();
+
+    static int kind(PieceType type, TeamColor color) {
+        return type.ordinal() * 2 + color.ordinal();
+    }
+}
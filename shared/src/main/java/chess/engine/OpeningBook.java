@@ -0,0 +1,193 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Read-only opening book in the Polyglot {@code .bin} layout: 16-byte big-endian entries
+ * (key, move, weight, learn) sorted by position key. The file is memory-mapped and
+ * searched in place, so a lookup allocates nothing and one instance can be shared by
+ * every engine thread.
+ * <p>
+ * Keys come from {@link Zobrist}, which uses the Polyglot keys, so any Polyglot book can be
+ * opened, as well as books compiled with {@link OpeningBookBuilder}.
+ */
+public class OpeningBook {
+    static final int ENTRY_SIZE = 16;
+
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Maps a book file into memory
+     *
+     * @param path the {@code .bin} file to open
+     * @throws IOException if the file cannot be read or is not a whole number of entries
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() % ENTRY_SIZE != 0 || channel.size() / ENTRY_SIZE > Integer.MAX_VALUE)
+                throw new IOException("Not a book file: " + path);
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return how many entries the book holds
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Binary searches for the first entry with the given key
+     *
+     * @return the entry index, or -1 if the position is not in the book
+     */
+    public int firstEntry(long key) {
+        int low = 0;
+        int high = size - 1;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(Long.compareUnsigned(key(mid), key) < 0)
+                low = mid + 1;
+            else high = mid;
+        }
+        return (size > 0 && key(low) == key) ? low : -1;
+    }
+
+    public long key(int entry) {
+        return entries.getLong(entry * ENTRY_SIZE);
+    }
+
+    public int move(int entry) {
+        return entries.getShort(entry * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    public int weight(int entry) {
+        return entries.getShort(entry * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+
+    /**
+     * Picks a book move for the position, at random in proportion to the entry weights
+     *
+     * @return a legal book move, or null if the position is out of book
+     */
+    public ChessMove pickMove(ChessGame game, RandomGenerator random) {
+        long key = Zobrist.hash(game);
+        int first = firstEntry(key);
+        if(first < 0)
+            return null;
+        int total = 0;
+        for(int i = first; i < size && key(i) == key; i++)
+            total += weight(i);
+        if(total == 0)
+            return null;
+        int pick = random.nextInt(total);
+        for(int i = first; i < size && key(i) == key; i++) {
+            pick -= weight(i);
+            if(pick < 0)
+                return legalOrNull(game, toGameMove(game, move(i)));
+        }
+        return null;
+    }
+
+    /**
+     * @return every legal book move for the position, most popular first
+     */
+    public List<ChessMove> moves(ChessGame game) {
+        List<ChessMove> moves = new ArrayList<>();
+        long key = Zobrist.hash(game);
+        int first = firstEntry(key);
+        if(first < 0)
+            return moves;
+        List<Integer> entriesFound = new ArrayList<>();
+        for(int i = first; i < size && key(i) == key; i++)
+            entriesFound.add(i);
+        entriesFound.sort((a, b) -> weight(b) - weight(a));
+        Collection<ChessMove> legal = game.legalMoves();
+        for(int entry : entriesFound) {
+            ChessMove move = toGameMove(game, move(entry));
+            if(legal.contains(move))
+                moves.add(move);
+        }
+        return moves;
+    }
+
+    /**
+     * Decodes a book move for this position. Polyglot stores castling as the king
+     * capturing its own rook; that is turned back into the king's two square move.
+     */
+    private static ChessMove toGameMove(ChessGame game, int packed) {
+        ChessMove move = decodeMove(packed);
+        ChessPosition start = move.getStartPosition();
+        ChessPiece piece = game.getBoard().getPiece(start);
+        int toCol = move.getEndPosition().getColumn();
+        if(piece != null && piece.getPieceType() == PieceType.KING && start.getColumn() == 5
+                && start.getRow() == move.getEndPosition().getRow() && (toCol == 8 || toCol == 1))
+            return new ChessMove(start, new ChessPosition(start.getRow(), (toCol == 8) ? 7 : 3), null);
+        return move;
+    }
+
+    private static ChessMove legalOrNull(ChessGame game, ChessMove move) {
+        return game.validMoves(move.getStartPosition()).contains(move) ? move : null;
+    }
+
+    /**
+     * Packs a move into the Polyglot 16-bit format: to-file, to-row, from-file, from-row
+     * in three bits each, then the promotion piece
+     */
+    public static int encodeMove(ChessMove move) {
+        int promotion = 0;
+        if(move.getPromotionPiece() != null) {
+            promotion = switch (move.getPromotionPiece()) {
+                case KNIGHT -> 1;
+                case BISHOP -> 2;
+                case ROOK -> 3;
+                case QUEEN -> 4;
+                default -> throw new IllegalArgumentException("Cannot promote to " + move.getPromotionPiece());
+            };
+        }
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        return (end.getColumn() - 1) | (end.getRow() - 1) << 3 | (start.getColumn() - 1) << 6
+                | (start.getRow() - 1) << 9 | promotion << 12;
+    }
+
+    /**
+     * Unpacks a Polyglot move exactly as stored
+     */
+    public static ChessMove decodeMove(int packed) {
+        int toCol = (packed & 7) + 1;
+        int toRow = (packed >> 3 & 7) + 1;
+        int fromCol = (packed >> 6 & 7) + 1;
+        int fromRow = (packed >> 9 & 7) + 1;
+        PieceType promotion = switch (packed >> 12 & 7) {
+            case 1 -> PieceType.KNIGHT;
+            case 2 -> PieceType.BISHOP;
+            case 3 -> PieceType.ROOK;
+            case 4 -> PieceType.QUEEN;
+            default -> null;
+        };
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), promotion);
+    }
+}
@@ -0,0 +1,134 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+import chess.notation.PgnReader;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Compiles an {@link OpeningBook} from a PGN corpus. Every position reached in the first
+ * plies of each game is recorded together with the move played from it, and the number
+ * of games that chose a move becomes its weight.
+ */
+public class OpeningBookBuilder {
+    private final int maxPlies;
+    private final Map<BookEntry, Integer> counts = new HashMap<>();
+    private int games;
+
+    /**
+     * @param maxPlies how many plies of each game to take into the book
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Adds one game. The game is followed until maxPlies or until a move cannot be read.
+     *
+     * @param sanMoves the game's moves in standard algebraic notation
+     */
+    public void addGame(List<String> sanMoves) {
+        ChessGame game = new ChessGame();
+        int plies = Math.min(maxPlies, sanMoves.size());
+        for(int i = 0; i < plies; i++) {
+            ChessMove move = PgnReader.resolveSan(game, sanMoves.get(i));
+            if(move == null)
+                break;
+            counts.merge(new BookEntry(Zobrist.hash(game), OpeningBook.encodeMove(bookMove(game, move))), 1, Integer::sum);
+            game.applyMove(move);
+        }
+        games++;
+    }
+
+    /**
+     * Adds every game in a PGN file
+     */
+    public void addPgn(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            PgnReader.forEachGame(reader, this::addGame);
+        }
+    }
+
+    /**
+     * @return how many games have been added
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Writes the book, sorted by key with the most played move first
+     *
+     * @return how many entries were written
+     */
+    public int write(Path output) throws IOException {
+        List<Map.Entry<BookEntry, Integer>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort((a, b) -> {
+            int byKey = Long.compareUnsigned(a.getKey().key(), b.getKey().key());
+            return (byKey != 0) ? byKey : b.getValue() - a.getValue();
+        });
+        int maxCount = 1;
+        for(Map.Entry<BookEntry, Integer> entry : sorted)
+            maxCount = Math.max(maxCount, entry.getValue());
+        try (OutputStream file = Files.newOutputStream(output);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            for(Map.Entry<BookEntry, Integer> entry : sorted) {
+                int weight = (maxCount <= 0xFFFF) ? entry.getValue() : Math.max(1, (int) ((long) entry.getValue() * 0xFFFF / maxCount));
+                out.writeLong(entry.getKey().key());
+                out.writeShort(entry.getKey().move());
+                out.writeShort(weight);
+                out.writeInt(0); // learn, unused
+            }
+        }
+        return sorted.size();
+    }
+
+    /**
+     * Polyglot stores castling as the king capturing its own rook
+     */
+    private static ChessMove bookMove(ChessGame game, ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPiece piece = game.getBoard().getPiece(start);
+        int distance = move.getEndPosition().getColumn() - start.getColumn();
+        if(piece.getPieceType() != PieceType.KING || Math.abs(distance) != 2)
+            return move;
+        return new ChessMove(start, new ChessPosition(start.getRow(), (distance > 0) ? 8 : 1), null);
+    }
+
+    private record BookEntry(long key, int move) {}
+
+    /**
+     * Compiles a book from the command line:
+     * {@code OpeningBookBuilder <output.bin> <maxPlies> <pgn file or directory>...}
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 3) {
+            System.err.println("usage: OpeningBookBuilder <output.bin> <maxPlies> <pgn file or directory>...");
+            System.exit(1);
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder(Integer.parseInt(args[1]));
+        for(int i = 2; i < args.length; i++) {
+            try (Stream<Path> files = Files.walk(Path.of(args[i]))) {
+                for(Path file : files.filter(path -> path.toString().endsWith(".pgn")).toList())
+                    builder.addPgn(file);
+            }
+        }
+        int entries = builder.write(Path.of(args[0]));
+        System.out.println("Wrote " + entries + " entries from " + builder.getGames() + " games to " + args[0]);
+    }
+}
@@ -0,0 +1,131 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth, the standard check that
+ * move generation is correct. The parallel driver splits the tree into fork-join tasks,
+ * each working on its own copy of the game; subtrees deeper than {@link #SPLIT_DEPTH} are
+ * split again so work keeps balancing when some root moves have far bigger trees.
+ */
+public class Perft {
+    /** Subtrees with at least this many plies left are split into tasks */
+    private static final int SPLIT_DEPTH = 3;
+
+    private Perft() {}
+
+    /**
+     * Single-threaded perft
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game, depth, null);
+    }
+
+    /**
+     * Single-threaded perft
+     *
+     * @param table transposition cache for subtree counts, or null
+     */
+    public static long perft(ChessGame game, int depth, PerftTable table) {
+        if(depth == 0)
+            return 1;
+        Collection<ChessMove> moves = game.legalMoves();
+        if(depth == 1)
+            return moves.size();
+        long hash = 0;
+        if(table != null) {
+            hash = Zobrist.hash(game);
+            long cached = table.get(hash, depth);
+            if(cached >= 0)
+                return cached;
+        }
+        long nodes = 0;
+        for(ChessMove move : moves) {
+            ChessGame child = new ChessGame(game);
+            child.applyMove(move);
+            nodes += perft(child, depth - 1, table);
+        }
+        if(table != null)
+            table.put(hash, depth, nodes);
+        return nodes;
+    }
+
+    /**
+     * Perft on a fork-join pool
+     *
+     * @param table transposition cache shared by all tasks, or null
+     */
+    public static long parallelPerft(ChessGame game, int depth, PerftTable table, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(new ChessGame(game), depth, table));
+    }
+
+    private static class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+        private final PerftTable table;
+
+        PerftTask(ChessGame game, int depth, PerftTable table) {
+            this.game = game;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            if(depth < SPLIT_DEPTH)
+                return perft(game, depth, table);
+            long hash = 0;
+            if(table != null) {
+                hash = Zobrist.hash(game);
+                long cached = table.get(hash, depth);
+                if(cached >= 0)
+                    return cached;
+            }
+            List<PerftTask> tasks = new ArrayList<>();
+            for(ChessMove move : game.legalMoves()) {
+                ChessGame child = new ChessGame(game);
+                child.applyMove(move);
+                tasks.add(new PerftTask(child, depth - 1, table));
+            }
+            long nodes = 0;
+            for(PerftTask task : invokeAll(tasks))
+                nodes += task.join();
+            if(table != null)
+                table.put(hash, depth, nodes);
+            return nodes;
+        }
+    }
+
+    /**
+     * Times the serial and parallel drivers from the start position:
+     * {@code Perft <depth> [hashMegabytes]}
+     */
+    public static void main(String[] args) {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int hashMegabytes = (args.length > 1) ? Integer.parseInt(args[1]) : 0;
+        ChessGame game = new ChessGame();
+
+        long start = System.nanoTime();
+        long serialNodes = perft(game, depth);
+        double serialSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("serial:   %d nodes in %.2fs%n", serialNodes, serialSeconds);
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        PerftTable table = (hashMegabytes > 0) ? new PerftTable(hashMegabytes) : null;
+        start = System.nanoTime();
+        long parallelNodes = parallelPerft(game, depth, table, pool);
+        double parallelSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("parallel: %d nodes in %.2fs on %d threads%s%n", parallelNodes, parallelSeconds,
+                pool.getParallelism(), (table != null) ? " with " + hashMegabytes + "MB hash" : "");
+        System.out.printf("speedup:  %.2fx%n", serialSeconds / parallelSeconds);
+        if(serialNodes != parallelNodes)
+            System.out.println("MISMATCH between serial and parallel counts");
+    }
+}
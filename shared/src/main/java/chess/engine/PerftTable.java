@@ -0,0 +1,50 @@
+package chess.engine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Shared cache of perft subtree counts keyed by (position hash, depth), so transposed
+ * subtrees are only counted once. It is always-replace and lock-free: each slot stores
+ * the key XORed with the count next to the count itself, so an entry torn by two
+ * threads writing at once simply fails to match and is recounted.
+ */
+public class PerftTable {
+    private static final long[] DEPTH_KEYS = new long[64];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x9E3779B97F4A7C15L);
+        for(int i = 0; i < DEPTH_KEYS.length; i++)
+            DEPTH_KEYS[i] = random.nextLong();
+    }
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param sizeMegabytes memory to use, rounded down to a power of two number of entries
+     */
+    public PerftTable(int sizeMegabytes) {
+        long entries = Long.highestOneBit(Math.max(1, (long) sizeMegabytes * 1024 * 1024 / 16));
+        slots = new AtomicLongArray((int) Math.min(entries, 1 << 29) * 2);
+        mask = slots.length() / 2 - 1;
+    }
+
+    /**
+     * @return the stored count, or -1 if the subtree is not cached
+     */
+    public long get(long hash, int depth) {
+        long key = hash ^ DEPTH_KEYS[depth];
+        int slot = (int) key & mask;
+        long check = slots.get(slot * 2);
+        long count = slots.get(slot * 2 + 1);
+        return ((check ^ count) == key) ? count : -1;
+    }
+
+    public void put(long hash, int depth, long count) {
+        long key = hash ^ DEPTH_KEYS[depth];
+        int slot = (int) key & mask;
+        slots.set(slot * 2, key ^ count);
+        slots.set(slot * 2 + 1, count);
+    }
+}
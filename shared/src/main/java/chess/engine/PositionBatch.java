@@ -0,0 +1,57 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Many unrelated positions laid out structure-of-arrays: one bitboard array per piece
+ * kind, indexed by position. Kinds are numbered like {@link Zobrist} numbers them,
+ * type ordinal * 2 + color ordinal, and bit (row - 1) * 8 + (col - 1) marks a square.
+ * This layout lets {@link BatchEvaluator} work on several positions per instruction.
+ */
+public class PositionBatch {
+    public static final int KINDS = 12;
+
+    final long[][] pieces;
+    private int size;
+
+    public PositionBatch(int capacity) {
+        pieces = new long[KINDS][capacity];
+    }
+
+    /**
+     * Appends a position
+     *
+     * @throws IllegalStateException if the batch is full
+     */
+    public void add(ChessBoard board) {
+        if(size == capacity())
+            throw new IllegalStateException("Batch is full: " + size);
+        for(int kind = 0; kind < KINDS; kind++)
+            pieces[kind][size] = 0;
+        for(int i = 1; i <= 8; i++)
+            for(int j = 1; j <= 8; j++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(i, j));
+                if(piece != null)
+                    pieces[kind(piece)][size] |= 1L << ((i - 1) * 8 + (j - 1));
+            }
+        size++;
+    }
+
+    static int kind(ChessPiece piece) {
+        return piece.getPieceType().ordinal() * 2 + piece.getTeamColor().ordinal();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return pieces[0].length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,89 @@
+package chess.engine;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * One position at a time, the fallback when the Vector API is not available
+ */
+public class ScalarBatchEvaluator extends BatchEvaluator {
+
+    @Override
+    public void evaluate(PositionBatch batch, int[] scores, int[] whiteAttacks, int[] blackAttacks) {
+        evaluate(batch, 0, batch.size(), scores, whiteAttacks, blackAttacks);
+    }
+
+    /**
+     * Evaluates positions [from, to); also used for the vector version's tail
+     */
+    static void evaluate(PositionBatch batch, int from, int to, int[] scores, int[] whiteAttacks, int[] blackAttacks) {
+        long[][] pieces = batch.pieces;
+        for(int i = from; i < to; i++) {
+            long occupied = 0;
+            for(int kind = 0; kind < PositionBatch.KINDS; kind++)
+                occupied |= pieces[kind][i];
+            int score = 0;
+            for(int kind = 0; kind < PositionBatch.KINDS; kind++) {
+                long bitboard = pieces[kind][i];
+                int kindScore = BASE[kind] * Long.bitCount(bitboard);
+                long[] planes = PLANES[kind];
+                for(int bit = 0; bit < planes.length; bit++)
+                    kindScore += Long.bitCount(bitboard & planes[bit]) << bit;
+                score += (kind % 2 == TeamColor.WHITE.ordinal()) ? kindScore : -kindScore;
+            }
+            scores[i] = score;
+            whiteAttacks[i] = Long.bitCount(attacks(pieces, i, TeamColor.WHITE, ~occupied));
+            blackAttacks[i] = Long.bitCount(attacks(pieces, i, TeamColor.BLACK, ~occupied));
+        }
+    }
+
+    private static long attacks(long[][] pieces, int i, TeamColor color, long empty) {
+        int side = color.ordinal();
+        long pawns = pieces[kind(PieceType.PAWN, color)][i];
+        long knights = pieces[kind(PieceType.KNIGHT, color)][i];
+        long king = pieces[kind(PieceType.KING, color)][i];
+        long queens = pieces[kind(PieceType.QUEEN, color)][i];
+        long orthogonal = pieces[kind(PieceType.ROOK, color)][i] | queens;
+        long diagonal = pieces[kind(PieceType.BISHOP, color)][i] | queens;
+
+        long attacked = (side == TeamColor.WHITE.ordinal())
+                ? (pawns << 9 & NOT_A_FILE) | (pawns << 7 & NOT_H_FILE)
+                : (pawns >>> 7 & NOT_A_FILE) | (pawns >>> 9 & NOT_H_FILE);
+        attacked |= (knights << 17 & NOT_A_FILE) | (knights << 15 & NOT_H_FILE) | (knights << 10 & NOT_AB_FILE)
+                | (knights << 6 & NOT_GH_FILE) | (knights >>> 15 & NOT_A_FILE) | (knights >>> 17 & NOT_H_FILE)
+                | (knights >>> 6 & NOT_AB_FILE) | (knights >>> 10 & NOT_GH_FILE);
+        attacked |= (king << 8) | (king >>> 8) | (king << 1 & NOT_A_FILE) | (king >>> 1 & NOT_H_FILE)
+                | (king << 9 & NOT_A_FILE) | (king << 7 & NOT_H_FILE) | (king >>> 7 & NOT_A_FILE) | (king >>> 9 & NOT_H_FILE);
+        attacked |= slide(orthogonal, empty, 8, -1L) | slide(orthogonal, empty, -8, -1L)
+                | slide(orthogonal, empty, 1, NOT_A_FILE) | slide(orthogonal, empty, -1, NOT_H_FILE);
+        attacked |= slide(diagonal, empty, 9, NOT_A_FILE) | slide(diagonal, empty, 7, NOT_H_FILE)
+                | slide(diagonal, empty, -7, NOT_A_FILE) | slide(diagonal, empty, -9, NOT_H_FILE);
+        return attacked;
+    }
+
+    /**
+     * Kogge-Stone occluded fill: every square the sliders reach in one direction,
+     * stopping at and including the first occupied square
+     *
+     * @param shift the direction as a bit shift, positive towards higher squares
+     * @param wrap  squares a step in this direction may land on without wrapping a file
+     */
+    private static long slide(long sliders, long empty, int shift, long wrap) {
+        long propagate = empty & wrap;
+        sliders |= propagate & shift(sliders, shift);
+        propagate &= shift(propagate, shift);
+        sliders |= propagate & shift(sliders, shift * 2);
+        propagate &= shift(propagate, shift * 2);
+        sliders |= propagate & shift(sliders, shift * 4);
+        return shift(sliders, shift) & wrap;
+    }
+
+    private static long shift(long bitboard, int shift) {
+        return (shift > 0) ? bitboard << shift : bitboard >>> -shift;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
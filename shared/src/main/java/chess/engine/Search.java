@@ -0,0 +1,247 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fixed-depth alpha-beta search. At the horizon the search drops into a quiescence
+ * search that only plays captures and promotions until the position is quiet, so
+ * scores are not taken in the middle of an exchange.
+ */
+public class Search {
+    public static final int MATE = 100000;
+    private static final int INFINITY = 1000000;
+    /** Largest positional swing we expect a capture to bring on top of the material it wins */
+    private static final int DELTA_MARGIN = 200;
+    /** The clock is checked once every CHECK_MASK + 1 nodes */
+    private static final long CHECK_MASK = 255;
+
+    private long nodes;
+    private TimeManager timeManager;
+    private Tablebase tablebase;
+    private long nodeLimit = Long.MAX_VALUE;
+
+    /**
+     * Lets the search score covered endgames from the tables instead of searching them
+     *
+     * @param tablebase the tables to probe, or null to search everything
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Caps how many nodes a time-managed search may visit before it stops like it
+     * would at the hard deadline
+     *
+     * @param nodeLimit the node budget, or Long.MAX_VALUE for none
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Searches the position to the given depth
+     *
+     * @param game  the position to search, left untouched
+     * @param depth how many plies to search before quiescence takes over
+     * @return the best move and its score
+     */
+    public SearchResult search(ChessGame game, int depth) {
+        nodes = 0;
+        timeManager = null;
+        return searchRoot(game, depth, null);
+    }
+
+    /**
+     * Searches the position with iterative deepening until maxDepth is reached or the
+     * time manager runs out. Each iteration searches the previous best move first, so when
+     * the hard deadline aborts an iteration the best move found so far is still usable:
+     * either one that beat the previous best at the new depth, or the previous best itself.
+     *
+     * @param game        the position to search, left untouched
+     * @param maxDepth    the deepest iteration to run
+     * @param timeManager the deadlines to respect; finished when this returns
+     * @return the best move found so far and its score
+     */
+    public SearchResult search(ChessGame game, int maxDepth, TimeManager timeManager) {
+        nodes = 0;
+        this.timeManager = timeManager;
+        SearchResult best = null;
+        try {
+            for(int depth = 1; depth <= maxDepth; depth++) {
+                best = searchRoot(game, depth, (best == null) ? null : best.bestMove());
+                if(best.bestMove() == null || Math.abs(best.score()) >= MATE - depth || timeManager.softExpired())
+                    break;
+            }
+        }
+        catch (SearchAbortedException aborted) {
+            if(best == null || aborted.completedMove)
+                best = aborted.partial;
+        }
+        finally {
+            timeManager.finish();
+            this.timeManager = null;
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes);
+    }
+
+    private SearchResult searchRoot(ChessGame game, int depth, ChessMove previousBest) {
+        List<ChessMove> moves = orderMoves(game, game.legalMoves());
+        if(previousBest != null && moves.remove(previousBest))
+            moves.add(0, previousBest);
+        ChessMove bestMove = null;
+        int alpha = -INFINITY;
+        try {
+            for(ChessMove move : moves) {
+                ChessGame child = new ChessGame(game);
+                child.applyMove(move);
+                int score = -negamax(child, depth - 1, -INFINITY, -alpha, 1);
+                if(score > alpha || bestMove == null) {
+                    alpha = score;
+                    bestMove = move;
+                }
+            }
+        }
+        catch (SearchAbortedException aborted) {
+            // A move that beat the previous best in an unfinished iteration is still trustworthy
+            aborted.partial = (bestMove != null) ? new SearchResult(bestMove, alpha, depth, nodes)
+                    : new SearchResult(moves.get(0), 0, 0, nodes);
+            aborted.completedMove = bestMove != null;
+            throw aborted;
+        }
+        if(bestMove == null)
+            alpha = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+        return new SearchResult(bestMove, alpha, depth, nodes);
+    }
+
+    private int negamax(ChessGame game, int depth, int alpha, int beta, int ply) {
+        if(depth <= 0)
+            return quiescence(game, alpha, beta, ply);
+        countNode();
+        if(tablebase != null) {
+            TablebaseResult known = tablebase.probe(game.getBoard(), game.getTeamTurn());
+            if(known != null)
+                return switch (known.outcome()) {
+                    case WIN -> MATE - ply - known.pliesToMate();
+                    case LOSS -> -MATE + ply + known.pliesToMate();
+                    case DRAW -> 0;
+                };
+        }
+        List<ChessMove> moves = orderMoves(game, game.legalMoves());
+        if(moves.isEmpty())
+            return game.isInCheck(game.getTeamTurn()) ? -MATE + ply : 0;
+        for(ChessMove move : moves) {
+            ChessGame child = new ChessGame(game);
+            child.applyMove(move);
+            int score = -negamax(child, depth - 1, -beta, -alpha, ply + 1);
+            if(score >= beta)
+                return score;
+            if(score > alpha)
+                alpha = score;
+        }
+        return alpha;
+    }
+
+    /**
+     * Searches captures and promotions only. The side to move may "stand pat" on the
+     * static evaluation instead of capturing, and captures that cannot raise the score
+     * to alpha even if they win their victim outright are skipped (delta pruning).
+     */
+    private int quiescence(ChessGame game, int alpha, int beta, int ply) {
+        countNode();
+        ChessBoard board = game.getBoard();
+        int standPat = Evaluator.evaluate(board, game.getTeamTurn());
+        if(standPat >= beta)
+            return standPat;
+        if(standPat > alpha)
+            alpha = standPat;
+
+        List<ChessMove> tactical = new ArrayList<>();
+        for(ChessMove move : game.legalMoves())
+            if(move.getPromotionPiece() != null || board.isCaptureMove(move))
+                tactical.add(move);
+        for(ChessMove move : orderMoves(game, tactical)) {
+            if(standPat + materialGain(board, move) + DELTA_MARGIN <= alpha)
+                continue;
+            if(move.getPromotionPiece() == null && !StaticExchange.isSafe(board, move))
+                continue;
+            ChessGame child = new ChessGame(game);
+            child.applyMove(move);
+            int score = -quiescence(child, -beta, -alpha, ply + 1);
+            if(score >= beta)
+                return score;
+            if(score > alpha)
+                alpha = score;
+        }
+        return alpha;
+    }
+
+    private void countNode() {
+        nodes++;
+        if((nodes & CHECK_MASK) == 0 && timeManager != null && (timeManager.shouldAbort() || nodes >= nodeLimit))
+            throw new SearchAbortedException();
+    }
+
+    /**
+     * @return the most material a move can win outright: its victim plus any promotion
+     */
+    private static int materialGain(ChessBoard board, ChessMove move) {
+        int gain = 0;
+        ChessPiece victim = board.getPiece(move.getEndPosition());
+        if(victim != null)
+            gain += Evaluator.value(victim.getPieceType());
+        else if(board.isCaptureMove(move))
+            gain += Evaluator.PAWN_VALUE;
+        if(move.getPromotionPiece() != null)
+            gain += Evaluator.value(move.getPromotionPiece()) - Evaluator.PAWN_VALUE;
+        return gain;
+    }
+
+    /**
+     * Orders captures and promotions first, best exchange first, then quiet moves
+     */
+    private static List<ChessMove> orderMoves(ChessGame game, Iterable<ChessMove> moves) {
+        ChessBoard board = game.getBoard();
+        List<ChessMove> quiet = new ArrayList<>();
+        List<ScoredMove> tactical = new ArrayList<>();
+        for(ChessMove move : moves) {
+            if(move.getPromotionPiece() != null || board.isCaptureMove(move))
+                tactical.add(new ScoredMove(move, StaticExchange.evaluate(board, move)));
+            else quiet.add(move);
+        }
+        tactical.sort(Comparator.comparingInt(scored -> -scored.score()));
+        List<ChessMove> ordered = new ArrayList<>(tactical.size() + quiet.size());
+        for(ScoredMove scored : tactical)
+            ordered.add(scored.move());
+        ordered.addAll(quiet);
+        return ordered;
+    }
+
+    private record ScoredMove(ChessMove move, int score) {}
+
+    /**
+     * Unwinds the search when the hard deadline passes, carrying the root's best move so far
+     */
+    private static class SearchAbortedException extends RuntimeException {
+        private SearchResult partial;
+        private boolean completedMove;
+
+        SearchAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * @return how many positions the last search visited
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,14 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a search: the move to play and what the engine thinks of it
+ *
+ * @param bestMove the best move found, or null if the side to move has no moves
+ * @param score    the score of the position after bestMove, from the mover's point of view
+ * @param depth    the depth the score comes from
+ * @param nodes    how many positions were visited, quiescence included
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes) {
+}
@@ -0,0 +1,168 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+
+/**
+ * Static exchange evaluation (SEE). Works out the material result of the whole
+ * capture sequence on one square without making any moves on the board: pieces
+ * that have already captured are masked out, so x-ray attackers behind them
+ * (a rook behind a rook, a bishop behind a queen) join the exchange naturally.
+ */
+public class StaticExchange {
+    private static final int[][] ORTHOGONALS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] DIAGONALS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private StaticExchange() {}
+
+    /**
+     * Evaluates the exchange started by a move, assuming both sides keep
+     * recapturing with their least valuable attacker for as long as it pays.
+     *
+     * @param board the board the move is played on
+     * @param move  the capture (or quiet move) to evaluate
+     * @return the expected material gain for the side making the move, in centipawns
+     */
+    public static int evaluate(ChessBoard board, ChessMove move) {
+        ChessPiece mover = board.getPiece(move.getStartPosition());
+        if(mover == null)
+            return 0;
+        int row = move.getEndPosition().getRow();
+        int col = move.getEndPosition().getColumn();
+        boolean[][] removed = new boolean[8][8];
+        int[] gain = new int[32];
+
+        ChessPiece victim = board.getPiece(move.getEndPosition());
+        gain[0] = (victim != null) ? Evaluator.value(victim.getPieceType()) : 0;
+        if(victim == null && board.isCaptureMove(move)) { // en passant, the captured pawn sits behind the target
+            gain[0] = Evaluator.PAWN_VALUE;
+            removed[move.getStartPosition().getRow() - 1][col - 1] = true;
+        }
+        int onSquare = Evaluator.value(mover.getPieceType());
+        if(move.getPromotionPiece() != null) {
+            gain[0] += Evaluator.value(move.getPromotionPiece()) - Evaluator.PAWN_VALUE;
+            onSquare = Evaluator.value(move.getPromotionPiece());
+        }
+        removed[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = true;
+
+        TeamColor side = ChessBoard.opponent(mover.getTeamColor());
+        int depth = 0;
+        while(depth < gain.length - 1) {
+            int attacker = leastValuableAttacker(board, row, col, side, removed);
+            if(attacker < 0)
+                break;
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            if(Math.max(-gain[depth - 1], gain[depth]) < 0)
+                break; // neither side can improve by continuing
+            int attackerRow = attacker / 8;
+            int attackerCol = attacker % 8;
+            onSquare = Evaluator.value(board.getPiece(new ChessPosition(attackerRow + 1, attackerCol + 1)).getPieceType());
+            removed[attackerRow][attackerCol] = true;
+            side = ChessBoard.opponent(side);
+        }
+        while(depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * @return true if the exchange started by the move loses no material
+     */
+    public static boolean isSafe(ChessBoard board, ChessMove move) {
+        return evaluate(board, move) >= 0;
+    }
+
+    /**
+     * Finds the cheapest piece of the given team that attacks (row, col), ignoring
+     * pieces marked as removed
+     *
+     * @return the attacker's square as (row - 1) * 8 + (col - 1), or -1 if there is none
+     */
+    private static int leastValuableAttacker(ChessBoard board, int row, int col, TeamColor side, boolean[][] removed) {
+        int best = -1;
+        int bestValue = Integer.MAX_VALUE;
+
+        int pawnRow = (side == TeamColor.WHITE) ? row - 1 : row + 1;
+        for(int dc = -1; dc <= 1; dc += 2) {
+            int square = attackerAt(board, pawnRow, col + dc, side, removed, PieceType.PAWN);
+            if(square >= 0)
+                return square; // nothing is cheaper than a pawn
+        }
+        for(int[] offset : ChessBoard.KNIGHT_OFFSETS) {
+            int square = attackerAt(board, row + offset[0], col + offset[1], side, removed, PieceType.KNIGHT);
+            if(square >= 0 && Evaluator.KNIGHT_VALUE < bestValue) {
+                best = square;
+                bestValue = Evaluator.KNIGHT_VALUE;
+            }
+        }
+        for(int[] direction : DIAGONALS) {
+            int square = sliderAt(board, row, col, direction, side, removed, PieceType.BISHOP);
+            if(square >= 0) {
+                int value = pieceValue(board, square);
+                if(value < bestValue) {
+                    best = square;
+                    bestValue = value;
+                }
+            }
+        }
+        for(int[] direction : ORTHOGONALS) {
+            int square = sliderAt(board, row, col, direction, side, removed, PieceType.ROOK);
+            if(square >= 0) {
+                int value = pieceValue(board, square);
+                if(value < bestValue) {
+                    best = square;
+                    bestValue = value;
+                }
+            }
+        }
+        if(best >= 0)
+            return best;
+        for(int[] offset : ChessBoard.KING_OFFSETS) {
+            int square = attackerAt(board, row + offset[0], col + offset[1], side, removed, PieceType.KING);
+            if(square >= 0)
+                return square;
+        }
+        return -1;
+    }
+
+    private static int attackerAt(ChessBoard board, int row, int col, TeamColor side, boolean[][] removed, PieceType type) {
+        if(row < 1 || row > 8 || col < 1 || col > 8 || removed[row - 1][col - 1])
+            return -1;
+        ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+        if(piece == null || piece.getTeamColor() != side || piece.getPieceType() != type)
+            return -1;
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * Walks a ray out from (row, col) and returns the first piece on it if it belongs to
+     * side and slides along this kind of ray (the given type or a queen)
+     */
+    private static int sliderAt(ChessBoard board, int row, int col, int[] direction, TeamColor side, boolean[][] removed, PieceType type) {
+        int r = row + direction[0];
+        int c = col + direction[1];
+        while(r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+            if(!removed[r - 1][c - 1]) {
+                ChessPiece piece = board.getPiece(new ChessPosition(r, c));
+                if(piece != null) {
+                    boolean slides = piece.getPieceType() == type || piece.getPieceType() == PieceType.QUEEN;
+                    return (slides && piece.getTeamColor() == side) ? (r - 1) * 8 + (c - 1) : -1;
+                }
+            }
+            r += direction[0];
+            c += direction[1];
+        }
+        return -1;
+    }
+
+    private static int pieceValue(ChessBoard board, int square) {
+        return Evaluator.value(board.getPiece(new ChessPosition(square / 8 + 1, square % 8 + 1)).getPieceType());
+    }
+}
@@ -0,0 +1,233 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Probes endgame tables written by {@link TablebaseGenerator}. Each table covers one
+ * material signature such as "KQK" or "KBNK": a king and up to two pieces against a lone
+ * king. A table is one signed byte per position, memory-mapped, indexed by side to move
+ * and the squares of the white king, black king and remaining pieces, with the strong
+ * side always shown as white. A byte holds 0 for a draw, n &gt; 0 for a win in n plies,
+ * -(n + 1) for a loss in n plies and {@link #ILLEGAL} for impossible positions.
+ * <p>
+ * Tables are read-only once loaded, so one instance can be shared by every thread.
+ */
+public class Tablebase {
+    static final byte ILLEGAL = Byte.MIN_VALUE;
+    static final String EXTENSION = ".tb";
+    private static final int MAX_PIECES = 4;
+    /** Order pieces are listed in a signature */
+    private static final PieceType[] SIGNATURE_ORDER = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT, PieceType.PAWN};
+
+    private final Map<String, ByteBuffer> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Maps every table found in a directory
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for(Path file : files)
+                tablebase.load(file);
+        }
+        return tablebase;
+    }
+
+    /**
+     * Maps one table file; its name gives the signature
+     */
+    public void load(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String signature = name.substring(0, name.length() - EXTENSION.length());
+        PieceType[] extras = parseSignature(signature);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() != tableSize(extras.length + 2))
+                throw new IOException("Wrong size for a " + signature + " table: " + file);
+            tables.put(signature, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    void add(String signature, byte[] values) {
+        tables.put(signature, ByteBuffer.wrap(values).asReadOnlyBuffer());
+    }
+
+    /**
+     * @return true if a table for the signature is loaded
+     */
+    public boolean contains(String signature) {
+        return tables.containsKey(signature);
+    }
+
+    /**
+     * Looks a position up
+     *
+     * @param board the position
+     * @param turn  the side to move
+     * @return the result with perfect play, or null if no loaded table covers the position
+     */
+    public TablebaseResult probe(ChessBoard board, TeamColor turn) {
+        if(tables.isEmpty())
+            return null;
+        int[] squares = new int[MAX_PIECES];
+        PieceType[] types = new PieceType[MAX_PIECES];
+        int whiteExtras = 0;
+        int blackExtras = 0;
+        int count = 2;
+        for(int i = 1; i <= 8; i++)
+            for(int j = 1; j <= 8; j++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(i, j));
+                if(piece == null)
+                    continue;
+                int square = (i - 1) * 8 + (j - 1);
+                int slot;
+                if(piece.getPieceType() == PieceType.KING)
+                    slot = piece.getTeamColor().ordinal();
+                else {
+                    if(count == MAX_PIECES)
+                        return null;
+                    slot = count++;
+                    if(piece.getTeamColor() == TeamColor.WHITE)
+                        whiteExtras++;
+                    else blackExtras++;
+                    types[slot] = piece.getPieceType();
+                }
+                squares[slot] = square;
+            }
+        if(whiteExtras > 0 && blackExtras > 0)
+            return null;
+        boolean flip = blackExtras > 0; // show the strong side as white
+        if(flip) {
+            int whiteKing = squares[0];
+            squares[0] = mirror(squares[1]);
+            squares[1] = mirror(whiteKing);
+            for(int slot = 2; slot < count; slot++)
+                squares[slot] = mirror(squares[slot]);
+        }
+        sortBySignature(squares, types, count);
+        StringBuilder signature = new StringBuilder("K");
+        for(int slot = 2; slot < count; slot++)
+            signature.append(letter(types[slot]));
+        ByteBuffer table = tables.get(signature.append('K').toString());
+        if(table == null)
+            return null;
+        int strongToMove = (turn == TeamColor.WHITE) != flip ? 0 : 1;
+        byte value = table.get(index(strongToMove, squares, count));
+        return decode(value);
+    }
+
+    /**
+     * Reads a raw value from a loaded table, as the generator does for captures and promotions
+     */
+    byte value(String signature, int index) {
+        ByteBuffer table = tables.get(signature);
+        if(table == null)
+            throw new IllegalStateException("The " + signature + " table must be generated first");
+        return table.get(index);
+    }
+
+    static TablebaseResult decode(byte value) {
+        if(value == ILLEGAL)
+            return null;
+        if(value == 0)
+            return new TablebaseResult(TablebaseResult.Outcome.DRAW, 0);
+        if(value > 0)
+            return new TablebaseResult(TablebaseResult.Outcome.WIN, value);
+        return new TablebaseResult(TablebaseResult.Outcome.LOSS, -value - 1);
+    }
+
+    /**
+     * @param strongToMove 0 if the side with the pieces moves, 1 if the lone king does
+     * @param squares      white king, black king, then the pieces in signature order
+     */
+    static int index(int strongToMove, int[] squares, int count) {
+        int index = strongToMove;
+        for(int slot = 0; slot < count; slot++)
+            index = (index << 6) | squares[slot];
+        return index;
+    }
+
+    static long tableSize(int pieces) {
+        return 2L << (6 * pieces);
+    }
+
+    /**
+     * Parses a signature such as "KBNK" into the strong side's pieces other than the king
+     */
+    static PieceType[] parseSignature(String signature) {
+        if(signature.length() < 3 || signature.length() > MAX_PIECES || signature.charAt(0) != 'K'
+                || signature.charAt(signature.length() - 1) != 'K')
+            throw new IllegalArgumentException("Unsupported tablebase signature: " + signature);
+        List<PieceType> extras = new ArrayList<>();
+        for(int i = 1; i < signature.length() - 1; i++) {
+            PieceType type = switch (signature.charAt(i)) {
+                case 'Q' -> PieceType.QUEEN;
+                case 'R' -> PieceType.ROOK;
+                case 'B' -> PieceType.BISHOP;
+                case 'N' -> PieceType.KNIGHT;
+                case 'P' -> PieceType.PAWN;
+                default -> throw new IllegalArgumentException("Unsupported tablebase signature: " + signature);
+            };
+            if(!extras.isEmpty() && rank(extras.get(extras.size() - 1)) > rank(type))
+                throw new IllegalArgumentException("Pieces must be listed as Q, R, B, N, P: " + signature);
+            extras.add(type);
+        }
+        return extras.toArray(new PieceType[0]);
+    }
+
+    static String signature(PieceType[] extras) {
+        StringBuilder signature = new StringBuilder("K");
+        for(PieceType type : extras)
+            signature.append(letter(type));
+        return signature.append('K').toString();
+    }
+
+    private static void sortBySignature(int[] squares, PieceType[] types, int count) {
+        for(int i = 3; i < count; i++)
+            for(int j = i; j > 2 && rank(types[j - 1]) > rank(types[j]); j--) {
+                PieceType type = types[j];
+                types[j] = types[j - 1];
+                types[j - 1] = type;
+                int square = squares[j];
+                squares[j] = squares[j - 1];
+                squares[j - 1] = square;
+            }
+    }
+
+    private static int rank(PieceType type) {
+        for(int i = 0; i < SIGNATURE_ORDER.length; i++)
+            if(SIGNATURE_ORDER[i] == type)
+                return i;
+        throw new IllegalArgumentException("Kings are not listed in a signature");
+    }
+
+    private static char letter(PieceType type) {
+        return switch (type) {
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> 'P';
+            case KING -> 'K';
+        };
+    }
+
+    private static int mirror(int square) {
+        return (7 - square / 8) * 8 + square % 8;
+    }
+}
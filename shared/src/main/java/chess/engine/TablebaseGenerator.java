@@ -0,0 +1,401 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessPiece.PieceType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Generates endgame tables by retrograde analysis. Because the weak side only has its
+ * king, white-to-move positions can only be wins or draws and black-to-move positions
+ * only losses or draws. Iteration n therefore only writes one half of the table while
+ * reading the other, which lets every iteration run in parallel across cores in place:
+ * <ul>
+ *     <li>odd n: a white-to-move position with a move into a lost position is won in n plies</li>
+ *     <li>even n: a black-to-move position whose every move leads into a won position is lost in n plies</li>
+ * </ul>
+ * Whatever is still unresolved when neither half changes is a draw. Captures and
+ * promotions leave the table and are looked up in smaller tables, so KPK needs KQK and
+ * KRK to be generated first.
+ */
+public class TablebaseGenerator {
+    private static final int[][] KING_STEPS = ChessBoard.KING_OFFSETS;
+    private static final int[][] KNIGHT_STEPS = ChessBoard.KNIGHT_OFFSETS;
+    private static final int[][] ROOK_STEPS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_STEPS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    private final Tablebase tablebase;
+
+    /**
+     * @param tablebase where finished tables are registered, and where captures and
+     *                  promotions out of a table are looked up
+     */
+    public TablebaseGenerator(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Generates one table and writes it to directory/SIGNATURE.tb
+     *
+     * @param signature the material, such as "KQK" or "KBNK"
+     * @return the longest mate in the table, in plies
+     */
+    public int generate(String signature, Path directory) throws IOException {
+        PieceType[] extras = Tablebase.parseSignature(signature);
+        byte[] values = generate(extras);
+        Files.createDirectories(directory);
+        Files.write(directory.resolve(signature + Tablebase.EXTENSION), values);
+        int longest = 0;
+        for(byte value : values)
+            if(value > longest)
+                longest = value;
+        return longest;
+    }
+
+    byte[] generate(PieceType[] extras) {
+        Material material = new Material(extras);
+        int half = (int) (Tablebase.tableSize(material.count) / 2);
+        byte[] values = new byte[half * 2];
+        IntStream.range(0, values.length).parallel().forEach(index -> values[index] = material.initial(index));
+
+        int idle = 0;
+        for(int n = 1; idle < 2; n++) {
+            if(n > Byte.MAX_VALUE)
+                throw new IllegalStateException("Mate too long to store in " + Tablebase.signature(extras));
+            final int ply = n;
+            AtomicInteger changed = new AtomicInteger();
+            boolean whiteToMove = (n % 2 == 1);
+            IntStream.range(whiteToMove ? 0 : half, whiteToMove ? half : half * 2).parallel().forEach(index -> {
+                if(values[index] != 0)
+                    return;
+                byte value = whiteToMove ? material.whiteValue(index, values, ply) : material.blackValue(index, values, ply);
+                if(value != 0) {
+                    values[index] = value;
+                    changed.incrementAndGet();
+                }
+            });
+            idle = (changed.get() == 0) ? idle + 1 : 0;
+        }
+        tablebase.add(Tablebase.signature(extras), values);
+        return values;
+    }
+
+    /**
+     * Move generation for one material signature: white king, black king and the pieces
+     * in slots 2 and up, all belonging to white
+     */
+    private class Material {
+        private final PieceType[] types;
+        private final int count;
+
+        Material(PieceType[] extras) {
+            count = extras.length + 2;
+            types = new PieceType[count];
+            types[0] = PieceType.KING;
+            types[1] = PieceType.KING;
+            System.arraycopy(extras, 0, types, 2, extras.length);
+        }
+
+        private int[] decode(int index) {
+            int[] squares = new int[count];
+            for(int slot = count - 1; slot >= 0; slot--) {
+                squares[slot] = index & 63;
+                index >>>= 6;
+            }
+            return squares;
+        }
+
+        private long occupancy(int[] squares, int skip) {
+            long occupied = 0;
+            for(int slot = 0; slot < count; slot++)
+                if(slot != skip)
+                    occupied |= 1L << squares[slot];
+            return occupied;
+        }
+
+        /**
+         * Marks impossible positions and scores checkmates and stalemates
+         */
+        byte initial(int index) {
+            int[] squares = decode(index);
+            boolean whiteToMove = (index >>> (6 * count)) == 0;
+            long occupied = 0;
+            for(int slot = 0; slot < count; slot++) {
+                if((occupied & 1L << squares[slot]) != 0)
+                    return Tablebase.ILLEGAL;
+                occupied |= 1L << squares[slot];
+                if(types[slot] == PieceType.PAWN && (squares[slot] < 8 || squares[slot] >= 56))
+                    return Tablebase.ILLEGAL;
+            }
+            if(adjacent(squares[0], squares[1]))
+                return Tablebase.ILLEGAL;
+            boolean blackInCheck = whiteAttacks(squares, squares[1], -1, occupied);
+            if(whiteToMove)
+                return blackInCheck ? Tablebase.ILLEGAL : 0;
+            if(blackInCheck && !blackHasMove(squares))
+                return -1; // mated
+            return 0;
+        }
+
+        /**
+         * @return n if white can move into a position lost for black, otherwise 0
+         */
+        byte whiteValue(int index, byte[] values, int ply) {
+            int[] squares = decode(index);
+            if(values[index] == Tablebase.ILLEGAL)
+                return 0;
+            long occupied = occupancy(squares, -1);
+            for(int slot = 0; slot < count; slot++) {
+                if(slot == 1)
+                    continue;
+                int from = squares[slot];
+                PieceType type = types[slot];
+                if(type == PieceType.PAWN) {
+                    int to = from + 8;
+                    if((occupied & 1L << to) != 0)
+                        continue;
+                    if(to >= 56) {
+                        for(PieceType promotion : PROMOTIONS) {
+                            byte exit = promotionValue(squares, slot, to, promotion);
+                            if(exit < 0 && exit != Tablebase.ILLEGAL && -exit <= ply)
+                                return (byte) ply;
+                        }
+                        continue;
+                    }
+                    if(lostForBlack(values, squares, slot, to))
+                        return (byte) ply;
+                    if(from < 16 && (occupied & 1L << (to + 8)) == 0 && lostForBlack(values, squares, slot, to + 8))
+                        return (byte) ply;
+                    continue;
+                }
+                for(int[] step : steps(type)) {
+                    int row = from / 8 + step[0];
+                    int col = from % 8 + step[1];
+                    while(row >= 0 && row < 8 && col >= 0 && col < 8) {
+                        int to = row * 8 + col;
+                        if((occupied & 1L << to) != 0)
+                            break;
+                        if(lostForBlack(values, squares, slot, to))
+                            return (byte) ply;
+                        if(!slides(type))
+                            break;
+                        row += step[0];
+                        col += step[1];
+                    }
+                }
+            }
+            return 0;
+        }
+
+        private boolean lostForBlack(byte[] values, int[] squares, int slot, int to) {
+            int from = squares[slot];
+            squares[slot] = to;
+            byte value = values[Tablebase.index(1, squares, count)];
+            squares[slot] = from;
+            return value < 0 && value != Tablebase.ILLEGAL;
+        }
+
+        /**
+         * @return -(n + 1) if every black move leads into a position won for white, otherwise 0
+         */
+        byte blackValue(int index, byte[] values, int ply) {
+            int[] squares = decode(index);
+            long withoutKing = occupancy(squares, 1);
+            int king = squares[1];
+            boolean anyMove = false;
+            for(int[] step : KING_STEPS) {
+                int row = king / 8 + step[0];
+                int col = king % 8 + step[1];
+                if(row < 0 || row >= 8 || col < 0 || col >= 8)
+                    continue;
+                int to = row * 8 + col;
+                int captured = slotAt(squares, to);
+                if(captured == 0 || adjacent(to, squares[0]))
+                    continue;
+                if(whiteAttacks(squares, to, captured, withoutKing & ~(1L << to)))
+                    continue;
+                anyMove = true;
+                byte child;
+                if(captured > 0)
+                    child = captureValue(squares, captured, to);
+                else {
+                    squares[1] = to;
+                    child = values[Tablebase.index(0, squares, count)];
+                    squares[1] = king;
+                }
+                if(child <= 0 || child > ply - 1)
+                    return 0; // black escapes, or white's win is not known to be that short yet
+            }
+            return anyMove ? (byte) -(ply + 1) : 0;
+        }
+
+        private boolean blackHasMove(int[] squares) {
+            long withoutKing = occupancy(squares, 1);
+            int king = squares[1];
+            for(int[] step : KING_STEPS) {
+                int row = king / 8 + step[0];
+                int col = king % 8 + step[1];
+                if(row < 0 || row >= 8 || col < 0 || col >= 8)
+                    continue;
+                int to = row * 8 + col;
+                int captured = slotAt(squares, to);
+                if(captured == 0 || adjacent(to, squares[0]))
+                    continue;
+                if(!whiteAttacks(squares, to, captured, withoutKing & ~(1L << to)))
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         * Value, for white to move, after the black king captures the piece in slot captured
+         */
+        private byte captureValue(int[] squares, int captured, int to) {
+            PieceType[] remaining = new PieceType[count - 3];
+            int[] childSquares = new int[count - 1];
+            childSquares[0] = squares[0];
+            childSquares[1] = to;
+            for(int slot = 2, next = 2; slot < count; slot++)
+                if(slot != captured) {
+                    remaining[next - 2] = types[slot];
+                    childSquares[next++] = squares[slot];
+                }
+            if(insufficient(remaining))
+                return 0;
+            return tablebase.value(Tablebase.signature(remaining), Tablebase.index(0, childSquares, count - 1));
+        }
+
+        /**
+         * Value, for black to move, after the pawn in slot promotes on square to
+         */
+        private byte promotionValue(int[] squares, int slot, int to, PieceType promotion) {
+            PieceType[] promoted = new PieceType[count - 2];
+            int[] childSquares = squares.clone();
+            for(int i = 2; i < count; i++)
+                promoted[i - 2] = (i == slot) ? promotion : types[i];
+            childSquares[slot] = to;
+            if(insufficient(promoted))
+                return 0;
+            String signature = Tablebase.signature(sorted(promoted, childSquares));
+            return tablebase.value(signature, Tablebase.index(1, childSquares, count));
+        }
+
+        /**
+         * Reorders pieces into signature order, moving their squares along
+         */
+        private PieceType[] sorted(PieceType[] pieces, int[] squares) {
+            if(pieces.length == 2 && rankOf(pieces[0]) > rankOf(pieces[1])) {
+                PieceType type = pieces[0];
+                pieces[0] = pieces[1];
+                pieces[1] = type;
+                int square = squares[2];
+                squares[2] = squares[3];
+                squares[3] = square;
+            }
+            return pieces;
+        }
+
+        private int slotAt(int[] squares, int square) {
+            for(int slot = 0; slot < count; slot++)
+                if(squares[slot] == square)
+                    return slot;
+            return -1;
+        }
+
+        /**
+         * @return true if a white piece other than the one in slot skip attacks target
+         */
+        private boolean whiteAttacks(int[] squares, int target, int skip, long occupied) {
+            for(int slot = 0; slot < count; slot++)
+                if(slot != 1 && slot != skip && attacks(types[slot], squares[slot], target, occupied))
+                    return true;
+            return false;
+        }
+    }
+
+    private static boolean insufficient(PieceType[] pieces) {
+        return pieces.length == 0 || pieces.length == 1 && (pieces[0] == PieceType.BISHOP || pieces[0] == PieceType.KNIGHT);
+    }
+
+    private static int rankOf(PieceType type) {
+        return switch (type) {
+            case QUEEN -> 0;
+            case ROOK -> 1;
+            case BISHOP -> 2;
+            case KNIGHT -> 3;
+            case PAWN -> 4;
+            case KING -> 5;
+        };
+    }
+
+    private static boolean adjacent(int a, int b) {
+        return Math.abs(a / 8 - b / 8) <= 1 && Math.abs(a % 8 - b % 8) <= 1;
+    }
+
+    /**
+     * @return true if a white piece of the given type on from attacks target
+     */
+    private static boolean attacks(PieceType type, int from, int target, long occupied) {
+        int dr = target / 8 - from / 8;
+        int dc = target % 8 - from % 8;
+        return switch (type) {
+            case KING -> Math.max(Math.abs(dr), Math.abs(dc)) == 1;
+            case KNIGHT -> Math.abs(dr * dc) == 2;
+            case PAWN -> dr == 1 && Math.abs(dc) == 1;
+            case ROOK -> (dr == 0 || dc == 0) && clearPath(from, dr, dc, occupied);
+            case BISHOP -> Math.abs(dr) == Math.abs(dc) && clearPath(from, dr, dc, occupied);
+            case QUEEN -> (dr == 0 || dc == 0 || Math.abs(dr) == Math.abs(dc)) && clearPath(from, dr, dc, occupied);
+        };
+    }
+
+    private static boolean clearPath(int from, int dr, int dc, long occupied) {
+        int stepRow = Integer.signum(dr);
+        int stepCol = Integer.signum(dc);
+        int steps = Math.max(Math.abs(dr), Math.abs(dc));
+        for(int i = 1; i < steps; i++)
+            if((occupied & 1L << (from + (stepRow * 8 + stepCol) * i)) != 0)
+                return false;
+        return steps > 0;
+    }
+
+    private static int[][] steps(PieceType type) {
+        return switch (type) {
+            case KING, QUEEN -> KING_STEPS;
+            case KNIGHT -> KNIGHT_STEPS;
+            case ROOK -> ROOK_STEPS;
+            case BISHOP -> BISHOP_STEPS;
+            case PAWN -> throw new IllegalArgumentException("Pawns are generated separately");
+        };
+    }
+
+    private static boolean slides(PieceType type) {
+        return type == PieceType.QUEEN || type == PieceType.ROOK || type == PieceType.BISHOP;
+    }
+
+    /**
+     * Generates tables from the command line:
+     * {@code TablebaseGenerator <directory> [signature...]}, by default KQK, KRK, KPK and KBNK
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("usage: TablebaseGenerator <directory> [signature...]");
+            System.exit(1);
+        }
+        Path directory = Path.of(args[0]);
+        String[] signatures = (args.length > 1) ? Arrays.copyOfRange(args, 1, args.length)
+                : new String[]{"KQK", "KRK", "KPK", "KBNK"};
+        Tablebase tablebase = Files.isDirectory(directory) ? Tablebase.open(directory) : new Tablebase();
+        TablebaseGenerator generator = new TablebaseGenerator(tablebase);
+        for(String signature : signatures) {
+            long start = System.nanoTime();
+            int longest = generator.generate(signature, directory);
+            System.out.printf("%s: longest mate %d plies, %d ms%n", signature, longest, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
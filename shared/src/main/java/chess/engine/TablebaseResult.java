@@ -0,0 +1,16 @@
+package chess.engine;
+
+/**
+ * What an endgame tablebase knows about a position
+ *
+ * @param outcome     the result with perfect play, for the side to move
+ * @param pliesToMate plies until mate for a won or lost position, 0 for a draw
+ */
+public record TablebaseResult(Outcome outcome, int pliesToMate) {
+
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+}
@@ -0,0 +1,120 @@
+package chess.engine;
+
+/**
+ * Decides how long a search may think. A soft deadline stops the engine from starting
+ * another iteration it probably cannot finish; a hard deadline aborts the search
+ * mid-iteration. The search polls {@link #shouldAbort()} every few hundred nodes, so
+ * checking the clock stays off the hot path.
+ * <p>
+ * After the search, {@link #getDriftMillis()} tells how far the actual think time
+ * landed from the budget, which is what the server cares about when a player is waiting.
+ */
+public class TimeManager {
+    /** Fraction of the budget after which no new iteration is started */
+    private static final double SOFT_FRACTION = 0.5;
+    /** Moves we assume are left in the game when the clock does not say */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    /** Time kept back on the clock for move transmission and bookkeeping */
+    private static final long MOVE_OVERHEAD_MILLIS = 30;
+
+    private final long startNanos;
+    private final long budgetNanos;
+    private final long softDeadline;
+    private final long hardDeadline;
+    private volatile boolean stopped;
+    private long finishedNanos = -1;
+
+    private TimeManager(long budgetMillis, long hardMillis) {
+        startNanos = System.nanoTime();
+        budgetNanos = budgetMillis * 1_000_000L;
+        softDeadline = startNanos + (long) (budgetNanos * SOFT_FRACTION);
+        hardDeadline = startNanos + hardMillis * 1_000_000L;
+    }
+
+    /**
+     * Creates a time manager for a fixed per-move budget, as used for bot moves on the server
+     *
+     * @param budgetMillis the longest the search may run
+     */
+    public static TimeManager forBudget(long budgetMillis) {
+        if(budgetMillis <= 0)
+            throw new IllegalArgumentException("Budget must be positive: " + budgetMillis);
+        return new TimeManager(budgetMillis, budgetMillis);
+    }
+
+    /**
+     * Creates a time manager without deadlines, for searches bounded by depth or nodes
+     * or that run until {@link #stop()} is called
+     */
+    public static TimeManager unlimited() {
+        long forever = Long.MAX_VALUE / 4_000_000L; // far away, yet safe to add to System.nanoTime()
+        return new TimeManager(forever, forever);
+    }
+
+    /**
+     * Creates a time manager from a game clock
+     *
+     * @param remainingMillis time left on the mover's clock
+     * @param incrementMillis time added after each move
+     * @param movesToGo       moves until the next time control, or 0 if unknown
+     */
+    public static TimeManager forClock(long remainingMillis, long incrementMillis, int movesToGo) {
+        long usable = Math.max(1, remainingMillis - MOVE_OVERHEAD_MILLIS);
+        int moves = (movesToGo > 0) ? movesToGo : DEFAULT_MOVES_TO_GO;
+        long budget = Math.min(usable, usable / moves + incrementMillis * 3 / 4);
+        long hard = Math.min(usable, budget * 3); // may overrun the target when an iteration is nearly done
+        return new TimeManager(Math.max(1, budget), Math.max(1, hard));
+    }
+
+    /**
+     * @return true once it is no longer worth starting a new iteration
+     */
+    public boolean softExpired() {
+        return stopped || System.nanoTime() >= softDeadline;
+    }
+
+    /**
+     * @return true if the search must give up immediately
+     */
+    public boolean shouldAbort() {
+        return stopped || System.nanoTime() >= hardDeadline;
+    }
+
+    /**
+     * Asks the search to stop as soon as it next checks. Safe to call from any thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Records the moment the search returned its move
+     */
+    public void finish() {
+        if(finishedNanos < 0)
+            finishedNanos = System.nanoTime();
+    }
+
+    /**
+     * @return milliseconds spent thinking, up to {@link #finish()} if it was called
+     */
+    public long getElapsedMillis() {
+        long end = (finishedNanos < 0) ? System.nanoTime() : finishedNanos;
+        return (end - startNanos) / 1_000_000L;
+    }
+
+    /**
+     * @return the planned think time in milliseconds
+     */
+    public long getBudgetMillis() {
+        return budgetNanos / 1_000_000L;
+    }
+
+    /**
+     * @return how far the think time ended up from the budget: positive if the search
+     * overran, negative if it returned early
+     */
+    public long getDriftMillis() {
+        return getElapsedMillis() - getBudgetMillis();
+    }
+}
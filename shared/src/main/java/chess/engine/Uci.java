@@ -0,0 +1,274 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.notation.Fen;
+import chess.notation.MoveNotation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A Universal Chess Interface front-end over stdin and stdout, so the engine can be
+ * benchmarked and played against other engines with standard tools.
+ * <p>
+ * Supports uci, isready, ucinewgame, position, go (depth, movetime, nodes, wtime/btime,
+ * winc/binc, movestogo, infinite, perft), stop, setoption and quit, plus "bench
+ * [depth]": fixed-depth searches of a fixed set of positions whose total node count is
+ * a deterministic signature of the search, for catching unintended changes and
+ * comparing speed between builds. Run with the argument "bench" to print it and exit.
+ * <p>
+ * The search keeps no transposition table and runs on one thread, so the Hash and
+ * Threads options size the table and thread pool of "go perft".
+ */
+public class Uci {
+    public static final int DEFAULT_BENCH_DEPTH = 4;
+    private static final int MAX_DEPTH = 64;
+    static final String[] BENCH_POSITIONS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1",
+            "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"};
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private ChessGame game = new ChessGame();
+    private int hashMegabytes = 16;
+    private int threads = 1;
+    private Thread searchThread;
+    private volatile TimeManager timeManager;
+    private boolean unbounded;
+
+    public Uci(Reader in, PrintStream out) {
+        this.in = new BufferedReader(in);
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length > 0 && args[0].equals("bench")) {
+            int depth = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_BENCH_DEPTH;
+            new Uci(Reader.nullReader(), System.out).bench(depth);
+            return;
+        }
+        new Uci(new InputStreamReader(System.in), new PrintStream(System.out, true)).run();
+    }
+
+    /**
+     * Reads commands until "quit" or the end of input. At the end of input a search
+     * with a depth, node or time limit is allowed to finish; an infinite one is stopped.
+     */
+    public void run() throws IOException {
+        String line;
+        while((line = in.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            try {
+                switch (tokens[0]) {
+                    case "uci" -> {
+                        out.println("id name CS240 Chess");
+                        out.println("id author CS240 Chess");
+                        out.println("option name Hash type spin default 16 min 1 max 4096");
+                        out.println("option name Threads type spin default 1 min 1 max 256");
+                        out.println("uciok");
+                    }
+                    case "isready" -> out.println("readyok");
+                    case "ucinewgame" -> {
+                        waitForSearch();
+                        game = new ChessGame();
+                    }
+                    case "position" -> {
+                        waitForSearch();
+                        position(tokens);
+                    }
+                    case "go" -> go(tokens);
+                    case "stop" -> {
+                        stopSearch();
+                        waitForSearch();
+                    }
+                    case "setoption" -> setOption(tokens);
+                    case "bench" -> {
+                        waitForSearch();
+                        bench((tokens.length > 1) ? Integer.parseInt(tokens[1]) : DEFAULT_BENCH_DEPTH);
+                    }
+                    case "quit" -> {
+                        stopSearch();
+                        waitForSearch();
+                        return;
+                    }
+                    default -> {
+                        if(!tokens[0].isEmpty())
+                            out.println("info string unknown command " + tokens[0]);
+                    }
+                }
+            }
+            catch (IllegalArgumentException e) {
+                out.println("info string " + e.getMessage());
+            }
+        }
+        // at the end of piped input, let bounded searches finish but don't wait forever
+        if(unbounded)
+            stopSearch();
+        waitForSearch();
+    }
+
+    private void position(String[] tokens) {
+        int i = 1;
+        ChessGame position;
+        if(tokens.length > 1 && tokens[1].equals("startpos")) {
+            position = new ChessGame();
+            i = 2;
+        }
+        else if(tokens.length > 1 && tokens[1].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            for(i = 2; i < tokens.length && !tokens[i].equals("moves"); i++)
+                fen.append(tokens[i]).append(' ');
+            position = Fen.parse(fen.toString());
+        }
+        else
+            throw new IllegalArgumentException("position needs startpos or fen");
+        if(i < tokens.length && tokens[i].equals("moves"))
+            for(i++; i < tokens.length; i++) {
+                ChessMove move = new MoveNotation(position).fromUci(tokens[i]);
+                if(move == null)
+                    throw new IllegalArgumentException("illegal move " + tokens[i]);
+                position.applyMove(move);
+            }
+        game = position;
+    }
+
+    private void go(String[] tokens) {
+        waitForSearch();
+        int depth = MAX_DEPTH;
+        long nodes = Long.MAX_VALUE;
+        long moveTime = 0;
+        long[] clock = new long[2]; // remaining time for the side to move, then its increment
+        int movesToGo = 0;
+        boolean white = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        for(int i = 1; i < tokens.length; i++) {
+            String value = (i + 1 < tokens.length) ? tokens[i + 1] : "0";
+            switch (tokens[i]) {
+                case "perft" -> {
+                    perft(Integer.parseInt(value));
+                    return;
+                }
+                case "depth" -> depth = Integer.parseInt(value);
+                case "nodes" -> nodes = Long.parseLong(value);
+                case "movetime" -> moveTime = Long.parseLong(value);
+                case "wtime", "btime" -> {
+                    if(tokens[i].equals(white ? "wtime" : "btime"))
+                        clock[0] = Long.parseLong(value);
+                }
+                case "winc", "binc" -> {
+                    if(tokens[i].equals(white ? "winc" : "binc"))
+                        clock[1] = Long.parseLong(value);
+                }
+                case "movestogo" -> movesToGo = Integer.parseInt(value);
+                default -> {
+                    continue; // "infinite" and other flags take no value
+                }
+            }
+            i++;
+        }
+
+        TimeManager deadlines = (moveTime > 0) ? TimeManager.forBudget(moveTime)
+                : (clock[0] > 0) ? TimeManager.forClock(clock[0], clock[1], movesToGo) : TimeManager.unlimited();
+        ChessGame position = new ChessGame(game);
+        Search search = new Search();
+        search.setNodeLimit(nodes);
+        int maxDepth = depth;
+        timeManager = deadlines;
+        unbounded = moveTime == 0 && clock[0] == 0 && depth == MAX_DEPTH && nodes == Long.MAX_VALUE;
+        searchThread = new Thread(() -> {
+            SearchResult result = search.search(position, maxDepth, deadlines);
+            out.println(info(result, deadlines.getElapsedMillis()));
+            out.println("bestmove " + ((result.bestMove() == null) ? "0000" : MoveNotation.toUci(result.bestMove())));
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    private void perft(int depth) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long count = Perft.parallelPerft(game, depth, new PerftTable(hashMegabytes), pool);
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+            out.println("info string perft " + depth + " nodes " + count + " time " + millis);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    private void setOption(String[] tokens) {
+        // setoption name <name> value <value>
+        if(tokens.length < 5 || !tokens[1].equals("name") || !tokens[3].equals("value"))
+            throw new IllegalArgumentException("expected setoption name <name> value <value>");
+        int value = Integer.parseInt(tokens[4]);
+        switch (tokens[2]) {
+            case "Hash" -> hashMegabytes = Math.max(1, value);
+            case "Threads" -> threads = Math.max(1, value);
+            default -> throw new IllegalArgumentException("unknown option " + tokens[2]);
+        }
+    }
+
+    /**
+     * Searches every bench position to a fixed depth and prints the total node count,
+     * which only changes when the search itself does, and the speed
+     *
+     * @return the total node count
+     */
+    public long bench(int depth) {
+        long nodes = 0;
+        long start = System.nanoTime();
+        Search search = new Search();
+        for(String fen : BENCH_POSITIONS) {
+            search.search(Fen.parse(fen), depth);
+            nodes += search.getNodes();
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+        out.println("===========================");
+        out.println("Total time (ms) : " + millis);
+        out.println("Nodes searched  : " + nodes);
+        out.println("Nodes/second    : " + nodes * 1000 / millis);
+        return nodes;
+    }
+
+    private static String info(SearchResult result, long millis) {
+        int score = result.score();
+        String value = (Math.abs(score) >= Search.MATE - MAX_DEPTH * 2)
+                ? "mate " + ((score > 0) ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score + 1) / 2)
+                : "cp " + score;
+        StringBuilder info = new StringBuilder("info depth ").append(result.depth()).append(" score ").append(value)
+                .append(" nodes ").append(result.nodes()).append(" time ").append(millis)
+                .append(" nps ").append(result.nodes() * 1000 / Math.max(1, millis));
+        if(result.bestMove() != null)
+            info.append(" pv ").append(MoveNotation.toUci(result.bestMove()));
+        return info.toString();
+    }
+
+    private void stopSearch() {
+        TimeManager running = timeManager;
+        if(running != null)
+            running.stop();
+    }
+
+    private void waitForSearch() {
+        if(searchThread == null)
+            return;
+        try {
+            searchThread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+        timeManager = null;
+    }
+}
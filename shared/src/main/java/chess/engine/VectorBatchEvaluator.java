@@ -0,0 +1,103 @@
+package chess.engine;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ScalarBatchEvaluator}'s arithmetic on {@link LongVector}s, one position per
+ * lane. Only load this class through {@link BatchEvaluator#create()}, which checks the
+ * incubating module is present.
+ */
+public class VectorBatchEvaluator extends BatchEvaluator {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public void evaluate(PositionBatch batch, int[] scores, int[] whiteAttacks, int[] blackAttacks) {
+        long[][] pieces = batch.pieces;
+        long[] lanes = new long[SPECIES.length()];
+        LongVector[] bitboards = new LongVector[PositionBatch.KINDS];
+        int bound = SPECIES.loopBound(batch.size());
+        for(int i = 0; i < bound; i += SPECIES.length()) {
+            LongVector occupied = LongVector.zero(SPECIES);
+            for(int kind = 0; kind < PositionBatch.KINDS; kind++) {
+                bitboards[kind] = LongVector.fromArray(SPECIES, pieces[kind], i);
+                occupied = occupied.or(bitboards[kind]);
+            }
+
+            LongVector score = LongVector.zero(SPECIES);
+            for(int kind = 0; kind < PositionBatch.KINDS; kind++) {
+                LongVector bitboard = bitboards[kind];
+                LongVector kindScore = bitboard.lanewise(VectorOperators.BIT_COUNT).mul(BASE[kind]);
+                long[] planes = PLANES[kind];
+                for(int bit = 0; bit < planes.length; bit++)
+                    kindScore = kindScore.add(bitboard.and(planes[bit])
+                            .lanewise(VectorOperators.BIT_COUNT).lanewise(VectorOperators.LSHL, bit));
+                score = (kind % 2 == TeamColor.WHITE.ordinal()) ? score.add(kindScore) : score.sub(kindScore);
+            }
+            store(score, lanes, scores, i);
+
+            LongVector empty = occupied.not();
+            store(attacks(bitboards, TeamColor.WHITE, empty).lanewise(VectorOperators.BIT_COUNT), lanes, whiteAttacks, i);
+            store(attacks(bitboards, TeamColor.BLACK, empty).lanewise(VectorOperators.BIT_COUNT), lanes, blackAttacks, i);
+        }
+        ScalarBatchEvaluator.evaluate(batch, bound, batch.size(), scores, whiteAttacks, blackAttacks);
+    }
+
+    private static void store(LongVector vector, long[] lanes, int[] out, int offset) {
+        vector.intoArray(lanes, 0);
+        for(int lane = 0; lane < lanes.length; lane++)
+            out[offset + lane] = (int) lanes[lane];
+    }
+
+    private static LongVector attacks(LongVector[] bitboards, TeamColor color, LongVector empty) {
+        LongVector pawns = bitboards[kind(PieceType.PAWN, color)];
+        LongVector knights = bitboards[kind(PieceType.KNIGHT, color)];
+        LongVector king = bitboards[kind(PieceType.KING, color)];
+        LongVector queens = bitboards[kind(PieceType.QUEEN, color)];
+        LongVector orthogonal = bitboards[kind(PieceType.ROOK, color)].or(queens);
+        LongVector diagonal = bitboards[kind(PieceType.BISHOP, color)].or(queens);
+
+        LongVector attacked = (color == TeamColor.WHITE)
+                ? step(pawns, 9, NOT_A_FILE).or(step(pawns, 7, NOT_H_FILE))
+                : step(pawns, -7, NOT_A_FILE).or(step(pawns, -9, NOT_H_FILE));
+        attacked = attacked.or(step(knights, 17, NOT_A_FILE)).or(step(knights, 15, NOT_H_FILE))
+                .or(step(knights, 10, NOT_AB_FILE)).or(step(knights, 6, NOT_GH_FILE))
+                .or(step(knights, -15, NOT_A_FILE)).or(step(knights, -17, NOT_H_FILE))
+                .or(step(knights, -6, NOT_AB_FILE)).or(step(knights, -10, NOT_GH_FILE));
+        attacked = attacked.or(step(king, 8, -1L)).or(step(king, -8, -1L))
+                .or(step(king, 1, NOT_A_FILE)).or(step(king, -1, NOT_H_FILE))
+                .or(step(king, 9, NOT_A_FILE)).or(step(king, 7, NOT_H_FILE))
+                .or(step(king, -7, NOT_A_FILE)).or(step(king, -9, NOT_H_FILE));
+        attacked = attacked.or(slide(orthogonal, empty, 8, -1L)).or(slide(orthogonal, empty, -8, -1L))
+                .or(slide(orthogonal, empty, 1, NOT_A_FILE)).or(slide(orthogonal, empty, -1, NOT_H_FILE));
+        return attacked.or(slide(diagonal, empty, 9, NOT_A_FILE)).or(slide(diagonal, empty, 7, NOT_H_FILE))
+                .or(slide(diagonal, empty, -7, NOT_A_FILE)).or(slide(diagonal, empty, -9, NOT_H_FILE));
+    }
+
+    private static LongVector slide(LongVector sliders, LongVector empty, int shift, long wrap) {
+        LongVector propagate = empty.and(wrap);
+        sliders = sliders.or(propagate.and(shift(sliders, shift)));
+        propagate = propagate.and(shift(propagate, shift));
+        sliders = sliders.or(propagate.and(shift(sliders, shift * 2)));
+        propagate = propagate.and(shift(propagate, shift * 2));
+        sliders = sliders.or(propagate.and(shift(sliders, shift * 4)));
+        return step(sliders, shift, wrap);
+    }
+
+    private static LongVector step(LongVector bitboard, int shift, long wrap) {
+        return shift(bitboard, shift).and(wrap);
+    }
+
+    private static LongVector shift(LongVector bitboard, int shift) {
+        return (shift > 0) ? bitboard.lanewise(VectorOperators.LSHL, shift)
+                : bitboard.lanewise(VectorOperators.LSHR, -shift);
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+}
@@ -0,0 +1,143 @@
+package chess.notation;
+
+import chess.ChessBoard;
+import chess.ChessBoard.CastleType;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation. The move counters are accepted but not
+ * kept, since {@link ChessGame} does not track them, and are written as "0 1".
+ */
+public class Fen {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {}
+
+    /**
+     * @param fen the position, of which at least the placement and side to move fields are required
+     * @return a game at that position
+     * @throws IllegalArgumentException if the text is not a valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if(fields.length < 2)
+            throw new IllegalArgumentException("FEN needs placement and side to move: " + fen);
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        for(int i = 0; i < fields[0].length(); i++) {
+            char ch = fields[0].charAt(i);
+            if(ch == '/') {
+                if(col != 9)
+                    throw new IllegalArgumentException("Rank " + row + " does not have 8 squares: " + fen);
+                row--;
+                col = 1;
+            }
+            else if(ch >= '1' && ch <= '8')
+                col += ch - '0';
+            else {
+                PieceType type = MoveNotation.pieceType(Character.toUpperCase(ch));
+                if(Character.toUpperCase(ch) == 'P')
+                    type = PieceType.PAWN;
+                if(type == null || row < 1 || col > 8)
+                    throw new IllegalArgumentException("Bad placement '" + ch + "': " + fen);
+                board.addPiece(new ChessPosition(row, col++),
+                        ChessPiece.of(Character.isUpperCase(ch) ? TeamColor.WHITE : TeamColor.BLACK, type));
+            }
+        }
+        if(row != 1 || col != 9)
+            throw new IllegalArgumentException("Placement does not cover 8 ranks: " + fen);
+
+        TeamColor turn = switch (fields[1]) {
+            case "w" -> TeamColor.WHITE;
+            case "b" -> TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad side to move: " + fen);
+        };
+        String castling = (fields.length > 2) ? fields[2] : "-";
+        board.shortCastlingPrivilegesWhite = castling.indexOf('K') >= 0;
+        board.longCastlingPrivilegesWhite = castling.indexOf('Q') >= 0;
+        board.shortCastlingPrivilegesBlack = castling.indexOf('k') >= 0;
+        board.longCastlingPrivilegesBlack = castling.indexOf('q') >= 0;
+
+        String enPassant = (fields.length > 3) ? fields[3] : "-";
+        if(!enPassant.equals("-")) {
+            if(enPassant.length() != 2 || enPassant.charAt(0) < 'a' || enPassant.charAt(0) > 'h'
+                    || (enPassant.charAt(1) != '3' && enPassant.charAt(1) != '6'))
+                throw new IllegalArgumentException("Bad en passant square: " + fen);
+            ChessPosition square = new ChessPosition(enPassant.charAt(1) - '0', enPassant.charAt(0) - 'a' + 1);
+            // like ChessGame, only record it when a pawn could actually capture
+            int pawnRow = (turn == TeamColor.WHITE) ? square.getRow() - 1 : square.getRow() + 1;
+            for(int side = -1; side <= 1; side += 2) {
+                int pawnCol = square.getColumn() + side;
+                ChessPiece pawn = (pawnCol >= 1 && pawnCol <= 8) ? board.getPiece(new ChessPosition(pawnRow, pawnCol)) : null;
+                if(pawn != null && pawn.getPieceType() == PieceType.PAWN && pawn.getTeamColor() == turn) {
+                    board.existsEnPassant = true;
+                    board.enPassantSquare = square;
+                }
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    /**
+     * @return the game's position as FEN
+     */
+    public static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+        for(int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for(int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if(piece == null) {
+                    empty++;
+                    continue;
+                }
+                if(empty > 0)
+                    fen.append(empty);
+                empty = 0;
+                char letter = switch (piece.getPieceType()) {
+                    case KING -> 'K';
+                    case QUEEN -> 'Q';
+                    case ROOK -> 'R';
+                    case BISHOP -> 'B';
+                    case KNIGHT -> 'N';
+                    case PAWN -> 'P';
+                };
+                fen.append(piece.getTeamColor() == TeamColor.WHITE ? letter : Character.toLowerCase(letter));
+            }
+            if(empty > 0)
+                fen.append(empty);
+            if(row > 1)
+                fen.append('/');
+        }
+        fen.append(game.getTeamTurn() == TeamColor.WHITE ? " w " : " b ");
+
+        int length = fen.length();
+        if(board.hasCastlingPrivileges(TeamColor.WHITE, CastleType.SHORT))
+            fen.append('K');
+        if(board.hasCastlingPrivileges(TeamColor.WHITE, CastleType.LONG))
+            fen.append('Q');
+        if(board.hasCastlingPrivileges(TeamColor.BLACK, CastleType.SHORT))
+            fen.append('k');
+        if(board.hasCastlingPrivileges(TeamColor.BLACK, CastleType.LONG))
+            fen.append('q');
+        if(fen.length() == length)
+            fen.append('-');
+
+        fen.append(' ');
+        if(board.existsEnPassant && board.enPassantSquare != null)
+            fen.append((char) ('a' + board.enPassantSquare.getColumn() - 1)).append(board.enPassantSquare.getRow());
+        else
+            fen.append('-');
+        return fen.append(" 0 1").toString();
+    }
+}
@@ -0,0 +1,241 @@
+package chess.notation;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+
+import java.util.Collection;
+
+/**
+ * Converts between moves and SAN ("Nbd7", "exd8=Q+", "O-O") or UCI ("e2e4", "e7e8q")
+ * text for one position. The position's legal moves are generated once, when the codec
+ * is created, and every conversion afterwards only scans that array, so writing SAN
+ * needs no move generation for disambiguation. Parsing walks the characters directly
+ * and allocates nothing but the result.
+ */
+public class MoveNotation {
+    private final ChessGame game;
+    private final ChessMove[] moves;
+    private final PieceType[] movers;
+
+    /**
+     * @param game the position to convert moves for; it is copied, not kept
+     */
+    public MoveNotation(ChessGame game) {
+        this.game = new ChessGame(game);
+        Collection<ChessMove> legal = this.game.legalMoves();
+        moves = legal.toArray(new ChessMove[0]);
+        movers = new PieceType[moves.length];
+        for(int i = 0; i < moves.length; i++)
+            movers[i] = this.game.getBoard().getPiece(moves[i].getStartPosition()).getPieceType();
+    }
+
+    /**
+     * @return the legal moves of the position, in generation order
+     */
+    public ChessMove[] legalMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Writes a legal move in SAN, with the shortest disambiguation and a check or mate suffix
+     *
+     * @throws IllegalArgumentException if the move is not legal in this position
+     */
+    public String toSan(ChessMove move) {
+        int index = indexOf(move);
+        if(index < 0)
+            throw new IllegalArgumentException("Not a legal move: " + toUci(move));
+        ChessBoard board = game.getBoard();
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        PieceType type = movers[index];
+        StringBuilder san = new StringBuilder(8);
+
+        if(type == PieceType.KING && Math.abs(end.getColumn() - start.getColumn()) == 2)
+            san.append(end.getColumn() == 7 ? "O-O" : "O-O-O");
+        else {
+            boolean capture = board.isCaptureMove(move);
+            if(type == PieceType.PAWN) {
+                if(capture)
+                    san.append(file(start)).append('x');
+            }
+            else {
+                san.append(letter(type));
+                boolean ambiguous = false;
+                boolean sameFile = false;
+                boolean sameRank = false;
+                for(int i = 0; i < moves.length; i++) {
+                    ChessPosition other = moves[i].getStartPosition();
+                    if(i == index || movers[i] != type || !moves[i].getEndPosition().equals(end) || other.equals(start))
+                        continue;
+                    ambiguous = true;
+                    sameFile |= other.getColumn() == start.getColumn();
+                    sameRank |= other.getRow() == start.getRow();
+                }
+                if(ambiguous && (!sameFile || sameRank))
+                    san.append(file(start));
+                if(ambiguous && sameFile)
+                    san.append(rank(start));
+                if(capture)
+                    san.append('x');
+            }
+            san.append(file(end)).append(rank(end));
+            if(move.getPromotionPiece() != null)
+                san.append('=').append(letter(move.getPromotionPiece()));
+        }
+
+        TeamColor opponent = (game.getTeamTurn() == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        game.applyMove(move);
+        if(game.isInCheckmate(opponent))
+            san.append('#');
+        else if(game.isInCheck(opponent))
+            san.append('+');
+        game.undoMove();
+        return san.toString();
+    }
+
+    /**
+     * Finds the legal move a SAN string describes. Check, mate and annotation suffixes
+     * are ignored, castling may be written with zeros, and the '=' before a promotion
+     * piece may be left out.
+     *
+     * @param san the move, such as "Nbd7", "exd5", "e8=Q+" or "O-O"
+     * @return the move, or null if no legal move matches
+     */
+    public ChessMove fromSan(CharSequence san) {
+        int end = san.length();
+        while(end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0)
+            end--;
+        if(isCastling(san, end, 3) || isCastling(san, end, 5)) {
+            int toCol = (end == 3) ? 7 : 3;
+            for(int i = 0; i < moves.length; i++)
+                if(movers[i] == PieceType.KING && moves[i].getEndPosition().getColumn() == toCol
+                        && moves[i].getStartPosition().getColumn() == 5)
+                    return moves[i];
+            return null;
+        }
+
+        PieceType promotion = null;
+        if(end > 2 && pieceType(san.charAt(end - 1)) != null) {
+            promotion = pieceType(san.charAt(end - 1));
+            end -= (san.charAt(end - 2) == '=') ? 2 : 1;
+        }
+        if(end < 2)
+            return null;
+        PieceType type = PieceType.PAWN;
+        int first = 0;
+        if(Character.isUpperCase(san.charAt(0))) {
+            type = pieceType(san.charAt(0));
+            first = 1;
+        }
+        int toCol = san.charAt(end - 2) - 'a' + 1;
+        int toRow = san.charAt(end - 1) - '0';
+        int fromCol = 0;
+        int fromRow = 0;
+        for(int i = first; i < end - 2; i++) {
+            char ch = san.charAt(i);
+            if(ch >= 'a' && ch <= 'h')
+                fromCol = ch - 'a' + 1;
+            else if(ch >= '1' && ch <= '8')
+                fromRow = ch - '0';
+        }
+        if(type == null || toCol < 1 || toCol > 8 || toRow < 1 || toRow > 8)
+            return null;
+
+        for(int i = 0; i < moves.length; i++) {
+            ChessMove move = moves[i];
+            ChessPosition start = move.getStartPosition();
+            if(movers[i] == type && move.getEndPosition().getRow() == toRow
+                    && move.getEndPosition().getColumn() == toCol && move.getPromotionPiece() == promotion
+                    && (fromCol == 0 || start.getColumn() == fromCol) && (fromRow == 0 || start.getRow() == fromRow))
+                return move;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the legal move a UCI string describes
+     *
+     * @param uci the move, such as "e2e4", "e1g1" or "e7e8q"
+     * @return the move, or null if no legal move matches
+     */
+    public ChessMove fromUci(CharSequence uci) {
+        if(uci.length() != 4 && uci.length() != 5)
+            return null;
+        PieceType promotion = (uci.length() == 5) ? pieceType(Character.toUpperCase(uci.charAt(4))) : null;
+        if(uci.length() == 5 && promotion == null)
+            return null;
+        for(ChessMove move : moves)
+            if(move.getStartPosition().getColumn() == uci.charAt(0) - 'a' + 1 && move.getStartPosition().getRow() == uci.charAt(1) - '0'
+                    && move.getEndPosition().getColumn() == uci.charAt(2) - 'a' + 1 && move.getEndPosition().getRow() == uci.charAt(3) - '0'
+                    && move.getPromotionPiece() == promotion)
+                return move;
+        return null;
+    }
+
+    /**
+     * Writes a move in UCI notation; needs no position
+     */
+    public static String toUci(ChessMove move) {
+        StringBuilder uci = new StringBuilder(5)
+                .append(file(move.getStartPosition())).append(rank(move.getStartPosition()))
+                .append(file(move.getEndPosition())).append(rank(move.getEndPosition()));
+        if(move.getPromotionPiece() != null)
+            uci.append(Character.toLowerCase(letter(move.getPromotionPiece())));
+        return uci.toString();
+    }
+
+    private int indexOf(ChessMove move) {
+        for(int i = 0; i < moves.length; i++)
+            if(moves[i].equals(move))
+                return i;
+        return -1;
+    }
+
+    private static boolean isCastling(CharSequence san, int end, int length) {
+        if(end != length)
+            return false;
+        char castle = san.charAt(0);
+        if(castle != 'O' && castle != '0')
+            return false;
+        for(int i = 0; i < length; i++)
+            if(san.charAt(i) != ((i % 2 == 0) ? castle : '-'))
+                return false;
+        return true;
+    }
+
+    private static char file(ChessPosition position) {
+        return (char) ('a' + position.getColumn() - 1);
+    }
+
+    private static char rank(ChessPosition position) {
+        return (char) ('0' + position.getRow());
+    }
+
+    private static char letter(PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> 'P';
+        };
+    }
+
+    static PieceType pieceType(char letter) {
+        return switch (letter) {
+            case 'K' -> PieceType.KING;
+            case 'Q' -> PieceType.QUEEN;
+            case 'R' -> PieceType.ROOK;
+            case 'B' -> PieceType.BISHOP;
+            case 'N' -> PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams the movetext of PGN games. Tag pairs, comments, variations, NAGs, move
+ * numbers and results are skipped; each game is handed over as its list of SAN moves.
+ */
+public class PgnReader {
+
+    private PgnReader() {}
+
+    /**
+     * Reads every game from a PGN source
+     *
+     * @param source   the PGN text, read once from start to end
+     * @param consumer called with the SAN moves of each game in order
+     */
+    public static void forEachGame(Reader source, Consumer<List<String>> consumer) throws IOException {
+        List<String> moves = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        int variationDepth = 0;
+        boolean inTag = false;
+        int c;
+        while((c = source.read()) != -1) {
+            char ch = (char) c;
+            if(inTag) {
+                if(ch == ']')
+                    inTag = false;
+                continue;
+            }
+            if(ch == '{') {
+                while((c = source.read()) != -1 && c != '}') {
+                    // skip the comment
+                }
+                continue;
+            }
+            if(ch == ';') {
+                while((c = source.read()) != -1 && c != '\n') {
+                    // skip to end of line
+                }
+                continue;
+            }
+            if(ch == '(' || ch == ')' || ch == '[' || Character.isWhitespace(ch)) {
+                if(variationDepth == 0 && endToken(token, moves)) {
+                    consumer.accept(moves);
+                    moves = new ArrayList<>();
+                }
+                token.setLength(0);
+                if(ch == '(')
+                    variationDepth++;
+                else if(ch == ')')
+                    variationDepth = Math.max(0, variationDepth - 1);
+                else if(ch == '[') {
+                    if(!moves.isEmpty()) { // a game without a result token
+                        consumer.accept(moves);
+                        moves = new ArrayList<>();
+                    }
+                    inTag = true;
+                }
+                continue;
+            }
+            token.append(ch);
+        }
+        boolean ended = variationDepth == 0 && endToken(token, moves);
+        if(ended || !moves.isEmpty())
+            consumer.accept(moves);
+    }
+
+    /**
+     * Files a finished token
+     *
+     * @return true if the token was a game result, ending the game
+     */
+    private static boolean endToken(StringBuilder token, List<String> moves) {
+        if(token.isEmpty())
+            return false;
+        String text = token.toString();
+        if(text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals("*"))
+            return true;
+        if(text.charAt(0) == '$')
+            return false; // numeric annotation glyph
+        int run = 0;
+        while(run < text.length() && (Character.isDigit(text.charAt(run)) || text.charAt(run) == '.'))
+            run++;
+        int start = (run > 0 && text.charAt(run - 1) == '.') ? run : 0; // "12." or "12...", but not "0-0"
+        if(start < text.length())
+            moves.add(text.substring(start));
+        return false;
+    }
+
+    /**
+     * Finds the legal move a SAN string describes. When resolving many moves in one
+     * position, create a {@link MoveNotation} once instead.
+     *
+     * @param game the position the move is played in
+     * @param san  the move, such as "Nbd7", "exd5", "e8=Q+" or "O-O"
+     * @return the move, or null if no legal move matches
+     */
+    public static ChessMove resolveSan(ChessGame game, String san) {
+        return new MoveNotation(game).fromSan(san);
+    }
+}
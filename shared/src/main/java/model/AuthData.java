@@ -0,0 +1,6 @@
+package model;
+
+/**
+ * An auth token and the user it was issued to
+ */
+public record AuthData(String authToken, String username) {}
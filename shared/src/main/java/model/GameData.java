@@ -0,0 +1,33 @@
+package model;
+
+import chess.ChessGame;
+
+/**
+ * A game, the players seated in it and its current state. Either username is null
+ * while that seat is open.
+ */
+public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+
+    /**
+     * @return the username playing the color, or null if the seat is open
+     */
+    public String username(ChessGame.TeamColor color) {
+        return (color == ChessGame.TeamColor.WHITE) ? whiteUsername : blackUsername;
+    }
+
+    /**
+     * @return a copy with the color's seat given to username, or opened if it is null
+     */
+    public GameData withPlayer(ChessGame.TeamColor color, String username) {
+        return (color == ChessGame.TeamColor.WHITE)
+                ? new GameData(gameID, username, blackUsername, gameName, game)
+                : new GameData(gameID, whiteUsername, username, gameName, game);
+    }
+
+    /**
+     * @return the game as it appears in a game list, without its state
+     */
+    public GameData summary() {
+        return new GameData(gameID, whiteUsername, blackUsername, gameName, null);
+    }
+}
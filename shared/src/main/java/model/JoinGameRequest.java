@@ -0,0 +1,5 @@
+package model;
+
+import chess.ChessGame;
+
+public record JoinGameRequest(ChessGame.TeamColor playerColor, Integer gameID) {}
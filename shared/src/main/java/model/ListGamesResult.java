@@ -0,0 +1,11 @@
+package model;
+
+import java.util.List;
+
+/**
+ * The games listed to a client, each a {@link GameData#summary()}
+ *
+ * @param next the after parameter that fetches the following page, or null if this is
+ *             the last page or the list was not paged
+ */
+public record ListGamesResult(List<GameData> games, Integer next) {}
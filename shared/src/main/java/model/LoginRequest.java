@@ -0,0 +1,3 @@
+package model;
+
+public record LoginRequest(String username, String password) {}
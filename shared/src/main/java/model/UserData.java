@@ -0,0 +1,7 @@
+package model;
+
+/**
+ * A registered user. The password is the bcrypt hash once stored, and the plain text
+ * only on its way in from a register or login request.
+ */
+public record UserData(String username, String password, String email) {}
@@ -0,0 +1,26 @@
+package websocket.commands;
+
+/**
+ * Asks the server to search the game's current position and answer with an ANALYSIS
+ * message. The server caps the depth and think time at its own limits.
+ */
+public class AnalyzeCommand extends UserGameCommand {
+
+    private final int depth;
+
+    private final long millis;
+
+    public AnalyzeCommand(String authToken, Integer gameID, int depth, long millis) {
+        super(CommandType.ANALYZE, authToken, gameID);
+        this.depth = depth;
+        this.millis = millis;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
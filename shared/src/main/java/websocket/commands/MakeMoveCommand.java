@@ -0,0 +1,20 @@
+package websocket.commands;
+
+import chess.ChessMove;
+
+/**
+ * Asks the server to play a move in the game the sender is seated in
+ */
+public class MakeMoveCommand extends UserGameCommand {
+
+    private final ChessMove move;
+
+    public MakeMoveCommand(String authToken, Integer gameID, ChessMove move) {
+        super(CommandType.MAKE_MOVE, authToken, gameID);
+        this.move = move;
+    }
+
+    public ChessMove getMove() {
+        return move;
+    }
+}
@@ -0,0 +1,39 @@
+package websocket.messages;
+
+import chess.ChessMove;
+
+/**
+ * Answers an ANALYZE command with the engine's choice for the side to move
+ */
+public class AnalysisMessage extends ServerMessage {
+
+    private final ChessMove bestMove;
+
+    private final int score;
+
+    private final int depth;
+
+    /**
+     * @param bestMove the move the engine would play, or null if there is none
+     * @param score    what the best move is worth to the side to move, in centipawns
+     * @param depth    the deepest iteration the search finished
+     */
+    public AnalysisMessage(ChessMove bestMove, int score, int depth) {
+        super(ServerMessageType.ANALYSIS);
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+    }
+
+    public ChessMove getBestMove() {
+        return bestMove;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
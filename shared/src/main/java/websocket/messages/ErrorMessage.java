@@ -0,0 +1,18 @@
+package websocket.messages;
+
+/**
+ * Tells the sender of a command why it was refused. The text always starts with "Error".
+ */
+public class ErrorMessage extends ServerMessage {
+
+    private final String errorMessage;
+
+    public ErrorMessage(String errorMessage) {
+        super(ServerMessageType.ERROR);
+        this.errorMessage = errorMessage;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,20 @@
+package websocket.messages;
+
+import chess.ChessGame;
+
+/**
+ * Carries the current state of a game for the client to redraw
+ */
+public class LoadGameMessage extends ServerMessage {
+
+    private final ChessGame game;
+
+    public LoadGameMessage(ChessGame game) {
+        super(ServerMessageType.LOAD_GAME);
+        this.game = game;
+    }
+
+    public ChessGame getGame() {
+        return game;
+    }
+}
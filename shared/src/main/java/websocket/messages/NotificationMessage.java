@@ -0,0 +1,18 @@
+package websocket.messages;
+
+/**
+ * Tells a client about something another user did, or that the game reached check or its end
+ */
+public class NotificationMessage extends ServerMessage {
+
+    private final String message;
+
+    public NotificationMessage(String message) {
+        super(ServerMessageType.NOTIFICATION);
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
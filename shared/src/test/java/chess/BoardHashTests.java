@@ -0,0 +1,77 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BoardHashTests {
+
+    @Test
+    @DisplayName("Incremental Hash Matches Recomputed Hash")
+    public void incrementalHashMatches() {
+        Random random = new Random(36);
+        ChessGame game = new ChessGame();
+        game.getBoard().hashCode(); // from here on the hash is updated move by move
+        for(int ply = 0; ply < 200; ply++) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves());
+            if(moves.isEmpty())
+                break;
+            game.applyMove(moves.get(random.nextInt(moves.size())));
+            if(ply % 7 == 6)
+                game.undoMove();
+            ChessBoard fresh = copyPieces(game.getBoard());
+            Assertions.assertEquals(fresh.getPieceHash(), game.getBoard().getPieceHash());
+            Assertions.assertEquals(fresh, game.getBoard());
+        }
+    }
+
+    @Test
+    @DisplayName("Serialized Board Keeps Equality")
+    public void serializedBoardKeepsEquality() {
+        ChessGame game = new ChessGame();
+        game.getBoard().hashCode();
+        Gson gson = new Gson();
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.hashCode(), copy.hashCode());
+        copy.applyMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertNotEquals(game.getBoard(), copy.getBoard());
+    }
+
+    @Test
+    @DisplayName("Concurrent Readers Agree On The Hash")
+    public void concurrentReadersAgree() throws Exception {
+        long expected = new ChessGame().getBoard().getPieceHash();
+        try(ExecutorService readers = Executors.newFixedThreadPool(4)) {
+            for(int round = 0; round < 2000; round++) {
+                ChessBoard board = copyPieces(new ChessGame().getBoard()); // not hashed yet
+                List<Future<long[]>> seen = new ArrayList<>();
+                for(int reader = 0; reader < 4; reader++)
+                    seen.add(readers.submit(() -> {
+                        ChessBoard copy = new ChessBoard();
+                        copy.copy(board); // may copy the hash mid-publication
+                        return new long[] {board.getPieceHash(), copy.getPieceHash()};
+                    }));
+                for(Future<long[]> hashes : seen)
+                    Assertions.assertArrayEquals(new long[] {expected, expected}, hashes.get());
+            }
+        }
+    }
+
+    private static ChessBoard copyPieces(ChessBoard board) {
+        ChessBoard fresh = new ChessBoard();
+        for(int i = 1; i <= 8; i++)
+            for(int j = 1; j <= 8; j++)
+                fresh.addPiece(new ChessPosition(i, j), board.getPiece(new ChessPosition(i, j)));
+        return fresh;
+    }
+}
@@ -0,0 +1,129 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class LegalMoveTests {
+    private static final PieceType[] PROMOTIONS = {null, PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP,
+            PieceType.KNIGHT, PieceType.KING, PieceType.PAWN};
+
+    @Test
+    @DisplayName("Is Legal Matches Valid Moves")
+    public void isLegalMatchesValidMoves() {
+        Random random = new Random(33);
+        ChessGame game = new ChessGame();
+        for(int ply = 0; ply < 150; ply++) {
+            assertAgrees(game.getBoard());
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves());
+            if(moves.isEmpty() || random.nextInt(80) == 0)
+                game = new ChessGame();
+            else
+                game.applyMove(moves.get(random.nextInt(moves.size())));
+        }
+    }
+
+    @Test
+    @DisplayName("Lazy Iterator Matches All Valid Moves")
+    public void iteratorMatchesAllValidMoves() {
+        Random random = new Random(40);
+        ChessGame game = new ChessGame();
+        for(int ply = 0; ply < 300; ply++) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves());
+            List<ChessMove> iterated = new ArrayList<>();
+            game.getBoard().legalMoveIterator(game.getTeamTurn()).forEachRemaining(iterated::add);
+            Assertions.assertEquals(new HashSet<>(moves), new HashSet<>(iterated));
+            Assertions.assertEquals(moves.size(), iterated.size());
+            if(moves.isEmpty() || random.nextInt(80) == 0)
+                game = new ChessGame();
+            else
+                game.applyMove(moves.get(random.nextInt(moves.size())));
+        }
+    }
+
+    @Test
+    @DisplayName("Queries Never Show A Move Half Made")
+    public void queriesLeaveBoardAlone() throws InterruptedException {
+        ChessGame game = new ChessGame();
+        for(String move : new String[] {"e2e4", "e7e5", "d1h5", "b8c6", "f1c4", "g8f6"})
+            game.applyMove(new ChessMove(square(move, 0), square(move, 2), null));
+        ChessBoard before = new ChessBoard();
+        before.copy(game.getBoard());
+        ChessGame shared = game;
+        Thread reader = new Thread(() -> {
+            for(int i = 0; i < 2000; i++) {
+                shared.isInCheckmate(ChessGame.TeamColor.WHITE);
+                shared.isInStalemate(ChessGame.TeamColor.BLACK);
+                shared.legalMoves();
+                shared.getBoard().isLegal(new ChessMove(square("h5f7", 0), square("h5f7", 2), null));
+            }
+        });
+        reader.start();
+        while(reader.isAlive()) {
+            ChessBoard seen = new ChessBoard();
+            seen.copy(game.getBoard());
+            Assertions.assertEquals(before, seen);
+        }
+        reader.join();
+    }
+
+    private static ChessPosition square(String move, int at) {
+        return new ChessPosition(move.charAt(at + 1) - '0', move.charAt(at) - 'a' + 1);
+    }
+
+    @Test
+    @DisplayName("Castling, En Passant And Pins")
+    public void specialMoves() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                |K|p| | |P| | |r|
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | | | | |R|
+                """);
+        board.existsEnPassant = true;
+        board.enPassantSquare = new ChessPosition(6, 4);
+        assertAgrees(board);
+        board = TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """);
+        assertAgrees(board);
+        Assertions.assertTrue(board.isLegal(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 7), null)));
+        Assertions.assertTrue(board.isLegal(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 3), null)));
+    }
+
+    /**
+     * Tries every start, end and promotion for both teams and compares with validMoves
+     */
+    private static void assertAgrees(ChessBoard board) {
+        for(int row = 1; row <= 8; row++)
+            for(int col = 1; col <= 8; col++) {
+                ChessPosition start = new ChessPosition(row, col);
+                Collection<ChessMove> valid = board.validMoves(start);
+                for(int toRow = 1; toRow <= 8; toRow++)
+                    for(int toCol = 1; toCol <= 8; toCol++)
+                        for(PieceType promotion : PROMOTIONS) {
+                            ChessMove move = new ChessMove(start, new ChessPosition(toRow, toCol), promotion);
+                            Assertions.assertEquals(valid.contains(move), board.isLegal(move), move + "\n" + board);
+                        }
+            }
+    }
+}
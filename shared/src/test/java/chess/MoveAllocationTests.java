@@ -0,0 +1,62 @@
+package chess;
+
+import chess.notation.PgnReader;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MoveAllocationTests {
+    // en passant, a capturing promotion and castling on both sides
+    private static final String[] GAME = {"e4", "d5", "e5", "f5", "exf6", "Nc6", "fxg7", "Bf5", "gxh8=Q", "Qd7",
+            "Nf3", "O-O-O", "Be2", "e6", "O-O"};
+
+    @Test
+    @DisplayName("Applying And Undoing Moves Allocates Nothing")
+    public void applyMoveAllocatesNothing() throws InvalidMoveException {
+        assertReplayAllocatesNothing(false);
+    }
+
+    @Test
+    @DisplayName("Validating And Making Moves Allocates Nothing")
+    public void makeMoveAllocatesNothing() throws InvalidMoveException {
+        assertReplayAllocatesNothing(true);
+    }
+
+    private static void assertReplayAllocatesNothing(boolean validate) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = new ArrayList<>();
+        for(String san : GAME) {
+            ChessMove move = PgnReader.resolveSan(game, san);
+            moves.add(move);
+            game.applyMove(move);
+        }
+        ChessBoard end = new ChessBoard();
+        end.copy(game.getBoard());
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        replay(game, moves, 1000, validate);
+        long before = threads.getCurrentThreadAllocatedBytes();
+        replay(game, moves, 10000, validate);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        Assertions.assertEquals(end, game.getBoard());
+        Assertions.assertTrue(allocated < 1024, allocated + " bytes allocated " + (validate ? "making" : "applying")
+                + " and undoing " + 10000 * moves.size() + " moves");
+    }
+
+    private static void replay(ChessGame game, List<ChessMove> moves, int times, boolean validate) throws InvalidMoveException {
+        for(int i = 0; i < times; i++) {
+            game.goToPly(0);
+            for(int j = 0; j < moves.size(); j++) { // an iterator would be the only allocation
+                if(validate)
+                    game.makeMove(moves.get(j));
+                else game.applyMove(moves.get(j));
+            }
+        }
+    }
+}
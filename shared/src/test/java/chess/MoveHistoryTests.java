@@ -0,0 +1,76 @@
+package chess;
+
+import chess.notation.PgnReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MoveHistoryTests {
+
+    @Test
+    @DisplayName("Undo Restores Every Earlier Position")
+    public void undoRestoresPositions() {
+        Random random = new Random(35);
+        ChessGame game = new ChessGame();
+        List<ChessGame> positions = new ArrayList<>();
+        for(int ply = 0; ply < 300; ply++) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves());
+            if(moves.isEmpty())
+                break;
+            positions.add(new ChessGame(game));
+            game.applyMove(moves.get(random.nextInt(moves.size())));
+        }
+        ChessGame last = new ChessGame(game);
+        List<ChessMove> played = game.getMoveHistory();
+        Assertions.assertEquals(positions.size(), played.size());
+
+        for(int ply = positions.size() - 1; ply >= 0; ply--) {
+            Assertions.assertEquals(played.get(ply), game.undoMove());
+            assertSamePosition(positions.get(ply), game);
+        }
+        Assertions.assertNull(game.undoMove());
+
+        for(ChessMove move : played)
+            Assertions.assertEquals(move, game.redoMove());
+        Assertions.assertNull(game.redoMove());
+        assertSamePosition(last, game);
+
+        game.goToPly(positions.size() / 2);
+        assertSamePosition(positions.get(positions.size() / 2), game);
+        game.goToPly(positions.size());
+        assertSamePosition(last, game);
+    }
+
+    @Test
+    @DisplayName("New Move Discards Redo")
+    public void newMoveDiscardsRedo() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(PgnReader.resolveSan(game, "e4"));
+        game.makeMove(PgnReader.resolveSan(game, "e5"));
+        game.undoMove();
+
+        game.makeMove(PgnReader.resolveSan(game, "e5")); // the same move keeps the line
+        Assertions.assertEquals(2, game.getPly());
+        game.undoMove();
+        game.makeMove(PgnReader.resolveSan(game, "c5"));
+        Assertions.assertNull(game.redoMove());
+        Assertions.assertEquals(2, game.getMoveHistory().size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.goToPly(3));
+    }
+
+    private static void assertSamePosition(ChessGame expected, ChessGame actual) {
+        ChessBoard a = expected.getBoard();
+        ChessBoard b = actual.getBoard();
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(a.shortCastlingPrivilegesWhite, b.shortCastlingPrivilegesWhite);
+        Assertions.assertEquals(a.longCastlingPrivilegesWhite, b.longCastlingPrivilegesWhite);
+        Assertions.assertEquals(a.shortCastlingPrivilegesBlack, b.shortCastlingPrivilegesBlack);
+        Assertions.assertEquals(a.longCastlingPrivilegesBlack, b.longCastlingPrivilegesBlack);
+        Assertions.assertEquals(a.existsEnPassant, b.existsEnPassant);
+        Assertions.assertEquals(a.enPassantSquare, b.enPassantSquare);
+    }
+}
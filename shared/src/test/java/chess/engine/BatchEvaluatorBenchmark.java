@@ -0,0 +1,49 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+import java.util.List;
+
+/**
+ * Positions per second for each batch evaluator. Run with
+ * {@code --add-modules jdk.incubator.vector} to include the vector version.
+ */
+public class BatchEvaluatorBenchmark {
+    private static final int POSITIONS = 4096;
+    private static final int ROUNDS = 2000;
+
+    public static void main(String[] args) {
+        List<ChessBoard> boards = BatchEvaluatorTests.randomPositions(POSITIONS);
+        PositionBatch batch = BatchEvaluatorTests.batchOf(boards);
+        int[] scores = new int[POSITIONS];
+        int[] whiteAttacks = new int[POSITIONS];
+        int[] blackAttacks = new int[POSITIONS];
+
+        int rounds = ROUNDS / 20;
+        for(int i = 0; i < rounds; i++)
+            for(ChessBoard board : boards)
+                Evaluator.evaluate(board, ChessGame.TeamColor.WHITE);
+        long start = System.nanoTime();
+        for(int i = 0; i < rounds; i++)
+            for(ChessBoard board : boards)
+                Evaluator.evaluate(board, ChessGame.TeamColor.WHITE);
+        report("evaluator (per board)", (long) POSITIONS * rounds, System.nanoTime() - start);
+
+        BatchEvaluator best = BatchEvaluator.create();
+        List<BatchEvaluator> evaluators = (best instanceof ScalarBatchEvaluator)
+                ? List.of(best) : List.of(new ScalarBatchEvaluator(), best);
+        for(BatchEvaluator evaluator : evaluators) {
+            for(int i = 0; i < ROUNDS / 4; i++)
+                evaluator.evaluate(batch, scores, whiteAttacks, blackAttacks);
+            start = System.nanoTime();
+            for(int i = 0; i < ROUNDS; i++)
+                evaluator.evaluate(batch, scores, whiteAttacks, blackAttacks);
+            report(evaluator.name(), (long) POSITIONS * ROUNDS, System.nanoTime() - start);
+        }
+    }
+
+    private static void report(String name, long positions, long nanos) {
+        System.out.printf("%-24s %,14.0f positions/s%n", name, positions * 1e9 / nanos);
+    }
+}
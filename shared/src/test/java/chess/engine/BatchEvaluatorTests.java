@@ -0,0 +1,86 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BatchEvaluatorTests {
+
+    @Test
+    @DisplayName("Start Position Attacks")
+    public void startPositionAttacks() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        PositionBatch batch = new PositionBatch(1);
+        batch.add(board);
+        int[] scores = new int[1];
+        int[] whiteAttacks = new int[1];
+        int[] blackAttacks = new int[1];
+        new ScalarBatchEvaluator().evaluate(batch, scores, whiteAttacks, blackAttacks);
+
+        Assertions.assertEquals(0, scores[0]);
+        Assertions.assertEquals(22, whiteAttacks[0]);
+        Assertions.assertEquals(22, blackAttacks[0]);
+    }
+
+    @Test
+    @DisplayName("Scalar Matches Evaluator")
+    public void scalarMatchesEvaluator() {
+        List<ChessBoard> boards = randomPositions(50);
+        PositionBatch batch = batchOf(boards);
+        int[] scores = new int[boards.size()];
+        new ScalarBatchEvaluator().evaluate(batch, scores, new int[boards.size()], new int[boards.size()]);
+
+        for(int i = 0; i < boards.size(); i++)
+            Assertions.assertEquals(Evaluator.evaluate(boards.get(i), ChessGame.TeamColor.WHITE), scores[i],
+                    "Position " + i + ":\n" + boards.get(i));
+    }
+
+    @Test
+    @DisplayName("Vector Matches Scalar")
+    public void vectorMatchesScalar() {
+        // an odd count so the scalar tail runs too
+        List<ChessBoard> boards = randomPositions(101);
+        PositionBatch batch = batchOf(boards);
+        int n = boards.size();
+        int[][] scalar = {new int[n], new int[n], new int[n]};
+        int[][] vector = {new int[n], new int[n], new int[n]};
+        new ScalarBatchEvaluator().evaluate(batch, scalar[0], scalar[1], scalar[2]);
+        BatchEvaluator evaluator = BatchEvaluator.create();
+        evaluator.evaluate(batch, vector[0], vector[1], vector[2]);
+
+        Assertions.assertInstanceOf(VectorBatchEvaluator.class, evaluator);
+        for(int k = 0; k < scalar.length; k++)
+            Assertions.assertArrayEquals(scalar[k], vector[k]);
+    }
+
+    static List<ChessBoard> randomPositions(int count) {
+        Random random = new Random(32);
+        List<ChessBoard> boards = new ArrayList<>();
+        ChessGame game = new ChessGame();
+        while(boards.size() < count) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves());
+            if(moves.isEmpty() || random.nextInt(60) == 0) {
+                game = new ChessGame();
+                continue;
+            }
+            game.applyMove(moves.get(random.nextInt(moves.size())));
+            boards.add(game.getBoard());
+            game = new ChessGame(game);
+        }
+        return boards;
+    }
+
+    static PositionBatch batchOf(List<ChessBoard> boards) {
+        PositionBatch batch = new PositionBatch(boards.size());
+        boards.forEach(batch::add);
+        return batch;
+    }
+}
@@ -0,0 +1,77 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+public class OpeningBookTests {
+    private static final String PGN = """
+            [Event "Casual"]
+            [White "A"]
+            [Black "B"]
+
+            1. e4 e5 2. Nf3 {the main line} Nc6 3. Bc4 Bc5 4. O-O Nf6 1-0
+
+            [Event "Casual"]
+
+            1. e4 c5 (1... e5 2. Nf3) 2. Nf3 d6 $1 3. d4 cxd4 1/2-1/2
+
+            [Event "Casual"]
+
+            1. d4 d5 2. c4 e6 0-1
+            """;
+
+    @Test
+    @DisplayName("Build And Probe Book")
+    public void buildAndProbe(@TempDir Path directory) throws IOException {
+        Path pgn = directory.resolve("games.pgn");
+        Files.writeString(pgn, PGN);
+        Path bin = directory.resolve("book.bin");
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(16);
+        builder.addPgn(pgn);
+        Assertions.assertEquals(3, builder.getGames());
+        builder.write(bin);
+
+        OpeningBook book = OpeningBook.open(bin);
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = book.moves(game);
+        Assertions.assertEquals(List.of(
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+                new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null)), moves,
+                "1. e4 was played twice and 1. d4 once");
+        Assertions.assertTrue(moves.contains(book.pickMove(game, new Random(1))));
+
+        game.applyMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null));
+        Assertions.assertNull(book.pickMove(game, new Random(1)), "1. a3 is out of book");
+    }
+
+    @Test
+    @DisplayName("Castling Round Trip")
+    public void castlingRoundTrip(@TempDir Path directory) throws IOException {
+        Path pgn = directory.resolve("games.pgn");
+        Files.writeString(pgn, PGN);
+        Path bin = directory.resolve("book.bin");
+        OpeningBookBuilder builder = new OpeningBookBuilder(16);
+        builder.addPgn(pgn);
+        builder.write(bin);
+
+        ChessGame game = new ChessGame();
+        int[][] line = {{2, 5, 4, 5}, {7, 5, 5, 5}, {1, 7, 3, 6}, {8, 2, 6, 3}, {1, 6, 4, 3}, {8, 6, 5, 3}};
+        for(int[] m : line)
+            game.applyMove(new ChessMove(new ChessPosition(m[0], m[1]), new ChessPosition(m[2], m[3]), null));
+
+        Assertions.assertEquals(List.of(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 7), null)),
+                OpeningBook.open(bin).moves(game));
+    }
+}
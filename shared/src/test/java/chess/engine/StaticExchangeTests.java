@@ -0,0 +1,81 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class StaticExchangeTests {
+
+    @Test
+    @DisplayName("Pawn Takes Defended Knight")
+    public void pawnTakesDefendedKnight() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | |n| | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        ChessMove capture = new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null);
+        Assertions.assertEquals(Evaluator.KNIGHT_VALUE - Evaluator.PAWN_VALUE, StaticExchange.evaluate(board, capture));
+    }
+
+    @Test
+    @DisplayName("Rook Takes Defended Pawn")
+    public void rookTakesDefendedPawn() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |R|K| | | |
+                """);
+        ChessMove capture = new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 4), null);
+        Assertions.assertEquals(Evaluator.PAWN_VALUE - Evaluator.ROOK_VALUE, StaticExchange.evaluate(board, capture));
+        Assertions.assertFalse(StaticExchange.isSafe(board, capture));
+    }
+
+    @Test
+    @DisplayName("X-Ray Attacker Joins Exchange")
+    public void xRayAttacker() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | |r|k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |R| | | | |
+                | | | |R|K| | | |
+                """);
+        ChessMove capture = new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null);
+        Assertions.assertEquals(Evaluator.PAWN_VALUE, StaticExchange.evaluate(board, capture));
+    }
+
+    @Test
+    @DisplayName("Undefended Capture Wins Victim")
+    public void undefendedCapture() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |q| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K|B| | |
+                """);
+        ChessMove capture = new ChessMove(new ChessPosition(1, 6), new ChessPosition(5, 2), null);
+        Assertions.assertEquals(Evaluator.QUEEN_VALUE, StaticExchange.evaluate(board, capture));
+    }
+}
@@ -0,0 +1,152 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class TablebaseTests {
+    @TempDir
+    static Path directory;
+    private static Tablebase tablebase;
+    private static int longestQueenMate;
+    private static int longestRookMate;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(new Tablebase());
+        longestQueenMate = generator.generate("KQK", directory);
+        longestRookMate = generator.generate("KRK", directory);
+        generator.generate("KPK", directory);
+        tablebase = Tablebase.open(directory);
+    }
+
+    @Test
+    @DisplayName("Longest Mates")
+    public void longestMates() {
+        Assertions.assertEquals(19, longestQueenMate, "KQK is mate in 10 at most");
+        Assertions.assertEquals(31, longestRookMate, "KRK is mate in 16 at most");
+    }
+
+    @Test
+    @DisplayName("Mate In One")
+    public void mateInOne() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |Q|
+                | | | | | | | | |
+                """);
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1),
+                tablebase.probe(board, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Checkmated And Stalemated")
+    public void terminalPositions() {
+        ChessBoard mated = TestUtilities.loadBoard("""
+                |k| | | | | | |Q|
+                | | | | | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """);
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.LOSS, 0),
+                tablebase.probe(mated, ChessGame.TeamColor.BLACK));
+
+        ChessBoard stalemated = TestUtilities.loadBoard("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """);
+        Assertions.assertEquals(TablebaseResult.Outcome.DRAW,
+                tablebase.probe(stalemated, ChessGame.TeamColor.BLACK).outcome());
+    }
+
+    @Test
+    @DisplayName("Black Strong Side Is Mirrored")
+    public void mirrored() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | | | | | |
+                | | | | | | | |q|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |k| | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                """);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1), game.adjudicate(tablebase));
+    }
+
+    @Test
+    @DisplayName("King And Pawn")
+    public void kingAndPawn() {
+        ChessBoard winning = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """);
+        Assertions.assertEquals(TablebaseResult.Outcome.WIN, tablebase.probe(winning, ChessGame.TeamColor.WHITE).outcome());
+        Assertions.assertEquals(TablebaseResult.Outcome.LOSS, tablebase.probe(winning, ChessGame.TeamColor.BLACK).outcome());
+
+        ChessBoard lostPawn = TestUtilities.loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |k| |
+                | | | | | | | |P|
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                """);
+        Assertions.assertEquals(TablebaseResult.Outcome.DRAW, tablebase.probe(lostPawn, ChessGame.TeamColor.BLACK).outcome());
+    }
+
+    @Test
+    @DisplayName("Search Uses Tablebase")
+    public void searchUsesTablebase() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K|R| | | | | | |
+                """));
+        Search search = new Search();
+        search.setTablebase(tablebase);
+        SearchResult result = search.search(game, 2);
+        Assertions.assertTrue(result.score() > Search.MATE - 40, "Search should report a forced mate, got " + result.score());
+    }
+}
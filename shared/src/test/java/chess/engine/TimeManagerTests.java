@@ -0,0 +1,46 @@
+package chess.engine;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TimeManagerTests {
+
+    @Test
+    @DisplayName("Search Respects Budget")
+    public void searchRespectsBudget() {
+        ChessGame game = new ChessGame();
+        TimeManager time = TimeManager.forBudget(200);
+
+        SearchResult result = new Search().search(game, 64, time);
+
+        Assertions.assertNotNull(result.bestMove(), "An aborted search should still return a move");
+        Assertions.assertTrue(game.legalMoves().contains(result.bestMove()), "Returned move was not legal");
+        Assertions.assertTrue(time.getDriftMillis() < 250,
+                "Search overran its 200ms budget by " + time.getDriftMillis() + "ms");
+    }
+
+    @Test
+    @DisplayName("Stop Aborts Search")
+    public void stopAbortsSearch() {
+        TimeManager time = TimeManager.forBudget(60_000);
+        time.stop();
+
+        SearchResult result = new Search().search(new ChessGame(), 64, time);
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(time.getElapsedMillis() < 1000, "Stopped search kept running");
+    }
+
+    @Test
+    @DisplayName("Clock Budget")
+    public void clockBudget() {
+        TimeManager time = TimeManager.forClock(60_000, 1_000, 0);
+        Assertions.assertTrue(time.getBudgetMillis() > 1_000 && time.getBudgetMillis() < 10_000,
+                "Unexpected budget for a one minute clock: " + time.getBudgetMillis());
+
+        TimeManager nearlyFlagged = TimeManager.forClock(40, 0, 0);
+        Assertions.assertTrue(nearlyFlagged.getBudgetMillis() <= 40);
+    }
+}
@@ -0,0 +1,67 @@
+package chess.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+public class UciTests {
+
+    @Test
+    @DisplayName("Handshake And Fixed Depth Search")
+    public void handshakeAndSearch() throws IOException {
+        String output = run("""
+                uci
+                isready
+                position startpos moves e2e4 e7e5
+                go depth 2
+                """);
+        Assertions.assertTrue(output.contains("uciok"), output);
+        Assertions.assertTrue(output.contains("readyok"), output);
+        Assertions.assertTrue(output.contains("info depth 2"), output);
+        Assertions.assertTrue(output.contains("bestmove "), output);
+    }
+
+    @Test
+    @DisplayName("Finds Mate From FEN")
+    public void findsMate() throws IOException {
+        String output = run("""
+                position fen 6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1
+                go nodes 5000
+                """);
+        Assertions.assertTrue(output.contains("score mate 1"), output);
+        Assertions.assertTrue(output.contains("bestmove d1d8"), output);
+    }
+
+    @Test
+    @DisplayName("Stop Ends Infinite Search")
+    public void stopEndsInfiniteSearch() throws IOException {
+        String output = run("""
+                setoption name Threads value 2
+                go infinite
+                stop
+                position startpos moves e2e5
+                """);
+        Assertions.assertTrue(output.contains("bestmove "), output);
+        Assertions.assertTrue(output.contains("info string illegal move e2e5"), output);
+    }
+
+    @Test
+    @DisplayName("Bench Signature Is Deterministic")
+    public void benchIsDeterministic() {
+        Uci uci = new Uci(new StringReader(""), new PrintStream(new ByteArrayOutputStream()));
+        long nodes = uci.bench(2);
+        Assertions.assertTrue(nodes > 0);
+        Assertions.assertEquals(nodes, uci.bench(2));
+    }
+
+    private static String run(String script) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Uci(new StringReader(script), new PrintStream(bytes, true)).run();
+        return bytes.toString();
+    }
+}
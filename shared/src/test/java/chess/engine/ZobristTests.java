@@ -0,0 +1,44 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Start Position Has The Polyglot Key")
+    public void startPosition() {
+        Assertions.assertEquals(0x463b96181691fc9cL, Zobrist.hash(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Polyglot Reference Positions")
+    public void referencePositions() {
+        // The test positions of the Polyglot book format, covering castling rights lost
+        // by king and rook moves and en passant keys counted only when a capture is possible
+        assertKeys(new String[] {"e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"},
+                0x823c9b50fd114196L, 0x0756b94461c50fb0L, 0x662fafb965db29d4L, 0x22a48b5a8e47ff78L,
+                0x652a607ca3f242c1L, 0x00fdd303c946bdd9L);
+        assertKeys(new String[] {"a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3"},
+                0, 0, 0, 0, 0x3c8123ea7b067637L, 0, 0x5c3f9b829b279560L);
+    }
+
+    /**
+     * Plays the moves from the start position, checking the key after each one that has
+     * an expected key other than 0
+     */
+    private static void assertKeys(String[] moves, long... keys) {
+        ChessGame game = new ChessGame();
+        for(int i = 0; i < moves.length; i++) {
+            String move = moves[i];
+            game.applyMove(new ChessMove(new ChessPosition(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                    new ChessPosition(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null));
+            if(keys[i] != 0)
+                Assertions.assertEquals(keys[i], Zobrist.hash(game), "after " + move);
+        }
+    }
+}
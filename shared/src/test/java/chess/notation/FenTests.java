@@ -0,0 +1,38 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Start Position")
+    public void startPosition() {
+        ChessGame game = Fen.parse(Fen.START);
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(Fen.START, Fen.format(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Round Trip With Castling And En Passant")
+    public void roundTrip() {
+        String kiwipete = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        Assertions.assertEquals(kiwipete, Fen.format(Fen.parse(kiwipete)));
+
+        String enPassant = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 1";
+        ChessGame game = Fen.parse(enPassant);
+        Assertions.assertEquals(new ChessPosition(6, 6), game.getBoard().enPassantSquare);
+        Assertions.assertEquals(enPassant, Fen.format(game));
+    }
+
+    @Test
+    @DisplayName("Rejects Malformed Text")
+    public void rejectsMalformed() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8 w - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse(Fen.START.replace(" w ", " x ")));
+    }
+}
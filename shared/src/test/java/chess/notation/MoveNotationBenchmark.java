@@ -0,0 +1,68 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * Moves per second for writing and parsing SAN and UCI over a set of random positions.
+ * Creating the codec, which generates the legal moves, is timed separately.
+ */
+public class MoveNotationBenchmark {
+    private static final int POSITIONS = 500;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        List<ChessGame> games = MoveNotationTests.randomPositions(POSITIONS);
+        MoveNotation[] codecs = new MoveNotation[POSITIONS];
+        String[][] sans = new String[POSITIONS][];
+        String[][] ucis = new String[POSITIONS][];
+        int moves = 0;
+        for(int i = 0; i < POSITIONS; i++) {
+            codecs[i] = new MoveNotation(games.get(i));
+            ChessMove[] legal = codecs[i].legalMoves();
+            sans[i] = new String[legal.length];
+            ucis[i] = new String[legal.length];
+            for(int j = 0; j < legal.length; j++) {
+                sans[i][j] = codecs[i].toSan(legal[j]);
+                ucis[i][j] = MoveNotation.toUci(legal[j]);
+            }
+            moves += legal.length;
+        }
+
+        for(int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            for(int round = 0; round < ROUNDS; round++)
+                for(ChessGame game : games)
+                    new MoveNotation(game);
+            report("create codec", (long) POSITIONS * ROUNDS, "positions", start, warmup);
+
+            start = System.nanoTime();
+            for(int round = 0; round < ROUNDS; round++)
+                for(MoveNotation codec : codecs)
+                    for(ChessMove move : codec.legalMoves())
+                        codec.toSan(move);
+            report("write SAN", (long) moves * ROUNDS, "moves", start, warmup);
+
+            start = System.nanoTime();
+            for(int round = 0; round < ROUNDS; round++)
+                for(int i = 0; i < POSITIONS; i++)
+                    for(String san : sans[i])
+                        codecs[i].fromSan(san);
+            report("parse SAN", (long) moves * ROUNDS, "moves", start, warmup);
+
+            start = System.nanoTime();
+            for(int round = 0; round < ROUNDS; round++)
+                for(int i = 0; i < POSITIONS; i++)
+                    for(String uci : ucis[i])
+                        codecs[i].fromUci(uci);
+            report("parse UCI", (long) moves * ROUNDS, "moves", start, warmup);
+        }
+    }
+
+    private static void report(String name, long count, String unit, long start, int warmup) {
+        if(warmup > 0)
+            System.out.printf("%-14s %,14.0f %s/s%n", name, count * 1e9 / (System.nanoTime() - start), unit);
+    }
+}
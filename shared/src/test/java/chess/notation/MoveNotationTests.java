@@ -0,0 +1,98 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class MoveNotationTests {
+
+    @Test
+    @DisplayName("Round Trip Every Legal Move")
+    public void roundTrip() {
+        for(ChessGame game : randomPositions(60)) {
+            MoveNotation notation = new MoveNotation(game);
+            Set<String> written = new HashSet<>();
+            for(ChessMove move : notation.legalMoves()) {
+                String san = notation.toSan(move);
+                Assertions.assertTrue(written.add(san), "Duplicate SAN " + san);
+                Assertions.assertEquals(move, notation.fromSan(san), san);
+                Assertions.assertEquals(move, notation.fromUci(MoveNotation.toUci(move)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Disambiguation, Promotion And Mate")
+    public void specialMoves() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | |r| | |k| |
+                | | |P| | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| |N|N|
+                """));
+        MoveNotation notation = new MoveNotation(game);
+
+        Assertions.assertEquals("cxd8=Q#", notation.toSan(move(7, 3, 8, 4, PieceType.QUEEN)));
+        Assertions.assertEquals("c8=N", notation.toSan(move(7, 3, 8, 3, PieceType.KNIGHT)));
+        Assertions.assertEquals("R1a2", notation.toSan(move(1, 1, 2, 1, null)));
+        Assertions.assertEquals("Ra8", notation.toSan(move(3, 1, 8, 1, null)));
+        Assertions.assertEquals("Nf3", notation.toSan(move(1, 7, 3, 6, null)));
+        Assertions.assertEquals(move(7, 3, 8, 4, PieceType.QUEEN), notation.fromSan("cxd8Q"));
+        Assertions.assertEquals("c7d8q", MoveNotation.toUci(move(7, 3, 8, 4, PieceType.QUEEN)));
+        Assertions.assertNull(notation.fromSan("Bb2"));
+        Assertions.assertNull(notation.fromUci("e1e3"));
+    }
+
+    @Test
+    @DisplayName("Castling And Checkmate Suffix")
+    public void castlingAndMate() {
+        ChessGame game = new ChessGame();
+        for(String san : new String[]{"e4", "e5", "Qh5", "Nc6", "Bc4", "Nf6"})
+            game.applyMove(PgnReader.resolveSan(game, san));
+        MoveNotation notation = new MoveNotation(game);
+        Assertions.assertEquals("Qxf7#", notation.toSan(move(5, 8, 7, 6, null)));
+
+        game.applyMove(PgnReader.resolveSan(game, "Nf3"));
+        game.applyMove(PgnReader.resolveSan(game, "Be7"));
+        notation = new MoveNotation(game);
+        Assertions.assertEquals("O-O", notation.toSan(move(1, 5, 1, 7, null)));
+        Assertions.assertEquals(move(1, 5, 1, 7, null), notation.fromSan("0-0"));
+        Assertions.assertEquals(move(1, 5, 1, 7, null), notation.fromUci("e1g1"));
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol, PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), promotion);
+    }
+
+    static List<ChessGame> randomPositions(int count) {
+        Random random = new Random(37);
+        List<ChessGame> games = new ArrayList<>();
+        ChessGame game = new ChessGame();
+        while(games.size() < count) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves());
+            if(moves.isEmpty() || random.nextInt(70) == 0) {
+                game = new ChessGame();
+                continue;
+            }
+            game.applyMove(moves.get(random.nextInt(moves.size())));
+            games.add(new ChessGame(game));
+        }
+        return games;
+    }
+}